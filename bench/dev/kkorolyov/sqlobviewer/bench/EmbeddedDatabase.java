@@ -0,0 +1,121 @@
+package dev.kkorolyov.sqlobviewer.bench;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.POOL_HEALTH_CHECK_INTERVAL;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.POOL_IDLE_TIMEOUT;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.TABLE_CACHE_SIZE;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.opentable.db.postgres.embedded.EmbeddedPostgres;
+
+import dev.kkorolyov.sqlob.connection.DatabaseConnection;
+import dev.kkorolyov.sqlob.connection.DatabaseConnection.DatabaseType;
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool;
+
+/**
+ * A throwaway PostgreSQL server run locally on loopback, populated with synthetic tables.
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+	private static final String	DATABASE = "postgres",
+															USER = "postgres";
+	private static final int BATCH_SIZE = 10000;
+	
+	private final EmbeddedPostgres postgres;
+	
+	/**
+	 * Starts a new embedded database.
+	 * @throws IOException if the server fails to start
+	 */
+	public EmbeddedDatabase() throws IOException {
+		postgres = EmbeddedPostgres.start();
+	}
+	
+	/**
+	 * Creates and populates a table, replacing any existing table of the same name.
+	 * @param name table name
+	 * @param columns table columns, the first of which is the primary key
+	 * @param rows table rows
+	 * @throws SQLException if a database error occurs
+	 */
+	public void createTable(String name, Column[] columns, RowEntry[][] rows) throws SQLException {
+		try (Connection conn = postgres.getPostgresDatabase().getConnection()) {
+			try (Statement s = conn.createStatement()) {
+				s.execute("DROP TABLE IF EXISTS " + name);
+				s.execute(buildCreate(name, columns));
+			}
+			conn.setAutoCommit(false);
+			
+			try (PreparedStatement s = conn.prepareStatement(buildInsert(name, columns))) {
+				for (int i = 0; i < rows.length; i++) {
+					for (int j = 0; j < columns.length; j++)
+						s.setObject(j + 1, rows[i][j].getValue());
+					
+					s.addBatch();
+					if ((i + 1) % BATCH_SIZE == 0)
+						s.executeBatch();
+				}
+				s.executeBatch();
+			}
+			conn.commit();
+			
+			try (Statement s = conn.createStatement()) {
+				s.execute("ANALYZE " + name);
+			}
+		}
+	}
+	private static String buildCreate(String name, Column[] columns) {
+		StringBuilder builder = new StringBuilder("CREATE TABLE ").append(name).append(" (");
+		
+		for (int i = 0; i < columns.length; i++) {
+			builder.append(i > 0 ? ", " : "").append(columns[i].getName()).append(' ').append(toSqlTypeName(columns[i].getType()));
+			
+			if (i == 0)
+				builder.append(" PRIMARY KEY");
+		}
+		return builder.append(')').toString();
+	}
+	private static String buildInsert(String name, Column[] columns) {
+		StringBuilder builder = new StringBuilder("INSERT INTO ").append(name).append(" VALUES (");
+		
+		for (int i = 0; i < columns.length; i++)
+			builder.append(i > 0 ? ", ?" : "?");
+		
+		return builder.append(')').toString();
+	}
+	private static String toSqlTypeName(SqlType type) {
+		switch (type) {
+			case DOUBLE:
+				return "DOUBLE PRECISION";
+			case CHAR:
+				return "CHAR(1)";
+			case VARCHAR:
+				return "VARCHAR(255)";
+			default:
+				return type.name();
+		}
+	}
+	
+	/**
+	 * @param readLanes number of read lanes in the pool
+	 * @return new connection pool to this database, otherwise configured like the application's pools
+	 * @throws SQLException if a database error occurs
+	 */
+	public ConnectionPool openPool(int readLanes) throws SQLException {
+		String host = "localhost:" + postgres.getPort();
+		
+		return new ConnectionPool(() -> new DatabaseConnection(host, DATABASE, DatabaseType.POSTGRESQL, USER, ""), readLanes, Config.getInt(POOL_IDLE_TIMEOUT), Config.getInt(POOL_HEALTH_CHECK_INTERVAL), Config.getInt(TABLE_CACHE_SIZE));
+	}
+	
+	@Override
+	public void close() throws IOException {
+		postgres.close();
+	}
+}
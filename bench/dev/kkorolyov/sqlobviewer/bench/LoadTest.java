@@ -0,0 +1,161 @@
+package dev.kkorolyov.sqlobviewer.bench;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.POOL_READ_LANES;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import javax.swing.SwingUtilities;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.Session;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
+import dev.kkorolyov.sqlobviewer.bench.SyntheticData.Distribution;
+import dev.kkorolyov.sqlobviewer.bench.SyntheticData.TypeMix;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+import dev.kkorolyov.sqlobviewer.metrics.LatencyHistogram;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+import dev.kkorolyov.sqlobviewer.metrics.OperationMetrics;
+
+/**
+ * End-to-end load test against an embedded database.
+ * Drives a {@code Session} and a {@code SQLObTableModel} the same way the application's main screen does, through a scripted sequence of table selects, refreshes, row updates, and row deletes.
+ * Both are built and driven on the event dispatch thread, and each step's latency includes the event dispatch thread work it queues.
+ * <p>
+ * Options: {@code --rows <n>}, {@code --tables <n>}, {@code --mix <TypeMix>}, {@code --distribution <Distribution>}, {@code --iterations <n>}, {@code --warmup <n>}, {@code --seed <n>}
+ */
+public class LoadTest {
+	private static final String TABLE_PREFIX = "load_";
+
+	private int rows = 100000,
+							tables = 2,
+							iterations = 50,
+							warmup = 5;
+	private long seed = 1;
+	private TypeMix mix = TypeMix.MIXED;
+	private Distribution distribution = Distribution.UNIFORM;
+
+	private Session session;
+	private SQLObTableModel model;
+	private Column[] columns;
+	private Random random;
+	private Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+
+	/**
+	 * Main method.
+	 * @param args options
+	 * @throws Exception if the test fails
+	 */
+	public static void main(String[] args) throws Exception {
+		LoadTest test = new LoadTest();
+		test.parse(args);
+		test.run();
+	}
+
+	private void parse(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+
+			switch (args[i]) {
+				case "--rows":
+					rows = Integer.parseInt(value);
+					break;
+				case "--tables":
+					tables = Integer.parseInt(value);
+					break;
+				case "--mix":
+					mix = TypeMix.valueOf(value.toUpperCase());
+					break;
+				case "--distribution":
+					distribution = Distribution.valueOf(value.toUpperCase());
+					break;
+				case "--iterations":
+					iterations = Integer.parseInt(value);
+					break;
+				case "--warmup":
+					warmup = Integer.parseInt(value);
+					break;
+				case "--seed":
+					seed = Long.parseLong(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+	}
+
+	private void run() throws Exception {
+		random = new Random(seed);
+		columns = mix.buildColumns();
+
+		try (EmbeddedDatabase database = new EmbeddedDatabase()) {
+			for (int i = 0; i < tables; i++) {
+				long start = System.nanoTime();
+				database.createTable(TABLE_PREFIX + i, columns, SyntheticData.buildRows(columns, rows, distribution, seed + i));
+
+				System.out.println("# populated " + TABLE_PREFIX + i + " with " + rows + " " + mix + "/" + distribution + " rows in " + (System.nanoTime() - start) / 1000000 + "ms");
+			}
+			ConnectionPool pool = database.openPool(Config.getInt(POOL_READ_LANES));
+			SwingUtilities.invokeAndWait(() -> buildSession(pool));
+			session.awaitLoaded();
+
+			for (int i = 0; i < warmup + iterations; i++)
+				runScript(i, i >= warmup);
+
+			session.close();
+		}
+		report();
+	}
+
+	private void buildSession(ConnectionPool pool) {
+		session = new Session(pool, e -> {
+			throw new IllegalStateException(e);
+		});
+		model = new SQLObTableModel(new Column[0], new RowEntry[0][0], true);
+		model.addSqlRequestListener(session);
+		session.addChangeListener(e -> model.setData(session.getTableColumns(), session.getTableData()));	// As MainScreen.update()
+	}
+
+	private void runScript(int iteration, boolean record) throws Exception {
+		String table = TABLE_PREFIX + (iteration % tables);
+
+		step("selectTable", record, () -> session.selectTable(table, model));
+		step("refresh", record, () -> session.update(model));
+		step("updateRow", record, () -> {
+			int row = random.nextInt(model.getRowCount()),
+					column = 1 + random.nextInt(columns.length - 1);	// Never the key
+
+			model.setValueAt(SyntheticData.entry(columns[column], random.nextInt(SyntheticData.CARDINALITY)).getValue(), row, column);
+		});
+		step("deleteRow", record, () -> model.deleteRow(model.getRow(random.nextInt(model.getRowCount()))));
+	}
+	private void step(String name, boolean record, Runnable action) throws Exception {
+		long start = System.nanoTime();
+		SwingUtilities.invokeAndWait(action);
+		SwingUtilities.invokeAndWait(() -> {});	// Waits for the updates the action queued, e.g. load completions
+		long elapsed = System.nanoTime() - start;
+
+		if (record)
+			latencies.computeIfAbsent(name, key -> new LatencyHistogram()).record(elapsed);
+	}
+
+	private void report() {
+		System.out.println("step\tcount\tp50_ms\tp99_ms\tmax_ms");
+		for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet())
+			System.out.println(entry.getKey() + "\t" + format(entry.getValue()));
+
+		System.out.println();
+		System.out.println("# breakdown");
+		for (OperationMetrics operation : Metrics.getAll())
+			System.out.println("# " + operation);
+	}
+	private static String format(LatencyHistogram histogram) {
+		return histogram.getCount() + "\t" + millis(histogram.getPercentile(50)) + "\t" + millis(histogram.getPercentile(99)) + "\t" + millis(histogram.getMax());
+	}
+	private static String millis(long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+}
@@ -0,0 +1,150 @@
+package dev.kkorolyov.sqlobviewer.bench;
+
+import static dev.kkorolyov.sqlob.construct.SqlType.*;
+
+import java.util.Random;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.MismatchedTypeException;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+
+/**
+ * Generates reproducible synthetic table data.
+ * The first column of every generated table holds a unique key, all other columns draw from a bounded set of values according to a {@code Distribution}.
+ */
+public class SyntheticData {
+	/** Number of distinct values in each non-key column */
+	public static final int CARDINALITY = 1000;
+	
+	/**
+	 * A mix of column types.
+	 */
+	@SuppressWarnings("javadoc")
+	public enum TypeMix {
+		NUMERIC(INTEGER, BIGINT, DOUBLE, SMALLINT, REAL),
+		TEXT(VARCHAR, VARCHAR, CHAR, VARCHAR),
+		MIXED(INTEGER, VARCHAR, BOOLEAN, DOUBLE, VARCHAR, BIGINT);
+		
+		private final SqlType[] types;
+		
+		private TypeMix(SqlType... types) {
+			this.types = types;
+		}
+		
+		/** @return columns of this mix */
+		public Column[] buildColumns() {
+			Column[] columns = new Column[types.length];
+			
+			for (int i = 0; i < columns.length; i++)
+				columns[i] = new Column(types[i].name().toLowerCase() + "_" + i, types[i]);
+			
+			return columns;
+		}
+	}
+	
+	/**
+	 * A distribution of non-key column values.
+	 */
+	public enum Distribution {
+		/** Values drawn uniformly */
+		UNIFORM,
+		/** Values unique per row */
+		UNIQUE,
+		/** Few values dominate, roughly following Zipf's law */
+		SKEWED,
+		/** Most values {@code null}, the rest uniform */
+		HIGH_NULL;
+		
+		private static final double NULL_RATE = .8;
+		
+		Integer next(int key, Random random) {
+			switch (this) {
+				case UNIQUE:
+					return key;
+				case SKEWED:
+					return (int) Math.pow(CARDINALITY, random.nextDouble()) - 1;	// Log-uniform, so value v has probability ~1/v
+				case HIGH_NULL:
+					return random.nextDouble() < NULL_RATE ? null : random.nextInt(CARDINALITY);
+				default:
+					return random.nextInt(CARDINALITY);
+			}
+		}
+	}
+	
+	private SyntheticData() {}
+	
+	/**
+	 * @param columns row columns
+	 * @param count number of rows
+	 * @param seed random seed
+	 * @return {@code count} generated rows with uniformly-distributed values
+	 */
+	public static RowEntry[][] buildRows(Column[] columns, int count, long seed) {
+		return buildRows(columns, count, Distribution.UNIFORM, seed);
+	}
+	/**
+	 * @param columns row columns
+	 * @param count number of rows
+	 * @param distribution distribution of non-key values
+	 * @param seed random seed
+	 * @return {@code count} generated rows
+	 */
+	public static RowEntry[][] buildRows(Column[] columns, int count, Distribution distribution, long seed) {
+		Random random = new Random(seed);
+		RowEntry[][] rows = new RowEntry[count][];
+		
+		for (int i = 0; i < count; i++)
+			rows[i] = buildRow(columns, i, distribution, random);
+		
+		return rows;
+	}
+	/**
+	 * @param columns row columns
+	 * @param key unique key of the row
+	 * @param distribution distribution of non-key values
+	 * @param random source of non-key values
+	 * @return generated row
+	 */
+	public static RowEntry[] buildRow(Column[] columns, int key, Distribution distribution, Random random) {
+		RowEntry[] row = new RowEntry[columns.length];
+		
+		for (int i = 0; i < row.length; i++)
+			row[i] = entry(columns[i], (i == 0) ? Integer.valueOf(key) : distribution.next(key, random));
+		
+		return row;
+	}
+	
+	/**
+	 * @param column column of entry
+	 * @param value numeric seed of the entry's value, or {@code null} for a {@code null} value
+	 * @return entry holding a value of {@code column}'s type derived from {@code value}
+	 */
+	public static RowEntry entry(Column column, Integer value) {
+		try {
+			return new RowEntry(column, (value != null) ? valueOf(column.getType(), value) : null);
+		} catch (MismatchedTypeException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	private static Object valueOf(SqlType type, int value) {
+		switch (type) {
+			case BOOLEAN:
+				return (value & 1) == 0;
+			case SMALLINT:
+				return (short) value;
+			case INTEGER:
+				return value;
+			case BIGINT:
+				return (long) value * 31;
+			case REAL:
+				return value / 4f;
+			case DOUBLE:
+				return value / 8d;
+			case CHAR:
+				return (char) ('A' + value % 26);
+			default:
+				return "value-" + value;
+		}
+	}
+}
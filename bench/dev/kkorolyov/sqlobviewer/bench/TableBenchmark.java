@@ -0,0 +1,66 @@
+package dev.kkorolyov.sqlobviewer.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlobviewer.bench.SyntheticData.TypeMix;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTable;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+
+/**
+ * Benchmarks {@code SQLObTable} filter and sort paths, headless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xms8g", "-Xmx24g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TableBenchmark {
+	@Param({"10000", "1000000", "10000000"})
+	int rows;
+	@Param({"NUMERIC", "TEXT", "MIXED"})
+	TypeMix mix;
+	
+	private SQLObTable table;
+	private String[] filterValues;
+	private int cursor;
+	
+	/** Builds model and table. */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Column[] columns = mix.buildColumns();
+		SQLObTableModel model = new SQLObTableModel(columns, SyntheticData.buildRows(columns, rows, 1), true);
+		
+		table = new SQLObTable(model);
+		
+		Object[] uniqueValues = model.getUniqueValues(1);
+		filterValues = new String[uniqueValues.length];
+		for (int i = 0; i < filterValues.length; i++)
+			filterValues[i] = String.valueOf(uniqueValues[i]);
+		
+		Arrays.sort(filterValues);
+	}
+	
+	/** Filters a non-key column by one of its values, then clears the filter. */
+	@Benchmark
+	public void filter() {
+		table.addFilter(filterValues[Math.floorMod(cursor++, filterValues.length)], 1);
+		table.removeFilter(1);
+	}
+	
+	/** Toggles the sort order of a non-key column. */
+	@Benchmark
+	public void sort() {
+		table.getRowSorter().toggleSortOrder(1 + (cursor++ & 1));
+	}
+	
+	/** Re-sorts by the current sort keys, as done on every data refresh. */
+	@Benchmark
+	public void resort() {
+		table.sort();
+	}
+}
@@ -0,0 +1,97 @@
+package dev.kkorolyov.sqlobviewer.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.bench.SyntheticData.TypeMix;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+
+/**
+ * Benchmarks {@code SQLObTableModel} hot paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx24g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TableModelBenchmark {
+	private static final int PROBES = 1024;
+	
+	@Param({"10000", "1000000", "10000000"})
+	int rows;
+	@Param({"NUMERIC", "TEXT", "MIXED"})
+	TypeMix mix;
+	
+	private Column[] columns;
+	private RowEntry[][] 	data,
+												changedData;
+	private SQLObTableModel model;
+	private RowEntry[][] probes;
+	private int cursor;
+	private boolean changed;
+	
+	/** Builds data and model. */
+	@Setup(Level.Trial)
+	public void setUp() {
+		columns = mix.buildColumns();
+		data = SyntheticData.buildRows(columns, rows, 1);
+		changedData = SyntheticData.buildRows(columns, rows, 2);
+		
+		model = new SQLObTableModel(columns, Arrays.copyOf(data, data.length), true);
+		
+		Random random = new Random(3);
+		probes = new RowEntry[PROBES][];
+		for (int i = 0; i < probes.length; i++)
+			probes[i] = model.getRow(random.nextInt(rows));
+	}
+	
+	/** Sets identical data, exercising the sort and diff without a change. */
+	@Benchmark
+	public void setDataUnchanged() {
+		model.setData(columns, Arrays.copyOf(data, data.length));	// Model sorts its argument in place
+	}
+	/** Alternates between two data sets, exercising the sort, diff, and re-index of a change. */
+	@Benchmark
+	public void setDataChanged() {
+		changed = !changed;
+		RowEntry[][] next = changed ? changedData : data;
+		
+		model.setData(columns, Arrays.copyOf(next, next.length));
+	}
+	
+	/** @param blackhole result sink */
+	@Benchmark
+	public void getUniqueValues(Blackhole blackhole) {
+		blackhole.consume(model.getUniqueValues(Math.floorMod(cursor++, columns.length)));
+	}
+	
+	/** @return index of a random existing row */
+	@Benchmark
+	public int getIndex() {
+		return model.getIndex(probes[cursor++ & (PROBES - 1)]);
+	}
+	
+	/** @return a random cell value */
+	@Benchmark
+	public Object getValueAt() {
+		int probe = cursor++;
+		
+		return model.getValueAt(Math.floorMod(probe * 7919, model.getRowCount()), Math.floorMod(probe, columns.length));	// Stays in range once the cursor overflows
+	}
+	
+	/** Deletes a random row, then restores it so the row count stays stable. */
+	@Benchmark
+	public void deleteRow() {
+		RowEntry[] row = probes[cursor++ & (PROBES - 1)];
+		
+		model.deleteRow(row);
+		model.insertRow(row);
+	}
+}
@@ -0,0 +1,253 @@
+package dev.kkorolyov.sqlobviewer;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import dev.kkorolyov.sqlob.connection.DatabaseConnection.DatabaseType;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool;
+import dev.kkorolyov.sqlobviewer.gui.MainScreen;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestListener;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTable;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.InstrumentedSqlRequestListener;
+import dev.kkorolyov.sqlobviewer.metrics.LatencyHistogram;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+import dev.kkorolyov.sqlobviewer.metrics.OperationMetrics;
+
+/**
+ * Replays scripted UI scenarios headlessly against the saved login's database.
+ * A session and main screen are wired as by {@code Controller}, laid out offscreen at the configured window size, and driven on the event dispatch thread.
+ * Results are printed as tab-separated lines of {@code scenario, step, count, p50_ms, p99_ms, max_ms}.
+ */
+public class BenchRunner {
+	private static final Log log = Log.get(BenchRunner.class);
+
+	private static final int	SCROLL_STEPS = 50,
+														FILTER_VALUES = 10;
+
+	/** A scripted benchmark scenario. */
+	public enum Scenario {
+		/** Selects each table in the database */
+		OPEN,
+		/** Scrolls the first displayed table from top to bottom */
+		SCROLL,
+		/** Filters the first displayed table by several values of each column */
+		FILTER,
+		/** Toggles the sort order of each column of the first displayed table */
+		SORT,
+		/** Sets and restores cell values; writes to the database, so excluded from {@link #ALL} */
+		EDIT,
+		/** Refreshes the current table */
+		REFRESH,
+		/** All read-only scenarios */
+		ALL;
+
+		boolean includes(Scenario scenario) {
+			return this == scenario || (this == ALL && scenario != EDIT);
+		}
+	}
+
+	private final Scenario scenario;
+	private final int iterations;
+
+	private Session session;
+	private SqlRequestListener requests;
+	private MainScreen screen;
+	private BufferedImage canvas;
+	private Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+
+	/**
+	 * Constructs a new benchmark runner.
+	 * @param scenario scenario to run
+	 * @param iterations number of times to run the scenario
+	 */
+	public BenchRunner(Scenario scenario, int iterations) {
+		this.scenario = scenario;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Connects using the saved login, runs the scenario, and prints results.
+	 * @param out stream to print results to
+	 * @throws Exception if connecting or any scenario step fails
+	 */
+	public void run(PrintStream out) throws Exception {
+		ConnectionPool pool = Controller.buildConnectionPool(Config.get(SAVED_HOST), Config.get(SAVED_DATABASE), parseDatabaseType(Config.get(SAVED_DATABASE_TYPE)), Config.get(SAVED_USER), Config.get(SAVED_PASSWORD));
+		try {
+			SwingUtilities.invokeAndWait(() -> buildScreen(pool));
+			session.awaitLoaded();
+
+			for (int i = 0; i < iterations; i++) {
+				int iteration = i + 1;
+				log.debug(() -> "Running " + scenario + " iteration " + iteration + "/" + iterations);
+				SwingUtilities.invokeAndWait(this::runScenarios);
+			}
+			SwingUtilities.invokeAndWait(screen::clearListeners);
+		} finally {
+			if (session != null)
+				session.close();
+			else
+				pool.close();
+		}
+		report(out);
+	}
+	private static DatabaseType parseDatabaseType(String name) {
+		for (DatabaseType type : DatabaseType.values()) {
+			if (type.toString().equalsIgnoreCase(name))
+				return type;
+		}
+		throw new IllegalArgumentException("Unknown saved database type: " + name);
+	}
+
+	private void buildScreen(ConnectionPool pool) {
+		session = new Session(pool, e -> {
+			throw new IllegalStateException(e);
+		});
+		requests = new InstrumentedSqlRequestListener(session);
+
+		screen = new MainScreen(session);
+		screen.addSqlRequestListener(requests);
+
+		JPanel panel = screen.getPanel();
+		panel.setSize(Config.getInt(WINDOW_WIDTH), Config.getInt(WINDOW_HEIGHT));
+		canvas = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+	}
+
+	private void runScenarios() {
+		String[] tables = screen.getTables();
+		if (tables.length == 0)
+			throw new IllegalStateException("No tables in database: " + session.getDatabase());
+
+		if (scenario.includes(Scenario.OPEN)) {
+			for (String table : tables)
+				step(Scenario.OPEN, "selectTable", () -> requests.selectTable(table, screen));
+		} else {
+			requests.selectTable(tables[0], screen);
+		}
+
+		if (scenario.includes(Scenario.SCROLL))
+			runScroll(getTable());
+		if (scenario.includes(Scenario.FILTER))
+			runFilter(getTable());
+		if (scenario.includes(Scenario.SORT))
+			runSort(getTable());
+		if (scenario.includes(Scenario.EDIT))
+			runEdit(screen.getTableModel());
+		if (scenario.includes(Scenario.REFRESH))
+			step(Scenario.REFRESH, "update", () -> requests.update(screen));
+	}
+	private SQLObTable getTable() {
+		List<SQLObTable> tables = screen.getDisplayedTables();
+		if (tables.isEmpty())
+			throw new IllegalStateException("No displayed tables");
+
+		return tables.get(0);
+	}
+
+	private void runScroll(SQLObTable table) {
+		int rows = table.getRowCount(),
+				stride = Math.max(1, rows / SCROLL_STEPS);
+
+		for (int row = 0; row < rows; row += stride) {
+			int target = row;
+			step(Scenario.SCROLL, "scroll", () -> table.changeSelection(target, 0, false, false));
+		}
+		table.clearSelection();
+	}
+	private void runFilter(SQLObTable table) {
+		SQLObTableModel model = screen.getTableModel();	// Shared by all displayed tables
+
+		for (int column = 0; column < table.getColumnCount(); column++) {
+			Object[] values = model.getUniqueValues(column);
+			int col = column;
+
+			for (int i = 0; i < values.length && i < FILTER_VALUES; i++) {
+				String value = String.valueOf(values[i]);
+				step(Scenario.FILTER, "addFilter", () -> table.addFilter(value, col));
+			}
+			step(Scenario.FILTER, "removeFilter", () -> table.removeFilter(col));
+		}
+	}
+	private void runSort(SQLObTable table) {
+		for (int column = 0; column < table.getColumnCount(); column++) {
+			int col = column;
+
+			step(Scenario.SORT, "toggleSort", () -> table.getRowSorter().toggleSortOrder(col));
+			step(Scenario.SORT, "toggleSort", () -> table.getRowSorter().toggleSortOrder(col));
+		}
+		table.getRowSorter().setSortKeys(null);
+	}
+	private void runEdit(SQLObTableModel model) {
+		if (model.getRowCount() < 2)
+			return;
+
+		for (int column = 0; column < model.getColumnCount(); column++) {
+			if (!model.isCellEditable(0, column))
+				continue;
+
+			Object 	original = model.getValueAt(0, column),
+							replacement = model.getValueAt(1, column);
+			int col = column;
+
+			step(Scenario.EDIT, "setValue", () -> model.setValueAt(replacement, 0, col));
+			step(Scenario.EDIT, "restoreValue", () -> model.setValueAt(original, 0, col));
+		}
+	}
+
+	/** Times an action, including the layout and offscreen paint it causes. */
+	private void step(Scenario owner, String name, Runnable action) {
+		long start = System.nanoTime();
+		action.run();
+		paint();
+
+		latencies.computeIfAbsent(owner.name().toLowerCase() + "\t" + name, key -> new LatencyHistogram()).record(System.nanoTime() - start);
+	}
+	private void paint() {
+		JPanel panel = screen.getPanel();
+		layout(panel);
+
+		Graphics2D g = canvas.createGraphics();
+		try {
+			panel.paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+	private static void layout(Component component) {	// No peer, so validate() would not lay out
+		if (component instanceof Container) {
+			Container container = (Container) component;
+			container.doLayout();
+
+			for (Component child : container.getComponents())
+				layout(child);
+		}
+	}
+
+	private void report(PrintStream out) {
+		out.println("scenario\tstep\tcount\tp50_ms\tp99_ms\tmax_ms");
+		for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+			LatencyHistogram histogram = entry.getValue();
+			out.println(entry.getKey() + "\t" + histogram.getCount() + "\t" + millis(histogram.getPercentile(50)) + "\t" + millis(histogram.getPercentile(99)) + "\t" + millis(histogram.getMax()));
+		}
+		out.println();
+		out.println("# breakdown");
+		for (OperationMetrics operation : Metrics.getAll())
+			out.println("# " + operation);
+	}
+	private static String millis(long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+}
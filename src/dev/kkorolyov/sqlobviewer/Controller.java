@@ -4,48 +4,41 @@ import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
 
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.PrintWriter;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
-import javax.swing.event.ChangeEvent;
-import javax.swing.event.ChangeListener;
+import javax.swing.SwingWorker;
 
-import dev.kkorolyov.simplelogs.Logger;
 import dev.kkorolyov.simplelogs.Logger.Level;
 import dev.kkorolyov.sqlob.connection.DatabaseConnection;
 import dev.kkorolyov.sqlob.connection.DatabaseConnection.DatabaseType;
-import dev.kkorolyov.sqlob.connection.TableConnection;
-import dev.kkorolyov.sqlob.connection.UncheckedSQLException;
-import dev.kkorolyov.sqlob.construct.Column;
-import dev.kkorolyov.sqlob.construct.Results;
-import dev.kkorolyov.sqlob.construct.RowEntry;
-import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
-import dev.kkorolyov.sqlob.construct.statement.UpdateStatement;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
-import dev.kkorolyov.sqlobviewer.gui.LoginScreen;
-import dev.kkorolyov.sqlobviewer.gui.MainScreen;
-import dev.kkorolyov.sqlobviewer.gui.MainWindow;
-import dev.kkorolyov.sqlobviewer.gui.OptionsScreen;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool.ConnectionFactory;
+import dev.kkorolyov.sqlobviewer.gui.*;
 import dev.kkorolyov.sqlobviewer.gui.event.*;
-import dev.kkorolyov.sqlobviewer.model.DatabaseModel;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.InstrumentedSqlRequestListener;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
 
 /**
  * Centralized SQLObViewer application control.
+ * Manages any number of concurrent database sessions, each displayed in its own tab.
  */
-public class Controller implements DatabaseModel, SubmitListener, CancelListener, OptionsListener, SqlRequestListener {
-	private static final Logger log = Logger.getLogger(Controller.class.getName(), Level.DEBUG, (PrintWriter[]) null);
+public class Controller implements SubmitListener, CancelListener, OptionsListener, SessionListener {
+	private static final Log log = Log.get(Controller.class);
 	
-	private DatabaseConnection dbConn;
-	private TableConnection tableConn;
+	private Map<MainScreen, Session> sessions = new LinkedHashMap<>();
 	
 	private MainWindow window;	// View
-	
-	private Set<ChangeListener> changeListeners = new CopyOnWriteArraySet<>();
+	private TabbedScreen sessionsScreen;
 	
 	/**
 	 * Constructs a new controller for the specified window
@@ -57,12 +50,20 @@ public class Controller implements DatabaseModel, SubmitListener, CancelListener
 			@SuppressWarnings("synthetic-access")
 			@Override
 			public void windowClosing(WindowEvent e) {
-				log.debug("Received WINDOW CLOSING event from: " + e.getSource());
+				log.debug(() -> "Received WINDOW CLOSING event from: " + e.getSource());
 				
-				clearListeners();
-				setDatabaseConnection(null);
+				closeSessions();
+				Metrics.dump(new File(Config.get(METRICS_FILE)));
+				Config.flush();
 			}
 		});
+		Config.addListener((key, config) -> {
+			if (key.equals(WINDOW_WIDTH) || key.equals(WINDOW_HEIGHT))
+				window.setSize(config.getInt(WINDOW_WIDTH), config.getInt(WINDOW_HEIGHT));
+		});
+		sessionsScreen = new TabbedScreen();
+		sessionsScreen.addChangeListener(e -> syncTitle());
+		
 		goToLoginScreen();
 	}
 		
@@ -71,10 +72,11 @@ public class Controller implements DatabaseModel, SubmitListener, CancelListener
 		log.debug("Swapped to login screen");
 	}
 	private LoginScreen buildLoginScreen() {
-		LoginScreen loginScreen = new LoginScreen();
+		LoginScreen loginScreen = new LoginScreen(!sessions.isEmpty());
 		loginScreen.addSubmitListener(this);
 		loginScreen.addOptionsListener(this);
-		log.debug("Built new login screen = " + loginScreen);
+		loginScreen.addCancelListener(this);
+		log.debug(() -> "Built new login screen = " + loginScreen);
 
 		return loginScreen;
 	}
@@ -86,110 +88,97 @@ public class Controller implements DatabaseModel, SubmitListener, CancelListener
 	private OptionsScreen buildOptionsScreen() {
 		OptionsScreen optionsScreen = new OptionsScreen();
 		optionsScreen.addCancelListener(this);
-		log.debug("Built new options screen = " + optionsScreen);
+		log.debug(() -> "Built new options screen = " + optionsScreen);
 
 		return optionsScreen;
 	}
 	
-	private void goToMainScreen() {
-		window.setScreen(buildMainScreen(), false);
-		log.debug("Swapped to main screen");
+	private void goToSessionsScreen() {
+		window.setScreen(sessionsScreen, false);
+		syncTitle();
+		log.debug("Swapped to sessions screen");
 	}
-	private MainScreen buildMainScreen() {
-		MainScreen mainScreen = new MainScreen(this);
+	private MainScreen buildMainScreen(Session session) {
+		MainScreen mainScreen = new MainScreen(session);
 		mainScreen.addCancelListener(this);
-		mainScreen.addSqlRequestListener(this);
+		mainScreen.addSessionListener(this);
+		mainScreen.addSqlRequestListener(new InstrumentedSqlRequestListener(session));
 		
-		log.debug("Built new main screen = " + mainScreen);
+		log.debug(() -> "Built new main screen = " + mainScreen);
 
 		return mainScreen;
 	}
 	
-	@Override
-	public String getDatabase() {
-		return dbConn != null ? dbConn.getDatabaseName() : null;
-	}
-	@Override
-	public String getTable() {
-		return tableConn != null ? tableConn.getTableName() : null;
-	}
-	@Override
-	public String[] getTables() {
-		return dbConn.getTables();
-	}
-	
-	@Override
-	public Column[] getTableColumns() {
-		return tableConn != null ? tableConn.getColumns() : new Column[0];
-	}
-	@Override
-	public RowEntry[][] getTableData() {
-		if (tableConn == null)
-			return new RowEntry[0][0];
+	private void openSession(ConnectionPool pool) {
+		Session session = new Session(pool, window::displayException, window::awaitOperation);
+		MainScreen mainScreen = buildMainScreen(session);
 		
-		List<RowEntry[]> data = new LinkedList<>();
-
-		Results allResults = tableConn.select(null);
+		sessions.put(mainScreen, session);
+		sessionsScreen.addTab(session.getDatabase(), mainScreen);
 		
-		RowEntry[] currentRow;
-		while ((currentRow = allResults.getNextRow()) != null)				
-			data.add(currentRow);
-			
-		return data.toArray(new RowEntry[data.size()][]);
+		log.info(() -> "Opened session = " + session + " (" + sessions.size() + " open)");
 	}
-	
-	@Override
-	public UpdateStatement getLastStatement() {
-		UpdateStatement lastStatement = null;
+	private void closeSession(MainScreen mainScreen) {
+		Session session = sessions.remove(mainScreen);
 		
-		if (dbConn != null) {
-			for (int i = dbConn.getStatementLog().size() - 1; i >= 0; i--) {
-				StatementCommand currentStatement = dbConn.getStatementLog().get(i);
-				if (currentStatement instanceof UpdateStatement) {
-					lastStatement = (UpdateStatement) currentStatement;
-					break;
-				}
-			}
+		if (session != null) {
+			sessionsScreen.removeTab(mainScreen);
+			session.close();
+			
+			log.info(() -> "Closed session = " + session + " (" + sessions.size() + " open)");
+		}
+	}
+	private void closeSessions() {
+		for (MainScreen mainScreen : sessions.keySet().toArray(new MainScreen[sessions.size()])) {
+			mainScreen.clearListeners();
+			closeSession(mainScreen);
 		}
-		return lastStatement;
 	}
 	
-	private void setDatabaseConnection(DatabaseConnection newDatabaseConnection) {
-		if (dbConn != null)
-			dbConn.close();
-		tableConn = null;
-		
-		dbConn = newDatabaseConnection;
-		log.debug("Set database connection = " + getDatabase());
+	private void syncTitle() {
+		Session selected = sessions.get(sessionsScreen.getSelectedScreen());
 		
-		if (dbConn != null)
-			setDefaultTableConnection();
-		
-		window.setTitle(Lang.get(TITLE_WINDOW) + (getDatabase() == null ? "" : " - " + getDatabase()));
-		fireStateChanged();
+		window.setTitle(Lang.get(TITLE_WINDOW) + (selected == null ? "" : " - " + selected.getDatabase()));
 	}
-	private void setTableConnection(TableConnection newTableConnection) {
-		tableConn = newTableConnection;
-		log.debug("Set table connection = " + getTable());
+	
+	static ConnectionPool buildConnectionPool(String host, String database, DatabaseType databaseType, String user, String password) throws SQLException {
+		DriverManager.setLoginTimeout(Config.getInt(LOGIN_TIMEOUT));
 		
-		fireStateChanged();
+		ConnectionFactory factory = new ConnectionFactory() {
+			@Override
+			public DatabaseConnection open() throws SQLException {
+				return new DatabaseConnection(host, database, databaseType, user, password);
+			}
+			@Override
+			public Connection openJdbc() throws SQLException {
+				return DriverManager.getConnection(buildJdbcUrl(host, database, databaseType), user, password);
+			}
+			@Override
+			public String getIdentity() {
+				return databaseType + "://" + user + "@" + host + "/" + database;
+			}
+		};
+		return new ConnectionPool(factory, Config.getInt(POOL_READ_LANES), Config.getInt(POOL_IDLE_TIMEOUT), Config.getInt(POOL_HEALTH_CHECK_INTERVAL), Config.getInt(TABLE_CACHE_SIZE));
 	}
-	private void setDefaultTableConnection() {
-		String[] tables = getTables();
+	/**
+	 * Builds the URL of a plain JDBC connection to the same database a {@code DatabaseConnection} connects to.
+	 * Only database types whose URL format is known are supported; operations needing a plain connection are unavailable for others.
+	 * @throws SQLFeatureNotSupportedException if the URL format of {@code databaseType} is not known
+	 */
+	static String buildJdbcUrl(String host, String database, DatabaseType databaseType) throws SQLFeatureNotSupportedException {
+		if (databaseType == DatabaseType.POSTGRESQL)
+			return "jdbc:postgresql://" + host + "/" + database;
 		
-		if (tables.length > 0)
-			setTableConnection(dbConn.connect(tables[0]));
-		else
-			setTableConnection(null);
+		throw new SQLFeatureNotSupportedException("No plain JDBC connections to " + databaseType + " databases");
 	}
 	
-	private void applyOptions() {
-		window.setSize(Config.getInt(WINDOW_WIDTH), Config.getInt(WINDOW_HEIGHT));
+	private static void applyOptions() {
+		Config.reload();	// Options are edited directly on the backing properties
 	}
 	
 	@Override
 	public void submitted(SubmitSubject source) {
-		log.debug("Received SUBMITTED event from: " + source);
+		log.debug(() -> "Received SUBMITTED event from: " + source);
 		
 		if (source instanceof LoginScreen) {
 			LoginScreen loginContext = (LoginScreen) source;
@@ -206,135 +195,75 @@ public class Controller implements DatabaseModel, SubmitListener, CancelListener
 			Config.set(SAVED_PASSWORD, password);
 	
 			Config.save();
-			try {
-				setDatabaseConnection(new DatabaseConnection(host, database, databaseType, user, password));
-			} catch (SQLException e) {
-				log.exception(e, Level.WARNING);
-				window.displayException(e);
+			
+			connect(loginContext, host, database, databaseType, user, password);
+		}
+	}
+	private void connect(LoginScreen loginContext, String host, String database, DatabaseType databaseType, String user, String password) {
+		loginContext.setConnecting(true);
+		
+		new SwingWorker<ConnectionPool, Void>() {	// Connect off the event dispatch thread
+			@Override
+			protected ConnectionPool doInBackground() throws SQLException {
+				return buildConnectionPool(host, database, databaseType, user, password);
+			}
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected void done() {
+				loginContext.setConnecting(false);
+				
+				ConnectionPool pool;
+				try {
+					pool = get();
+				} catch (InterruptedException | ExecutionException e) {
+					Exception cause = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+					
+					log.exception(cause, Level.WARNING);
+					window.displayException(cause);
+					
+					return;
+				}
+				openSession(pool);	// Shown immediately, loads its tables in the background
+				loginContext.clearListeners();
 				
-				return;
+				goToSessionsScreen();
 			}
-			loginContext.removeSubmitListener(this);
-
-			goToMainScreen();
-		}
+		}.execute();
 	}
 	@Override
 	public void canceled(CancelSubject source) {
-		log.debug("Received CANCELED event from: " + source);
+		log.debug(() -> "Received CANCELED event from: " + source);
 
 		source.clearListeners();
 
 		if (source instanceof MainScreen) {
-			clearListeners();
-			setDatabaseConnection(null);
+			closeSession((MainScreen) source);
 			
-			goToLoginScreen();
+			if (sessions.isEmpty())
+				goToLoginScreen();
+			else
+				goToSessionsScreen();
 		} else if (source instanceof OptionsScreen) {
 			applyOptions();
 			
 			goToLoginScreen();
+		} else if (source instanceof LoginScreen) {
+			goToSessionsScreen();
 		}
 	}
 	
 	@Override
 	public void optionsRequested(OptionsSubject source) {
-		log.debug("Received OPTIONS REQUESTED event from " + source);
+		log.debug(() -> "Received OPTIONS REQUESTED event from " + source);
 		
 		if (source instanceof LoginScreen)
 			goToOptionsScreen();
 	}
 	
 	@Override
-	public void update(SqlRequestSubject source) {
-		log.debug("Received UPDATE event from: " + source);
-
-		fireStateChanged();
-	}
-	
-	@Override
-	public void selectTable(String table, SqlRequestSubject source) {
-		log.debug("Received SELECT TABLE (" + table + ") event from: " + source);
-
-		setTableConnection(dbConn.connect(table));
-	}
-	
-	@Override
-	public void createTable(String table, Column[] columns, SqlRequestSubject source) {
-		log.debug("Received CREATE TABLE event from: " + source);
-
-		try {
-			setTableConnection(dbConn.createTable(table, columns));
-		} catch (UncheckedSQLException e) {
-			log.exception(e, Level.WARNING);
-			window.displayException(e);
-		}
-	}
-	@Override
-	public void dropTable(String table, SqlRequestSubject source) {
-		log.debug("Received DROP TABLE event from: " + source);
-
-		dbConn.dropTable(table);
-		
-		if (getTable().equals(table))
-			setDefaultTableConnection();
-		else
-			fireStateChanged();
-	}
-	
-	@Override
-	public void updateRow(RowEntry[] newValues, RowEntry[] criteria, SqlRequestSubject source) {
-		log.debug("Received UPDATE ROW event from: " + source);
-
-		tableConn.update(newValues, criteria);
-		
-		fireStateChanged();
-	}
-	@Override
-	public void insertRow(RowEntry[] rowValues, SqlRequestSubject source) {
-		log.debug("Received INSERT ROW event from: " + source);
-
-		tableConn.insert(rowValues);
-		
-		fireStateChanged();
-	}
-	@Override
-	public void deleteRow(RowEntry[] criteria, SqlRequestSubject source) {
-		log.debug("Received DELETE ROW event from: " + source);
-
-		tableConn.delete(criteria);
-		
-		fireStateChanged();
-	}
-	
-	@Override
-	public void revertStatement(StatementCommand statement, SqlRequestSubject source) {
-		log.debug("Received REVERT STATEMENT event from: " + source + "; statement = " + statement);
-
-		dbConn.getStatementLog().revert((UpdateStatement) statement, true);
+	public void sessionRequested(SessionSubject source) {
+		log.debug(() -> "Received SESSION REQUESTED event from " + source);
 		
-		if (getTable() == null || !dbConn.containsTable(getTable()))
-			setDefaultTableConnection();
-
-		fireStateChanged();
-	}
-	
-	private void fireStateChanged() {
-		for (ChangeListener listener : changeListeners)
-			listener.stateChanged(new ChangeEvent(this));
-	}
-	
-	@Override
-	public void addChangeListener(ChangeListener listener) {
-		changeListeners.add(listener);
-	}
-	@Override
-	public void removeChangeListener(ChangeListener listener) {
-		changeListeners.remove(listener);
-	}
-	
-	@Override
-	public void clearListeners() {
-		changeListeners.clear();
+		goToLoginScreen();
 	}
 }
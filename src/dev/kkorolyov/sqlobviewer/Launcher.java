@@ -3,44 +3,136 @@ package dev.kkorolyov.sqlobviewer;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
 
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 
 import dev.kkorolyov.simplelogs.Logger;
 import dev.kkorolyov.simplelogs.Logger.Level;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.assets.Asset;
 import dev.kkorolyov.sqlobviewer.gui.MainWindow;
+import dev.kkorolyov.sqlobviewer.logging.AsyncWriter;
+import dev.kkorolyov.sqlobviewer.logging.Log;
 
 /**
  * Launcher SQLObViewer
  */
 public class Launcher {
-	private static final Logger log = Logger.getLogger(Launcher.class.getName(), Level.DEBUG, (PrintWriter[]) null);
+	private static final Log log = Log.get(Launcher.class);
+	private static final int USAGE_ERROR = 2;
 	
 	/**
 	 * Main method.
+	 * Runs headlessly with {@code --bench <scenario> [--iterations <n>]}, see {@link BenchRunner}; exits with status {@value #USAGE_ERROR} if either value is invalid.
+	 * Prints the time of each startup phase with {@code --startup-profile}.
 	 * @param args arguments
 	 */
 	public static void main(String[] args) {
-		setLogging();
+		boolean bench = Arrays.asList(args).contains("--bench"),
+						profile = Arrays.asList(args).contains("--startup-profile");
+		BenchRunner.Scenario benchScenario = bench ? parseScenario(getOption(args, "--bench")) : null;
+		int benchIterations = bench ? parseIterations(getOption(args, "--iterations")) : 0;
 		
-		MainWindow window = buildWindow();
+		if (bench)
+			System.setProperty("java.awt.headless", Boolean.TRUE.toString());	// Before any phase initializes AWT
+		
+		Startup startup = new Startup();
+		
+		CompletableFuture<Void>	config = startup.phase("config", Config::getSnapshot),	// Decrypts and rewrites config file
+														logging = startup.phase("logging", Launcher::setLogging, config),
+														strings = startup.phase("strings", () -> Lang.get(TITLE_WINDOW), config),
+														icons = startup.phase("icons", Launcher::loadIcons, config),
+														jdbc = startup.phase("jdbc", DriverManager::getDrivers),	// Loads all driver classes
+														lookAndFeel = startup.phase("lookAndFeel", UIManager::getLookAndFeelDefaults);
+		startup.await(config, logging, strings, icons, jdbc, lookAndFeel);
+		
+		if (bench) {
+			if (profile)
+				startup.print(System.out);
+			
+			System.exit(runBench(benchScenario, benchIterations));
+		}
+		MainWindow window = startup.run("window", Launcher::buildWindow);
 
 		setExceptionHandler(window);	// Will display uncaught exceptions in this window
 		
 		log.info("Launching GUI...");
-		SwingUtilities.invokeLater(() -> new Controller(window));
+		SwingUtilities.invokeLater(() -> {
+			startup.run("controller", () -> new Controller(window));
+			
+			if (profile)
+				startup.print(System.out);
+		});
 		log.info("GUI launched");
 	}
 	
+	private static String getOption(String[] args, String name) {
+		for (int i = 0; i + 1 < args.length; i++) {
+			if (args[i].equals(name))
+				return args[i + 1];
+		}
+		return null;
+	}
+	private static BenchRunner.Scenario parseScenario(String name) {
+		if (name != null) {
+			for (BenchRunner.Scenario scenario : BenchRunner.Scenario.values()) {
+				if (scenario.name().equalsIgnoreCase(name))
+					return scenario;
+			}
+		}
+		exitUsage((name == null ? "Missing benchmark scenario" : "Unknown benchmark scenario: " + name) + "; valid scenarios are " + Arrays.toString(BenchRunner.Scenario.values()));
+		return null;
+	}
+	private static int parseIterations(String value) {
+		if (value == null)
+			return 1;
+		
+		try {
+			int iterations = Integer.parseInt(value);
+			if (iterations > 0)
+				return iterations;
+		} catch (NumberFormatException e) {
+			// Reported below
+		}
+		exitUsage("Invalid benchmark iterations: " + value + "; must be a positive integer");
+		return 0;
+	}
+	private static void exitUsage(String message) {
+		System.err.println(message);
+		System.exit(USAGE_ERROR);
+	}
+	private static int runBench(BenchRunner.Scenario scenario, int iterations) {
+		log.info(() -> "Running benchmark scenario=" + scenario + ", iterations=" + iterations);
+		try {
+			new BenchRunner(scenario, iterations).run(System.out);
+		} catch (Exception e) {
+			log.exception(e, Level.SEVERE);
+			return 1;
+		}
+		return 0;
+	}
+	
+	private static void loadIcons() {
+		Asset.MAIN_ICON.asImages();
+		Asset.OPTIONS_ICON.asIcon();
+		Asset.REFRESH_ICON.asIcon();
+	}
+	
 	private static MainWindow buildWindow() {
 		String title = Lang.get(TITLE_WINDOW);
 		int width = Config.getInt(WINDOW_WIDTH),
 				height = Config.getInt(WINDOW_HEIGHT);
 		
-		log.debug("Built application window with title=" + title + ", width=" + width + ", height=" + height);
+		log.debug(() -> "Built application window with title=" + title + ", width=" + width + ", height=" + height);
 		
 		return new MainWindow(title, width, height);
 	}
@@ -48,17 +140,25 @@ public class Launcher {
 	private static void setLogging() {
 		Logger rootLogger = Logger.getLogger("", parseLoggingLevel(), (PrintWriter[]) null);
 		rootLogger.setEnabled(parseLoggingEnabled());
+		
+		Log.configure(rootLogger.isEnabled(), rootLogger.getLevel());	// Skip formatting of unlogged messages
 
 		if (rootLogger.isEnabled()) {	// Avoid adding useless loggers
-			rootLogger.addWriter(new PrintWriter(System.err));
+			rootLogger.addWriter(buildAsyncWriter(new OutputStreamWriter(System.err)));
 			try {
-				rootLogger.addWriter(new PrintWriter(Config.get(LOG_FILE)));
+				rootLogger.addWriter(buildAsyncWriter(new OutputStreamWriter(new FileOutputStream(Config.get(LOG_FILE)))));
 			} catch (FileNotFoundException e) {
 				log.severe("Cannot create log file, will not log to file");
 				log.exception(e);
 			}
 		}
-		log.severe("Logging at level=" + rootLogger.getLevel());
+		log.severe(() -> "Logging at level=" + rootLogger.getLevel());
+	}
+	private static PrintWriter buildAsyncWriter(Writer out) {
+		AsyncWriter writer = new AsyncWriter(out, Config.getInt(LOGGING_BUFFER_SIZE));
+		Runtime.getRuntime().addShutdownHook(new Thread(writer::close));	// Drain remaining messages
+		
+		return new PrintWriter(writer);
 	}
 	private static Level parseLoggingLevel() {
 		Level loggingLevel = Level.SEVERE;
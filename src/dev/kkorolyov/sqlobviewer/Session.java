@@ -0,0 +1,812 @@
+package dev.kkorolyov.sqlobviewer;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.FIRST_PAGE_ROWS;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.HISTORY_MEMORY_ENTRIES;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.JOURNAL_FOLDER;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.JOURNAL_MAX_SIZE;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.JOURNAL_SYNC_INTERVAL;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.JOURNAL_UNDO_DEPTH;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.OPERATION_TIMEOUT;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.POOL_READ_LANES;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.SESSION_CACHED_TABLES;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.connection.DatabaseConnection;
+import dev.kkorolyov.sqlob.connection.TableConnection;
+import dev.kkorolyov.sqlob.connection.UncheckedSQLException;
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.Results;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
+import dev.kkorolyov.sqlob.construct.statement.UpdateStatement;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnAggregate;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfile;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfiler;
+import dev.kkorolyov.sqlobviewer.aggregate.ServerAggregates;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionLane;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool;
+import dev.kkorolyov.sqlobviewer.connection.LaneOperation;
+import dev.kkorolyov.sqlobviewer.connection.OperationWaiter;
+import dev.kkorolyov.sqlobviewer.console.QueryConsole;
+import dev.kkorolyov.sqlobviewer.export.ExportProgress;
+import dev.kkorolyov.sqlobviewer.export.Exporter;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestListener;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestSubject;
+import dev.kkorolyov.sqlobviewer.history.StatementHistory;
+import dev.kkorolyov.sqlobviewer.importing.CsvImporter;
+import dev.kkorolyov.sqlobviewer.importing.ImportProgress;
+import dev.kkorolyov.sqlobviewer.importing.ImportResult;
+import dev.kkorolyov.sqlobviewer.journal.JournalAction;
+import dev.kkorolyov.sqlobviewer.journal.JournalChange;
+import dev.kkorolyov.sqlobviewer.journal.UndoJournal;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+import dev.kkorolyov.sqlobviewer.model.DatabaseModel;
+
+/**
+ * A single database session.
+ * Each session has its own connection pool, worker threads, and cached table metadata and data, so several sessions may stay warm side-by-side.
+ * Caches are accessed only from the event dispatch thread.
+ * A new session loads its table list, then the first table's columns and data, in the background; its first page of rows is published before the rest are fetched.
+ * Every other database operation runs in the background while its caller waits through an {@code OperationWaiter}, which may time out or cancel it; a canceled operation closes its lane's connection and leaves the affected caches invalidated.
+ */
+public class Session implements DatabaseModel, SqlRequestListener {
+	private static final Log log = Log.get(Session.class);
+	
+	private ConnectionPool pool;
+	private String table;
+	private ExecutorService worker,
+													operations;
+	private Consumer<Exception> exceptionHandler;
+	private OperationWaiter waiter;
+	private StatementHistory history;
+	private UndoJournal journal;
+	
+	private String[] tablesCache;
+	private Map<String, Column[]> columnsCache = new HashMap<>();
+	private Map<String, RowEntry[][]> dataCache;
+	
+	private boolean loading;
+	private String loadingTable;
+	private RowEntry[][] loadingPage;
+	private CountDownLatch loaded = new CountDownLatch(1);
+	
+	private Set<ChangeListener> changeListeners = new CopyOnWriteArraySet<>();
+	
+	/**
+	 * Constructs a new session over a connection pool and starts loading the first available table.
+	 * Database operations are aborted once they exceed {@code OPERATION_TIMEOUT} seconds.
+	 * Must be invoked on the event dispatch thread.
+	 * @param pool connection pool to the session's database
+	 * @param exceptionHandler handles exceptions caused by user requests
+	 */
+	public Session(ConnectionPool pool, Consumer<Exception> exceptionHandler) {
+		this(pool, exceptionHandler, OperationWaiter.timed(Config.getInt(OPERATION_TIMEOUT) * 1000L));
+	}
+	/**
+	 * Constructs a new session over a connection pool and starts loading the first available table.
+	 * Must be invoked on the event dispatch thread.
+	 * @param pool connection pool to the session's database
+	 * @param exceptionHandler handles exceptions caused by user requests
+	 * @param waiter waits for each database operation, and may abort it
+	 */
+	public Session(ConnectionPool pool, Consumer<Exception> exceptionHandler, OperationWaiter waiter) {
+		this.pool = pool;
+		this.exceptionHandler = exceptionHandler;
+		this.waiter = waiter;
+		
+		history = new StatementHistory(Config.getInt(HISTORY_MEMORY_ENTRIES));
+		journal = openJournal(pool.getDatabaseName(), pool.getIdentity());
+		
+		AtomicInteger threads = new AtomicInteger();
+		worker = Executors.newFixedThreadPool(Config.getInt(POOL_READ_LANES) + 1, r -> {	// Enough to keep every lane busy
+			Thread thread = new Thread(r, "session-" + pool.getDatabaseName() + "-" + threads.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		AtomicInteger operationThreads = new AtomicInteger();
+		operations = Executors.newCachedThreadPool(r -> {	// A thread left behind by an aborted operation never blocks the next one
+			Thread thread = new Thread(r, "session-" + pool.getDatabaseName() + "-op-" + operationThreads.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		int cachedTables = Config.getInt(SESSION_CACHED_TABLES);
+		dataCache = new LinkedHashMap<String, RowEntry[][]>(cachedTables, .75f, true) {
+			private static final long serialVersionUID = 2316479005962281372L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RowEntry[][]> eldest) {
+				return size() > cachedTables;
+			}
+		};
+		load();
+	}
+	
+	private void load() {
+		loading = true;
+		
+		CompletableFuture.supplyAsync(() -> read(null, lane -> lane.getConnection().getTables()), worker).thenCompose(names -> {
+			SwingUtilities.invokeLater(() -> {
+				tablesCache = names;
+				loadingTable = names.length > 0 ? names[0] : null;
+				
+				setTable(loadingTable);	// Table list is shown while its first table loads
+			});
+			if (names.length == 0)
+				return CompletableFuture.completedFuture(null);
+			
+			String first = names[0];
+			CompletableFuture<Column[]> columns = CompletableFuture.supplyAsync(() -> read(first, lane -> lane.getTable(first).getColumns()), worker);
+			CompletableFuture<RowEntry[][]> firstPage = new CompletableFuture<>();
+			CompletableFuture<RowEntry[][]> data = CompletableFuture.supplyAsync(() -> fetchTableData(first, firstPage::complete), worker);
+			
+			columns.thenAcceptBoth(firstPage, (cols, page) -> SwingUtilities.invokeLater(() -> {
+				columnsCache.put(first, cols);
+				if (loading) {
+					loadingPage = page;
+					fireStateChanged();
+				}
+			}));
+			return columns.thenAcceptBoth(data, (cols, rows) -> SwingUtilities.invokeLater(() -> {
+				columnsCache.put(first, cols);
+				dataCache.put(first, rows);
+			}));
+		}).whenComplete((result, e) -> SwingUtilities.invokeLater(() -> finishLoad(e)));
+	}
+	private void finishLoad(Throwable e) {
+		loading = false;
+		loadingTable = null;
+		loadingPage = null;
+		
+		if (e != null && !pool.isClosed()) {
+			Throwable cause = (e.getCause() != null) ? e.getCause() : e;	// Unwrap CompletionException
+			Exception exception = (cause instanceof Exception) ? (Exception) cause : new RuntimeException(cause);
+			
+			log.exception(exception, Level.WARNING);
+			exceptionHandler.accept(exception);
+		}
+		loaded.countDown();
+		log.debug(() -> "Finished loading session = " + getDatabase());
+		
+		fireStateChanged();
+	}
+	
+	@Override
+	public boolean isLoading() {
+		return loading;
+	}
+	/**
+	 * Waits for this session to finish loading its initial table.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void awaitLoaded() throws InterruptedException {
+		loaded.await();
+	}
+	
+	private static UndoJournal openJournal(String database, String identity) {
+		String name = database.replaceAll("[^\\w.-]", "_") + "-" + digest(identity);	// Same-named databases on other hosts or as other users keep separate journals
+		
+		for (int i = 0; i < 8; i++) {	// Concurrent sessions to the same database use separate journals
+			File file = new File(Config.get(JOURNAL_FOLDER), name + (i > 0 ? "-" + i : "") + ".journal");
+			try {
+				return new UndoJournal(file, Config.getInt(JOURNAL_SYNC_INTERVAL), Config.getInt(JOURNAL_UNDO_DEPTH), Config.getInt(JOURNAL_MAX_SIZE));
+			} catch (IOException e) {
+				log.debug(() -> "Unable to open journal = " + file + ": " + e.getMessage());
+			}
+		}
+		log.warning(() -> "No journal available for database = " + database + ", undo disabled");
+		return null;
+	}
+	private static String digest(String identity) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+			
+			StringBuilder hex = new StringBuilder();
+			for (int i = 0; i < 8; i++)
+				hex.append(String.format("%02x", hash[i]));
+			
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);	// Every Java platform supports SHA-256
+		}
+	}
+	
+	@Override
+	public StatementHistory getHistory() {
+		return history;
+	}
+	/** @return this session's background worker */
+	public ExecutorService getWorker() {
+		return worker;
+	}
+	
+	@Override
+	public String getDatabase() {
+		return pool.getDatabaseName();
+	}
+	@Override
+	public String getTable() {
+		return table;
+	}
+	@Override
+	public String[] getTables() {
+		if (tablesCache == null && loading)
+			return new String[0];
+		if (tablesCache == null)
+			tablesCache = read(null, lane -> lane.getConnection().getTables());
+		
+		return Arrays.copyOf(tablesCache, tablesCache.length);
+	}
+	
+	@Override
+	public Column[] getTableColumns() {
+		if (table == null)
+			return new Column[0];
+		
+		if (table.equals(loadingTable) && !columnsCache.containsKey(table))
+			return new Column[0];
+		
+		String currentTable = table;
+		Column[] columns = columnsCache.get(currentTable);
+		if (columns == null) {	// Not computeIfAbsent, as waiting may dispatch events which read the cache
+			columns = read(currentTable, lane -> lane.getTable(currentTable).getColumns());
+			columnsCache.put(currentTable, columns);
+		}
+		return columns;
+	}
+	@Override
+	public RowEntry[][] getTableData() {
+		if (table == null)
+			return new RowEntry[0][0];
+		
+		long start = System.nanoTime();
+		
+		RowEntry[][] data = dataCache.get(table);
+		if (data == null && table.equals(loadingTable))
+			data = (loadingPage != null) ? loadingPage : new RowEntry[0][0];	// Never block on the loading table
+		if (data == null) {
+			data = fetchTableData(table, null);
+			dataCache.put(table, data);
+		}
+		RowEntry[][] copy = Arrays.copyOf(data, data.length);	// Model sorts its copy
+		
+		Metrics.record(Metrics.TABLE_DATA, start, copy.length, 0);
+		return copy;
+	}
+	/**
+	 * @param table table to fetch
+	 * @param firstPage if not {@code null}, accepts the first {@code FIRST_PAGE_ROWS} rows as soon as they are fetched, or all rows if fewer
+	 * @return all rows of {@code table}
+	 */
+	private RowEntry[][] fetchTableData(String table, Consumer<RowEntry[][]> firstPage) {
+		int pageRows = Config.getInt(FIRST_PAGE_ROWS);
+		
+		return read(table, lane -> {
+			List<RowEntry[]> data = new ArrayList<>();
+	
+			long start = System.nanoTime();
+			Results allResults = lane.getTable(table).select(null);
+			Metrics.record(Metrics.QUERY, start);
+			
+			start = System.nanoTime();
+			long bytes = 0;
+			
+			RowEntry[] currentRow;
+			while ((currentRow = allResults.getNextRow()) != null) {	// Rows are decoded as fetched
+				data.add(currentRow);
+				bytes += Metrics.estimateBytes(currentRow);
+				
+				if (firstPage != null && data.size() == pageRows)
+					firstPage.accept(data.toArray(new RowEntry[data.size()][]));
+			}
+			Metrics.record(Metrics.FETCH, start, data.size(), bytes);
+			
+			RowEntry[][] rows = data.toArray(new RowEntry[data.size()][]);
+			if (firstPage != null && rows.length < pageRows)
+				firstPage.accept(rows);
+			
+			return rows;
+		});
+	}
+	
+	@Override
+	public long exportTable(String table, Exporter exporter, File file, ExportProgress progress) throws IOException {
+		try {
+			return pool.read(lane -> {
+				TableConnection tableConnection = lane.getTable(table);
+				Results results = tableConnection.select(null);
+				
+				try {
+					return exporter.export(tableConnection.getColumns(), results::getNextRow, file, progress);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	@Override
+	public ImportResult importTable(String table, CsvImporter importer, File file, ImportProgress progress) throws IOException, SQLException {
+		Column[] columns = read(table, lane -> lane.getTable(table).getColumns());
+		
+		try (Connection connection = pool.openBulkConnection()) {	// Keeps lanes free for the duration
+			return importer.importFile(file, connection, table, columns, progress);
+		}
+	}
+	
+	@Override
+	public QueryConsole openConsole() {
+		return new QueryConsole(pool);
+	}
+	
+	@Override
+	public ColumnAggregate[] aggregateTable(String table, Column[] columns) throws SQLException {
+		try (Connection connection = pool.openBulkConnection()) {	// Lanes stay free for the loading table
+			return ServerAggregates.query(connection, table, columns);
+		}
+	}
+	@Override
+	public ColumnProfile[] profileTable(String table, Column[] columns, ColumnProfiler profiler) throws SQLException {
+		try (Connection connection = pool.openBulkConnection()) {
+			return profiler.profile(connection, table, columns);
+		}
+	}
+	
+	@Override
+	public UpdateStatement getLastStatement() {
+		return history.getLatest(UpdateStatement.class);
+	}
+	
+	@Override
+	public int getUndoCount() {
+		return journal != null ? journal.getUndoCount() : 0;
+	}
+	@Override
+	public int getRedoCount() {
+		return journal != null ? journal.getRedoCount() : 0;
+	}
+	
+	private void journal(JournalChange change) {
+		if (journal != null) {
+			try {
+				journal.record(change);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	private static RowEntry[][] select(ConnectionLane lane, String table, RowEntry[] criteria) {
+		List<RowEntry[]> rows = new ArrayList<>();
+		
+		Results results = lane.getTable(table).select(criteria);
+		
+		RowEntry[] currentRow;
+		while ((currentRow = results.getNextRow()) != null)
+			rows.add(currentRow);
+		
+		return rows.toArray(new RowEntry[rows.size()][]);
+	}
+	
+	/**
+	 * Executes a task on a read lane and waits for it through this session's waiter.
+	 * @param table name of table the task reads, or {@code null} if none
+	 * @param task task to execute
+	 * @return task result
+	 * @throws UncheckedSQLException if the task fails, times out, or is canceled
+	 */
+	private <T> T read(String table, Function<ConnectionLane, T> task) {
+		LaneOperation<T> operation = pool.submitRead("Read " + describe(table), task, operations);
+		waiter.await(operation);
+		
+		return operation.join();
+	}
+	/**
+	 * Executes an action on the write lane, waits for it through this session's waiter, and records all statements it logs to this session's history.
+	 * The action's duration, and its result if an affected row count, are attributed to its final statement.
+	 * @param table name of table the action acts on
+	 * @param action action to execute
+	 * @return action result
+	 * @throws UncheckedSQLException if the action fails, times out, or is canceled
+	 */
+	private <T> T write(String table, Function<ConnectionLane, T> action) {
+		LaneOperation<T> operation = pool.submitWrite("Write " + describe(table), lane -> {
+			DatabaseConnection conn = lane.getConnection();
+			int logged = conn.getStatementLog().size();
+			
+			long start = System.nanoTime();
+			T result = action.apply(lane);
+			long duration = System.nanoTime() - start;
+			
+			int affectedRows = (result instanceof Integer) ? (Integer) result : -1,
+					last = conn.getStatementLog().size() - 1;
+			for (int i = logged; i <= last; i++)	// Only what this action appended
+				history.record(conn.getStatementLog().get(i), table, (i == last) ? duration : -1, (i == last) ? affectedRows : -1);
+			
+			return result;
+		}, operations);
+		waiter.await(operation);
+		
+		return operation.join();
+	}
+	private String describe(String table) {
+		return (table != null) ? getDatabase() + "." + table : getDatabase();
+	}
+	
+	private void setTable(String newTable) {
+		table = newTable;
+		log.debug(() -> "Set table = " + getTable());
+		
+		fireStateChanged();
+	}
+	private void setDefaultTable() {
+		String[] tables = getTables();
+		
+		setTable(tables.length > 0 ? tables[0] : null);
+	}
+	
+	private void invalidateTable(String table) {
+		tablesCache = null;
+		columnsCache.remove(table);
+		dataCache.remove(table);
+	}
+	private void invalidateCaches() {
+		tablesCache = null;
+		columnsCache.clear();
+		dataCache.clear();
+	}
+	
+	@Override
+	public void update(SqlRequestSubject source) {
+		log.debug(() -> "Received UPDATE event from: " + source);
+		
+		invalidateCaches();
+		fireStateChanged();
+	}
+	
+	@Override
+	public void selectTable(String table, SqlRequestSubject source) {
+		log.debug(() -> "Received SELECT TABLE (" + table + ") event from: " + source);
+
+		setTable(table);
+	}
+	
+	@Override
+	public void createTable(String table, Column[] columns, SqlRequestSubject source) {
+		log.debug(() -> "Received CREATE TABLE event from: " + source);
+
+		boolean created = false;
+		try {
+			write(table, lane -> lane.getConnection().createTable(table, columns));
+			created = true;
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		pool.invalidateTable(table);	// May exist even if canceled
+		invalidateTable(table);
+		
+		if (created)
+			setTable(table);
+		else
+			fireStateChanged();
+	}
+	@Override
+	public void dropTable(String table, SqlRequestSubject source) {
+		log.debug(() -> "Received DROP TABLE event from: " + source);
+
+		boolean dropped = false;
+		try {
+			write(table, lane -> {
+				lane.getConnection().dropTable(table);
+				return null;
+			});
+			dropped = true;
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		pool.invalidateTable(table);	// May be gone even if canceled
+		invalidateTable(table);
+		
+		if (dropped && table.equals(getTable()))
+			setDefaultTable();
+		else
+			fireStateChanged();
+	}
+	
+	@Override
+	public void updateRow(RowEntry[] newValues, RowEntry[] criteria, SqlRequestSubject source) {
+		log.debug(() -> "Received UPDATE ROW event from: " + source);
+
+		String currentTable = table;
+		try {
+			write(currentTable, lane -> {
+				int updated = lane.getTable(currentTable).update(newValues, criteria);
+				journal(JournalChange.update(currentTable, newValues, criteria));
+				return updated;
+			});
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		dataCache.remove(currentTable);	// Discards the displayed edit if it failed
+		
+		fireStateChanged();
+	}
+	@Override
+	public void insertRow(RowEntry[] rowValues, SqlRequestSubject source) {
+		log.debug(() -> "Received INSERT ROW event from: " + source);
+
+		String currentTable = table;
+		try {
+			write(currentTable, lane -> {
+				int inserted = lane.getTable(currentTable).insert(rowValues);
+				journal(JournalChange.insert(currentTable, rowValues));
+				return inserted;
+			});
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		dataCache.remove(currentTable);
+		
+		fireStateChanged();
+	}
+	@Override
+	public void updateRows(RowEntry[][] newValues, RowEntry[][] criteria, SqlRequestSubject source) {
+		log.debug(() -> "Received UPDATE ROWS (" + newValues.length + ") event from: " + source);
+		
+		String currentTable = table;
+		try {
+			write(currentTable, lane -> {
+				List<JournalChange> changes = new ArrayList<>(newValues.length);
+				int updated = 0;
+				
+				try {
+					for (int i = 0; i < newValues.length; i++) {	// Rows share the lane's cached connection to the table
+						updated += lane.getTable(currentTable).update(newValues[i], criteria[i]);
+						changes.add(JournalChange.update(currentTable, newValues[i], criteria[i]));
+					}
+				} finally {
+					if (!changes.isEmpty())
+						journal(JournalChange.combine(changes));	// Undone as one change, including if only partially applied
+				}
+				return updated;
+			});
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		dataCache.remove(currentTable);
+		
+		fireStateChanged();
+	}
+	@Override
+	public void insertRows(RowEntry[][] rows, SqlRequestSubject source) {
+		log.debug(() -> "Received INSERT ROWS (" + rows.length + ") event from: " + source);
+		
+		String currentTable = table;
+		try {
+			write(currentTable, lane -> {
+				List<JournalChange> changes = new ArrayList<>(rows.length);
+				int inserted = 0;
+				
+				try {
+					for (RowEntry[] row : rows) {
+						inserted += lane.getTable(currentTable).insert(row);
+						changes.add(JournalChange.insert(currentTable, row));
+					}
+				} finally {
+					if (!changes.isEmpty())
+						journal(JournalChange.combine(changes));
+				}
+				return inserted;
+			});
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		dataCache.remove(currentTable);
+		
+		fireStateChanged();
+	}
+	@Override
+	public void deleteRow(RowEntry[] criteria, SqlRequestSubject source) {
+		log.debug(() -> "Received DELETE ROW event from: " + source);
+
+		String currentTable = table;
+		try {
+			write(currentTable, lane -> {
+				RowEntry[][] deletedRows = (journal != null) ? select(lane, currentTable, criteria) : null;
+				
+				int deleted = lane.getTable(currentTable).delete(criteria);
+				if (deletedRows != null)
+					journal(JournalChange.delete(currentTable, criteria, deletedRows));
+				return deleted;
+			});
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		dataCache.remove(currentTable);
+		
+		fireStateChanged();
+	}
+	
+	@Override
+	public void revertStatement(StatementCommand statement, SqlRequestSubject source) {
+		log.debug(() -> "Received REVERT STATEMENT event from: " + source + "; statement = " + statement);
+
+		revert(new StatementCommand[]{statement});
+	}
+	@Override
+	public void revertStatements(StatementCommand[] statements, SqlRequestSubject source) {
+		log.debug(() -> "Received REVERT STATEMENTS (" + statements.length + ") event from: " + source);
+		
+		revert(statements);
+	}
+	private void revert(StatementCommand[] statements) {
+		try {
+			write(null, lane -> {
+				for (StatementCommand statement : statements)
+					lane.getConnection().getStatementLog().revert((UpdateStatement) statement, true);
+				
+				return null;
+			});
+		} catch (UncheckedSQLException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+		}
+		pool.invalidateTables();	// Reverted statement may have changed any table
+		invalidateCaches();
+		
+		String currentTable = table;
+		if (currentTable == null || !Arrays.asList(getTables()).contains(currentTable))
+			setDefaultTable();
+
+		fireStateChanged();
+	}
+	
+	@Override
+	public void undo(int steps, SqlRequestSubject source) {
+		log.debug(() -> "Received UNDO (" + steps + ") event from: " + source);
+		
+		if (journal == null)
+			return;
+		
+		applyJournaled(true, steps);
+	}
+	@Override
+	public void redo(int steps, SqlRequestSubject source) {
+		log.debug(() -> "Received REDO (" + steps + ") event from: " + source);
+		
+		if (journal == null)
+			return;
+		
+		applyJournaled(false, steps);
+	}
+	/**
+	 * Undoes or redoes journaled changes as a single unit on the write lane.
+	 * If any action fails, actions already applied are compensated in reverse order and the journal is left untouched.
+	 */
+	private void applyJournaled(boolean undo, int steps) {
+		Set<String> affectedTables = new HashSet<>();
+		boolean failed = false;
+		
+		try {
+			write(null, lane -> {
+				List<JournalChange> changes;
+				try {
+					changes = undo ? journal.peekUndo(steps) : journal.peekRedo(steps);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				Deque<JournalAction> compensation = new ArrayDeque<>();
+				try {
+					for (JournalChange change : changes) {
+						for (JournalAction action : undo ? change.getInverse() : change.getForward()) {
+							action.apply(lane);
+							affectedTables.add(action.getTable());
+							compensation.push(action.getInverse());	// Only applied actions are compensated, newest first
+						}
+					}
+				} catch (RuntimeException e) {
+					for (JournalAction action : compensation)
+						action.apply(lane);
+					throw e;
+				}
+				try {
+					if (undo)
+						journal.markUndone(changes.size());
+					else
+						journal.markRedone(changes.size());
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return null;
+			});
+		} catch (UncheckedSQLException | UncheckedIOException e) {
+			log.exception(e, Level.WARNING);
+			exceptionHandler.accept(e);
+			
+			failed = true;
+		}
+		if (failed) {
+			dataCache.clear();	// An aborted unit may have applied actions it never recorded as affected
+		} else {
+			for (String affectedTable : affectedTables)
+				dataCache.remove(affectedTable);
+		}
+		
+		fireStateChanged();
+	}
+	
+	/**
+	 * Closes this session.
+	 * Its connections are closed in the background.
+	 */
+	public void close() {
+		clearListeners();
+		invalidateCaches();
+		
+		worker.execute(() -> {	// In order, on one thread
+			pool.close();
+			history.close();
+			if (journal != null)
+				journal.close();
+		});
+		worker.shutdown();
+		operations.shutdown();
+		
+		log.debug(() -> "Closed session = " + getDatabase());
+	}
+	
+	private void fireStateChanged() {
+		for (ChangeListener listener : changeListeners)
+			listener.stateChanged(new ChangeEvent(this));
+	}
+	
+	@Override
+	public void addChangeListener(ChangeListener listener) {
+		changeListeners.add(listener);
+	}
+	@Override
+	public void removeChangeListener(ChangeListener listener) {
+		changeListeners.remove(listener);
+	}
+	
+	@Override
+	public void clearListeners() {
+		changeListeners.clear();
+	}
+	
+	@Override
+	public String toString() {
+		return "Session [database=" + getDatabase() + ", table=" + table + "]";
+	}
+}
@@ -0,0 +1,130 @@
+package dev.kkorolyov.sqlobviewer;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Runs application startup as named phases, each starting as soon as the phases it depends on complete.
+ * The time of each phase is recorded under {@code startup.<phase>} metrics.
+ */
+class Startup {
+	private static final String METRIC_PREFIX = "startup.";
+
+	private final long origin = System.nanoTime();
+	private final ExecutorService executor;
+	private final List<Phase> phases = new ArrayList<>();
+
+	/**
+	 * Constructs a new startup using a thread per available processor.
+	 */
+	Startup() {
+		AtomicInteger threads = new AtomicInteger();
+
+		executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+			Thread thread = new Thread(r, "startup-" + threads.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Schedules a phase.
+	 * @param name phase name
+	 * @param action phase action
+	 * @param dependencies phases which must complete before this phase starts
+	 * @return future completing when this phase completes
+	 */
+	CompletableFuture<Void> phase(String name, Runnable action, CompletableFuture<?>... dependencies) {
+		Phase phase = new Phase(name);
+		synchronized (phases) {
+			phases.add(phase);
+		}
+		return CompletableFuture.allOf(dependencies).thenRunAsync(() -> phase.run(action), executor);
+	}
+	/**
+	 * Runs a phase on the calling thread.
+	 * @param name phase name
+	 * @param action phase action
+	 * @return result of {@code action}
+	 */
+	<T> T run(String name, Supplier<T> action) {
+		Phase phase = new Phase(name);
+		synchronized (phases) {
+			phases.add(phase);
+		}
+		List<T> result = new ArrayList<>(1);
+		phase.run(() -> result.add(action.get()));
+		
+		return result.get(0);
+	}
+
+	/**
+	 * Waits for all scheduled phases to complete, then stops this startup's threads.
+	 * @param futures futures of all phases to wait for
+	 * @throws RuntimeException if any phase failed
+	 */
+	void await(CompletableFuture<?>... futures) {
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (CompletionException e) {
+			throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Prints the start offset, duration, and thread of each completed phase, in order of starting.
+	 * @param out stream to print to
+	 */
+	void print(PrintStream out) {
+		List<Phase> completed = new ArrayList<>();
+		synchronized (phases) {
+			for (Phase phase : phases) {
+				if (phase.end > 0)
+					completed.add(phase);
+			}
+		}
+		completed.sort((p1, p2) -> Long.compare(p1.start, p2.start));
+
+		out.println("phase\tstart_ms\tduration_ms\tthread");
+		for (Phase phase : completed)
+			out.println(phase.name + "\t" + millis(phase.start - origin) + "\t" + millis(phase.end - phase.start) + "\t" + phase.thread);
+
+		out.println("total\t0.000\t" + millis(System.nanoTime() - origin) + "\t" + Thread.currentThread().getName());
+	}
+	private static String millis(long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+
+	private static class Phase {
+		final String name;
+		volatile long start,
+									end;
+		volatile String thread;
+
+		Phase(String name) {
+			this.name = name;
+		}
+
+		void run(Runnable action) {
+			thread = Thread.currentThread().getName();
+			start = System.nanoTime();
+			try {
+				action.run();
+			} finally {
+				end = System.nanoTime();
+				Metrics.record(METRIC_PREFIX + name, start);
+			}
+		}
+	}
+}
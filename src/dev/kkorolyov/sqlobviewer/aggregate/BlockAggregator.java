@@ -0,0 +1,172 @@
+package dev.kkorolyov.sqlobviewer.aggregate;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Aggregates columns of a snapshot of rows in fixed-size blocks, computed in parallel on a fork-join pool.
+ * A snapshot taken after a previous one reuses each of the previous snapshot's blocks holding the same rows, included the same way, and not marked dirty, so only blocks touched by edits, inserts, deletes, or filter changes are aggregated again.
+ */
+public class BlockAggregator {
+	private static final Log log = Log.get(BlockAggregator.class);
+	/** Number of rows in each block, also the smallest unit of work forked */
+	public static final int BLOCK_ROWS = 4096;
+
+	private final RowEntry[][] rows;
+	private final BitSet included;
+	private final int[] columns;
+	private final boolean[] numeric;
+	private final AtomicReferenceArray<ColumnAggregate[]> blocks;
+	private final BitSet dirtyBlocks;
+	private BlockAggregator previous;
+	private volatile boolean canceled;
+
+	/**
+	 * Constructs a new aggregator over a snapshot of rows.
+	 * @param rows rows to aggregate, which must not be modified afterwards other than replacing values of rows in blocks marked dirty in a later snapshot
+	 * @param included rows to aggregate, by index in {@code rows}, or {@code null} to aggregate all rows
+	 * @param columns indices of columns to aggregate
+	 * @param numeric whether each column in {@code columns} holds numbers
+	 * @param previous aggregator over a previous snapshot of the same rows, or {@code null}
+	 * @param dirtyBlocks blocks whose rows had values replaced since {@code previous} was constructed
+	 */
+	public BlockAggregator(RowEntry[][] rows, BitSet included, int[] columns, boolean[] numeric, BlockAggregator previous, BitSet dirtyBlocks) {
+		this.rows = rows;
+		this.included = included;
+		this.columns = columns;
+		this.numeric = numeric;
+		this.previous = (previous != null && Arrays.equals(columns, previous.columns) && Arrays.equals(numeric, previous.numeric)) ? previous : null;
+		this.dirtyBlocks = dirtyBlocks;
+
+		blocks = new AtomicReferenceArray<>((rows.length + BLOCK_ROWS - 1) / BLOCK_ROWS);
+	}
+
+	/**
+	 * @param row index of a row
+	 * @return index of the block containing {@code row}
+	 */
+	public static int blockOf(int row) {
+		return row / BLOCK_ROWS;
+	}
+
+	/**
+	 * Aggregates all included rows, blocking until done.
+	 * @param pool pool to aggregate blocks on
+	 * @return aggregate of each column, in order, or {@code null} if canceled
+	 */
+	public ColumnAggregate[] compute(ForkJoinPool pool) {
+		long start = System.nanoTime();
+		AtomicLong aggregated = new AtomicLong();
+
+		try {
+			pool.invoke(new BlockTask(0, blocks.length(), aggregated));
+		} finally {
+			previous = null;	// Keeps snapshots from chaining
+		}
+		if (canceled)
+			return null;
+
+		ColumnAggregate[] totals = newAggregates();
+		for (int i = 0; i < blocks.length(); i++) {
+			ColumnAggregate[] block = blocks.get(i);
+
+			for (int j = 0; j < totals.length; j++)
+				totals[j] = totals[j].merge(block[j]);
+		}
+		Metrics.record(Metrics.AGGREGATE, start, aggregated.get(), 0);
+		log.debug(() -> "Aggregated " + aggregated.get() + "/" + rows.length + " rows of " + columns.length + " columns");
+
+		return totals;
+	}
+	/**
+	 * Stops aggregating blocks as soon as possible.
+	 * May be invoked from any thread.
+	 */
+	public void cancel() {
+		canceled = true;
+	}
+
+	private ColumnAggregate[] newAggregates() {
+		ColumnAggregate[] aggregates = new ColumnAggregate[columns.length];
+
+		for (int i = 0; i < aggregates.length; i++)
+			aggregates[i] = new ColumnAggregate(numeric[i]);
+
+		return aggregates;
+	}
+
+	private ColumnAggregate[] aggregateBlock(int block, AtomicLong aggregated) {
+		int from = block * BLOCK_ROWS,
+				to = Math.min(rows.length, from + BLOCK_ROWS);
+
+		ColumnAggregate[] reused = reuseBlock(block, from, to);
+		if (reused != null)
+			return reused;
+
+		ColumnAggregate[] aggregates = newAggregates();
+		for (int row = from; row < to; row++) {
+			if (included == null || included.get(row)) {
+				for (int i = 0; i < columns.length; i++)
+					aggregates[i].add(rows[row][columns[i]].getValue());
+			}
+		}
+		aggregated.addAndGet(to - from);
+
+		return aggregates;
+	}
+	private ColumnAggregate[] reuseBlock(int block, int from, int to) {
+		BlockAggregator last = previous;
+		if (last == null || (dirtyBlocks != null && dirtyBlocks.get(block)) || block >= last.blocks.length())
+			return null;
+
+		ColumnAggregate[] reused = last.blocks.get(block);
+		if (reused == null || Math.min(last.rows.length, from + BLOCK_ROWS) != to)	// Not aggregated, or block resized
+			return null;
+
+		for (int row = from; row < to; row++) {
+			if (rows[row] != last.rows[row] || isIncluded(row) != last.isIncluded(row))
+				return null;
+		}
+		return reused;
+	}
+	private boolean isIncluded(int row) {
+		return included == null || included.get(row);
+	}
+
+	private class BlockTask extends RecursiveAction {
+		private static final long serialVersionUID = -3208516795311428610L;
+
+		private final int from,
+											to;
+		private final AtomicLong aggregated;
+
+		BlockTask(int from, int to, AtomicLong aggregated) {
+			this.from = from;
+			this.to = to;
+			this.aggregated = aggregated;
+		}
+
+		@SuppressWarnings("synthetic-access")
+		@Override
+		protected void compute() {
+			if (canceled)
+				return;
+
+			if (to - from <= 1) {
+				if (from < to)
+					blocks.set(from, aggregateBlock(from, aggregated));
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new BlockTask(from, middle, aggregated), new BlockTask(middle, to, aggregated));
+			}
+		}
+	}
+}
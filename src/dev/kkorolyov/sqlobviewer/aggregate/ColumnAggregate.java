@@ -0,0 +1,88 @@
+package dev.kkorolyov.sqlobviewer.aggregate;
+
+/**
+ * Count, null count, sum, minimum, maximum, and average of the values of a single column.
+ * Sums and averages are only available for numeric columns; minimums and maximums use the values' natural ordering.
+ */
+public final class ColumnAggregate {
+	private final boolean numeric;
+	private long count,
+							 nulls;
+	private double sum;
+	private Object min,
+								 max;
+
+	ColumnAggregate(boolean numeric) {
+		this.numeric = numeric;
+	}
+	ColumnAggregate(boolean numeric, long count, long nulls, double sum, Object min, Object max) {
+		this(numeric);
+		this.count = count;
+		this.nulls = nulls;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+	}
+
+	void add(Object value) {
+		if (value == null) {
+			nulls++;
+			return;
+		}
+		count++;
+
+		if (numeric)
+			sum += ((Number) value).doubleValue();
+		if (min == null || compare(value, min) < 0)
+			min = value;
+		if (max == null || compare(value, max) > 0)
+			max = value;
+	}
+	/**
+	 * @param other aggregate of other rows of the same column
+	 * @return aggregate of the rows of both this and {@code other}
+	 */
+	ColumnAggregate merge(ColumnAggregate other) {
+		return new ColumnAggregate(numeric, count + other.count, nulls + other.nulls, sum + other.sum,
+				(min == null || (other.min != null && compare(other.min, min) < 0)) ? other.min : min,
+				(max == null || (other.max != null && compare(other.max, max) > 0)) ? other.max : max);
+	}
+	@SuppressWarnings("unchecked")
+	private static int compare(Object value, Object other) {
+		return ((Comparable<Object>) value).compareTo(other);
+	}
+
+	/** @return {@code true} if this column's values are numbers */
+	public boolean isNumeric() {
+		return numeric;
+	}
+	/** @return number of aggregated rows, including rows with a {@code null} value */
+	public long getRows() {
+		return count + nulls;
+	}
+	/** @return number of non-{@code null} values */
+	public long getCount() {
+		return count;
+	}
+	/** @return number of {@code null} values */
+	public long getNulls() {
+		return nulls;
+	}
+
+	/** @return sum of all values, or {@code null} if this column is not numeric or has no values */
+	public Double getSum() {
+		return (numeric && count > 0) ? sum : null;
+	}
+	/** @return average of all values, or {@code null} if this column is not numeric or has no values */
+	public Double getAverage() {
+		return (numeric && count > 0) ? sum / count : null;
+	}
+	/** @return smallest value, or {@code null} if this column has no values */
+	public Object getMin() {
+		return min;
+	}
+	/** @return largest value, or {@code null} if this column has no values */
+	public Object getMax() {
+		return max;
+	}
+}
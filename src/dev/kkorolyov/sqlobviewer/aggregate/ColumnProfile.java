@@ -0,0 +1,71 @@
+package dev.kkorolyov.sqlobviewer.aggregate;
+
+/**
+ * The approximate shape of a single column's values: distinct count, null fraction, range, and an equi-depth histogram.
+ */
+public final class ColumnProfile {
+	private final long rows,
+										 nulls,
+										 distinct,
+										 sampleRows;
+	private final Object min,
+											 max;
+	private final Object[] quantiles;
+
+	ColumnProfile(long rows, long nulls, long distinct, Object min, Object max, Object[] quantiles, long sampleRows) {
+		this.rows = rows;
+		this.nulls = nulls;
+		this.distinct = distinct;
+		this.min = min;
+		this.max = max;
+		this.quantiles = quantiles;
+		this.sampleRows = sampleRows;
+
+		if (quantiles.length > 0) {	// A sample may miss the extremes
+			quantiles[0] = min;
+			quantiles[quantiles.length - 1] = max;
+		}
+	}
+
+	/** @return number of rows in the column */
+	public long getRows() {
+		return rows;
+	}
+	/** @return number of {@code null} values */
+	public long getNulls() {
+		return nulls;
+	}
+	/** @return fraction of values which are {@code null}, from {@code 0} to {@code 1} */
+	public double getNullFraction() {
+		return (rows > 0) ? (double) nulls / rows : 0;
+	}
+	/** @return estimated number of distinct non-{@code null} values; a lower bound if {@link #isSampled()} */
+	public long getDistinct() {
+		return distinct;
+	}
+
+	/** @return smallest value, or {@code null} if the column has no values */
+	public Object getMin() {
+		return min;
+	}
+	/** @return largest value, or {@code null} if the column has no values */
+	public Object getMax() {
+		return max;
+	}
+	/**
+	 * Returns the bounds of an equi-depth histogram, each bucket of which holds about as many values as every other.
+	 * @return smallest value, the upper bound of each bucket in order, then the largest value; empty if the column has no values
+	 */
+	public Object[] getQuantiles() {
+		return quantiles.clone();
+	}
+
+	/** @return {@code true} if the distinct count and histogram were computed from only some of the column's rows */
+	public boolean isSampled() {
+		return sampleRows < rows;
+	}
+	/** @return number of rows the distinct count and histogram were computed from */
+	public long getSampleRows() {
+		return sampleRows;
+	}
+}
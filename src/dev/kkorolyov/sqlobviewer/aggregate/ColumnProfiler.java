@@ -0,0 +1,201 @@
+package dev.kkorolyov.sqlobviewer.aggregate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Profiles columns, either by scanning rows already loaded or by reading the first rows of a table from the database.
+ * Distinct counts are estimated with a {@link HyperLogLog}; histograms are built from at most a fixed number of values per column, uniformly sampled from the scanned rows.
+ * A profile read from the database is head-sampled: its scanned rows are whichever the database returns first, which need not represent the whole table.
+ */
+public class ColumnProfiler {
+	private static final Log log = Log.get(ColumnProfiler.class);
+
+	private final int sampleRows,
+										buckets;
+
+	/**
+	 * Constructs a new profiler.
+	 * @param sampleRows maximum number of rows sampled from the database, and of values per column kept for histograms
+	 * @param buckets number of buckets in each histogram
+	 */
+	public ColumnProfiler(int sampleRows, int buckets) {
+		this.sampleRows = Math.max(1, sampleRows);
+		this.buckets = Math.max(1, buckets);
+	}
+
+	/**
+	 * Profiles every column of loaded rows, each column in parallel.
+	 * @param columns columns of {@code rows}
+	 * @param rows rows to scan, which must not be modified while profiling
+	 * @param pool pool to profile columns on
+	 * @return profile of each column, in order
+	 */
+	public ColumnProfile[] profile(Column[] columns, RowEntry[][] rows, ForkJoinPool pool) {
+		long start = System.nanoTime();
+
+		ColumnProfile[] profiles = pool.invoke(new RecursiveTask<ColumnProfile[]>() {
+			private static final long serialVersionUID = 6052374213640713372L;
+
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected ColumnProfile[] compute() {
+				List<RecursiveTask<ColumnProfile>> tasks = new ArrayList<>(columns.length);
+				for (int i = 0; i < columns.length; i++)
+					tasks.add(new ColumnTask(rows, i));
+
+				ColumnProfile[] results = new ColumnProfile[columns.length];
+				int i = 0;
+				for (RecursiveTask<ColumnProfile> task : invokeAll(tasks))
+					results[i++] = task.join();
+
+				return results;
+			}
+		});
+		Metrics.record(Metrics.PROFILE, start, rows.length, 0);
+		log.debug(() -> "Profiled " + columns.length + " columns of " + rows.length + " loaded rows");
+
+		return profiles;
+	}
+	/**
+	 * Profiles every column of a table in the database.
+	 * Row and {@code null} counts and ranges are exact; distinct counts and histograms are computed from the first rows the database returns, in no particular order.
+	 * @param connection connection to query over
+	 * @param table table to profile
+	 * @param columns columns to profile
+	 * @return profile of each column, in order
+	 * @throws SQLException if a database error occurs
+	 */
+	public ColumnProfile[] profile(Connection connection, String table, Column[] columns) throws SQLException {
+		long start = System.nanoTime();
+		ColumnAggregate[] aggregates = ServerAggregates.query(connection, table, columns);
+
+		Builder[] builders = new Builder[columns.length];
+		for (int i = 0; i < builders.length; i++)
+			builders[i] = new Builder();
+
+		long sampled = 0;
+		try (Statement statement = connection.createStatement()) {	// A head sample, as uniform sampling syntax and cost vary by database
+			statement.setMaxRows(sampleRows);
+			statement.setFetchSize(Math.min(sampleRows, 1000));
+
+			try (ResultSet results = statement.executeQuery(buildSample(table, columns))) {
+				while (results.next()) {
+					for (int i = 0; i < builders.length; i++)
+						builders[i].add(results.getObject(i + 1));
+					sampled++;
+				}
+			}
+		}
+		ColumnProfile[] profiles = new ColumnProfile[columns.length];
+		for (int i = 0; i < profiles.length; i++) {
+			ColumnAggregate aggregate = aggregates[i];
+			Builder builder = builders[i];
+
+			profiles[i] = new ColumnProfile(aggregate.getRows(), aggregate.getNulls(), builder.distinct.estimate(),
+					aggregate.getMin() != null ? aggregate.getMin() : builder.min,
+					aggregate.getMax() != null ? aggregate.getMax() : builder.max,
+					builder.getQuantiles(), sampled);
+		}
+		long sampledRows = sampled;
+		Metrics.record(Metrics.PROFILE, start, sampledRows, 0);
+		log.debug(() -> "Profiled " + columns.length + " columns of " + table + " from " + sampledRows + " sampled rows");
+
+		return profiles;
+	}
+	private static String buildSample(String table, Column[] columns) {
+		StringBuilder sql = new StringBuilder("SELECT ");
+		for (int i = 0; i < columns.length; i++)
+			sql.append(i > 0 ? "," : "").append(ServerAggregates.quote(columns[i].getName()));
+
+		return sql.append(" FROM ").append(ServerAggregates.quote(table)).toString();
+	}
+
+	private class ColumnTask extends RecursiveTask<ColumnProfile> {
+		private static final long serialVersionUID = -1583400436385106921L;
+
+		private final RowEntry[][] rows;
+		private final int column;
+
+		ColumnTask(RowEntry[][] rows, int column) {
+			this.rows = rows;
+			this.column = column;
+		}
+
+		@SuppressWarnings("synthetic-access")
+		@Override
+		protected ColumnProfile compute() {
+			Builder builder = new Builder();
+			for (RowEntry[] row : rows)
+				builder.add(row[column].getValue());
+
+			return new ColumnProfile(rows.length, builder.nulls, builder.distinct.estimate(), builder.min, builder.max, builder.getQuantiles(), rows.length);
+		}
+	}
+
+	/** Accumulates the profile of a single column, value by value */
+	private class Builder {
+		final HyperLogLog distinct = new HyperLogLog();
+		long nulls,
+				 count;
+		Object min,
+					 max;
+		final List<Object> sample = new ArrayList<>();
+
+		@SuppressWarnings("synthetic-access")
+		void add(Object value) {
+			if (value == null) {
+				nulls++;
+				return;
+			}
+			distinct.add(value);
+
+			if (min == null || compare(value, min) < 0)
+				min = value;
+			if (max == null || compare(value, max) > 0)
+				max = value;
+
+			if (count < sampleRows) {	// Reservoir sampling keeps each value with equal probability
+				sample.add(value);
+			} else {
+				long slot = ThreadLocalRandom.current().nextLong(count + 1);
+				if (slot < sampleRows)
+					sample.set((int) slot, value);
+			}
+			count++;
+		}
+
+		@SuppressWarnings("synthetic-access")
+		Object[] getQuantiles() {
+			int size = sample.size();
+			if (size <= 0)
+				return new Object[0];
+
+			Object[] sorted = sample.toArray();
+			Arrays.sort(sorted, ColumnProfiler::compare);
+
+			Object[] quantiles = new Object[buckets + 1];
+			for (int i = 0; i <= buckets; i++)
+				quantiles[i] = sorted[(int) ((long) i * (size - 1) / buckets)];
+
+			return quantiles;
+		}
+	}
+	@SuppressWarnings("unchecked")
+	private static int compare(Object value, Object other) {
+		return ((Comparable<Object>) value).compareTo(other);
+	}
+}
@@ -0,0 +1,58 @@
+package dev.kkorolyov.sqlobviewer.aggregate;
+
+/**
+ * Estimates the number of distinct values added to it in constant memory, within about 2% for any number of values.
+ * Values are distinguished by their hash codes.
+ */
+public final class HyperLogLog {
+	private static final int PRECISION = 12,
+													 REGISTERS = 1 << PRECISION;
+	private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+	private final byte[] registers = new byte[REGISTERS];
+
+	/** @param value value to add, not {@code null} */
+	public void add(Object value) {
+		long hash = mix(value.hashCode());
+		int register = (int) (hash >>> (Long.SIZE - PRECISION)),
+				rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;	// Guard bit caps rank
+
+		if (rank > registers[register])
+			registers[register] = (byte) rank;
+	}
+	/** @param other estimator whose values are added to this estimator */
+	public void merge(HyperLogLog other) {
+		for (int i = 0; i < REGISTERS; i++) {
+			if (other.registers[i] > registers[i])
+				registers[i] = other.registers[i];
+		}
+	}
+
+	/** @return estimated number of distinct values added */
+	public long estimate() {
+		double sum = 0;
+		int empty = 0;
+
+		for (byte register : registers) {
+			sum += 1.0 / (1L << register);
+			if (register == 0)
+				empty++;
+		}
+		double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+		if (estimate <= 2.5 * REGISTERS && empty > 0)	// Linear counting is more accurate for few values
+			estimate = REGISTERS * Math.log((double) REGISTERS / empty);
+
+		return Math.round(estimate);
+	}
+
+	/** Spreads a hash code over 64 bits, as per MurmurHash3's finalizer */
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+
+		return hash;
+	}
+}
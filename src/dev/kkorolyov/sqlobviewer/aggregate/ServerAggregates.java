@@ -0,0 +1,89 @@
+package dev.kkorolyov.sqlobviewer.aggregate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Aggregates columns of a whole table in the database, for tables whose rows are not all loaded.
+ */
+public class ServerAggregates {
+	private static final Log log = Log.get(ServerAggregates.class);
+
+	private ServerAggregates() {}
+
+	/**
+	 * Aggregates columns of a table with a single query.
+	 * @param connection connection to query over
+	 * @param table table to aggregate
+	 * @param columns columns to aggregate
+	 * @return aggregate of each column, in order
+	 * @throws SQLException if a database error occurs
+	 */
+	public static ColumnAggregate[] query(Connection connection, String table, Column[] columns) throws SQLException {
+		long start = System.nanoTime();
+		String sql = buildQuery(table, columns);
+
+		try (Statement statement = connection.createStatement();
+				 ResultSet results = statement.executeQuery(sql)) {
+			results.next();
+
+			long rows = results.getLong(1);
+			ColumnAggregate[] aggregates = new ColumnAggregate[columns.length];
+			int index = 2;
+
+			for (int i = 0; i < columns.length; i++) {
+				boolean numeric = isNumeric(columns[i]);
+				long count = results.getLong(index++);
+				double sum = 0;
+				Object min = null,
+							 max = null;
+
+				if (numeric)
+					sum = results.getDouble(index++);
+				if (isOrdered(columns[i])) {
+					min = results.getObject(index++);
+					max = results.getObject(index++);
+				}
+				aggregates[i] = new ColumnAggregate(numeric, count, rows - count, sum, min, max);
+			}
+			Metrics.record(Metrics.AGGREGATE, start, rows, 0);
+			log.debug(() -> "Aggregated " + rows + " rows of " + table + " in the database");
+
+			return aggregates;
+		}
+	}
+	private static String buildQuery(String table, Column[] columns) {
+		StringBuilder sql = new StringBuilder("SELECT COUNT(*)");
+
+		for (Column column : columns) {
+			String name = quote(column.getName());
+
+			sql.append(",COUNT(").append(name).append(')');
+			if (isNumeric(column))
+				sql.append(",SUM(").append(name).append(')');
+			if (isOrdered(column))
+				sql.append(",MIN(").append(name).append("),MAX(").append(name).append(')');
+		}
+		return sql.append(" FROM ").append(quote(table)).toString();
+	}
+	static String quote(String identifier) {
+		return '"' + identifier.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * @param column column to test
+	 * @return {@code true} if {@code column} holds numbers, which may be summed and averaged
+	 */
+	public static boolean isNumeric(Column column) {
+		return Number.class.isAssignableFrom(column.getType().getTypeClass());
+	}
+	private static boolean isOrdered(Column column) {
+		return column.getType().getTypeClass() != Boolean.class;	// Not every database orders booleans
+	}
+}
@@ -2,28 +2,34 @@ package dev.kkorolyov.sqlobviewer.assets;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
-import dev.kkorolyov.simplelogs.Logger;
 import dev.kkorolyov.simplelogs.Logger.Level;
 import dev.kkorolyov.simpleprops.EncryptedProperties;
 import dev.kkorolyov.simpleprops.Properties;
+import dev.kkorolyov.sqlobviewer.logging.Log;
 
 /**
  * Centralized access to application properties.
  */
 public class ApplicationProperties {
-	private static final Logger log = Logger.getLogger(ApplicationProperties.class.getName(), Level.DEBUG, (PrintWriter[]) null);
+	private static final Log log = Log.get(ApplicationProperties.class);
 	
-	private static Properties config,
-														strings;
+	private static Properties config;
+	private static volatile Properties strings;	// Loaded on first use, so may be loaded alongside other startup work
 	private static byte[] key = {99, 47, 68, 0, 14};	// TODO Randomized key for new configs
 	
+	private static volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+	private static ConfigSaver configSaver;
+	private static Set<ConfigListener> configListeners = new CopyOnWriteArraySet<>();
+	
 	static {	// Should only be initialized once
 		initConfig();
-		initStrings();
 		
 		log.debug("Initialized application properties");
 	}
@@ -33,14 +39,27 @@ public class ApplicationProperties {
 		config = new EncryptedProperties(new File(Defaults.CONFIG_FILE), Defaults.buildConfig(), key);
 		save(config);
 		
+		configSaver = new ConfigSaver(ApplicationProperties::saveConfig, Config.getInt(Keys.CONFIG_SAVE_DELAY));
+		
 		log.debug("Initialized config file");
 	}
 	@SuppressWarnings("synthetic-access")
-	private static void initStrings() {
-		strings = new Properties(new File(Config.get(Keys.LANG_FILE)), Defaults.buildStrings());
-		save(strings);
+	private static Properties getStrings() {
+		Properties loaded = strings;
 		
-		log.debug("Initialized strings file");
+		if (loaded == null) {
+			synchronized (ApplicationProperties.class) {
+				if (strings == null) {
+					Properties newStrings = new Properties(new File(Config.get(Keys.LANG_FILE)), Defaults.buildStrings());
+					save(newStrings);
+					strings = newStrings;
+					
+					log.debug("Initialized strings file");
+				}
+				loaded = strings;
+			}
+		}
+		return loaded;
 	}
 	
 	private static String get(String key, Properties props) {
@@ -66,6 +85,38 @@ public class ApplicationProperties {
 		}
 	}
 	
+	/** Writes config to a staging file, then renames it over the config file so that a partial write is never visible. */
+	private static void saveConfig() {
+		File 	file = new File(Defaults.CONFIG_FILE),
+					staging = new File(Defaults.CONFIG_FILE + ".tmp");
+		
+		synchronized (config) {
+			try {
+				Files.deleteIfExists(staging.toPath());
+				new EncryptedProperties(staging, config, key).saveFile(true);	// Empty staging file, so all current values are written as defaults
+				
+				Files.move(staging.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				log.exception(e, Level.WARNING);
+				return;
+			}
+		}
+		log.debug("Saved config file");
+	}
+	
+	private static String loadConfig(String key) {
+		synchronized (config) {
+			String value = get(key, config);
+			snapshot = snapshot.with(key, value);
+			
+			return value;
+		}
+	}
+	private static void fireConfigChanged(String key, ConfigSnapshot changed) {
+		for (ConfigListener listener : configListeners)
+			listener.configChanged(key, changed);
+	}
+	
 	/**
 	 * All configuration and string keys.
 	 */
@@ -79,18 +130,52 @@ public class ApplicationProperties {
 																CURRENT_TABLES_X = "CURRENT_TABLES_X",
 																CURRENT_TABLES_Y = "CURRENT_TABLES_Y",
 																
+																VIRTUAL_SCROLL_ROWS = "VIRTUAL_SCROLL_ROWS",
+																
 																SAVED_HOST = "SAVED_HOST",
 																SAVED_DATABASE = "SAVED_DATABASE",
 																SAVED_DATABASE_TYPE = "SAVED_DATABASE_TYPE",
 																SAVED_USER = "SAVED_USER",
 																SAVED_PASSWORD = "SAVED_PASSWORD",
 																
+																LOGIN_TIMEOUT = "LOGIN_TIMEOUT",
+																OPERATION_TIMEOUT = "OPERATION_TIMEOUT",
+																POOL_READ_LANES = "POOL_READ_LANES",
+																POOL_IDLE_TIMEOUT = "POOL_IDLE_TIMEOUT",
+																POOL_HEALTH_CHECK_INTERVAL = "POOL_HEALTH_CHECK_INTERVAL",
+																TABLE_CACHE_SIZE = "TABLE_CACHE_SIZE",
+																HISTORY_MEMORY_ENTRIES = "HISTORY_MEMORY_ENTRIES",
+																
+																JOURNAL_FOLDER = "JOURNAL_FOLDER",
+																JOURNAL_SYNC_INTERVAL = "JOURNAL_SYNC_INTERVAL",
+																JOURNAL_UNDO_DEPTH = "JOURNAL_UNDO_DEPTH",
+																JOURNAL_MAX_SIZE = "JOURNAL_MAX_SIZE",
+																
+																SESSION_CACHED_TABLES = "SESSION_CACHED_TABLES",
+																FIRST_PAGE_ROWS = "FIRST_PAGE_ROWS",
+																
+																EXPORT_BUFFER_SIZE = "EXPORT_BUFFER_SIZE",
+																IMPORT_BATCH_ROWS = "IMPORT_BATCH_ROWS",
+																IMPORT_TRANSACTION_ROWS = "IMPORT_TRANSACTION_ROWS",
+																IMPORT_CHUNK_SIZE = "IMPORT_CHUNK_SIZE",
+																CONSOLE_FETCH_SIZE = "CONSOLE_FETCH_SIZE",
+																CONSOLE_MAX_ROWS = "CONSOLE_MAX_ROWS",
+																PROFILE_SAMPLE_ROWS = "PROFILE_SAMPLE_ROWS",
+																PROFILE_HISTOGRAM_BUCKETS = "PROFILE_HISTOGRAM_BUCKETS",
+																PROFILE_PICKER_MAX_VALUES = "PROFILE_PICKER_MAX_VALUES",
+																
+																METRICS_FILE = "METRICS_FILE",
+																METRICS_STATUS_INTERVAL = "METRICS_STATUS_INTERVAL",
+																
+																CONFIG_SAVE_DELAY = "CONFIG_SAVE_DELAY",
+																
 																ASSETS_FOLDER = "ASSETS_FOLDER",
 																LANG_FILE = "LANG_FILE",
 																LOG_FILE = "LOG_FILE",
 																
 																LOGGING_ENABLED = "LOGGING_ENABLED",
-																LOGGING_LEVEL = "LOGGING_LEVEL";
+																LOGGING_LEVEL = "LOGGING_LEVEL",
+																LOGGING_BUFFER_SIZE = "LOGGING_BUFFER_SIZE";
 		
 		public static final String 	TITLE_WINDOW = "TITLE_WINDOW",	// Lang keys
 				
@@ -116,6 +201,9 @@ public class ApplicationProperties {
 																MESSAGE_TIP_CURRENT_FILTER = "MESSAGE_TIP_CURRENT_FILTER",
 																
 																MESSAGE_TIP_LAST_STATEMENT = "MESSAGE_TIP_LAST_STATEMENT",
+																MESSAGE_TIP_METRICS = "MESSAGE_TIP_METRICS",
+																MESSAGE_CONNECTING = "MESSAGE_CONNECTING",
+																MESSAGE_LOADING = "MESSAGE_LOADING",
 																
 																MESSAGE_CONFIRM_REMOVE_TABLE = "MESSAGE_CONFIRM_REMOVE_TABLE",
 																MESSAGE_CONFIRM_REMOVE_ROW = "MESSAGE_CONFIRM_REMOVE_ROW",
@@ -142,6 +230,9 @@ public class ApplicationProperties {
 																ACTION_LOG_IN = "ACTION_LOG_IN",
 																ACTION_LOG_OUT = "ACTION_LOG_OUT",
 																
+																ACTION_NEW_SESSION = "ACTION_NEW_SESSION",
+																ACTION_TIP_NEW_SESSION = "ACTION_TIP_NEW_SESSION",
+																
 																ACTION_REFRESH_TABLE = "ACTION_REFRESH_TABLE",
 																ACTION_TIP_REFRESH_TABLE = "ACTION_TIP_REFRESH_TABLE",
 																
@@ -162,7 +253,72 @@ public class ApplicationProperties {
 																ACTION_TIP_ADD_FILTER = "ACTION_TIP_ADD_FILTER",
 																ACTION_TIP_REMOVE_FILTER = "ACTION_TIP_REMOVE_FILTER",
 																
-																ACTION_UNDO_STATEMENT = "ACTION_UNDO_STATEMENT";
+																TITLE_HISTORY = "TITLE_HISTORY",
+																
+																MESSAGE_HISTORY_ANY = "MESSAGE_HISTORY_ANY",
+																MESSAGE_HISTORY_TIME = "MESSAGE_HISTORY_TIME",
+																MESSAGE_HISTORY_DURATION = "MESSAGE_HISTORY_DURATION",
+																MESSAGE_HISTORY_ROWS = "MESSAGE_HISTORY_ROWS",
+																MESSAGE_HISTORY_TABLE = "MESSAGE_HISTORY_TABLE",
+																MESSAGE_HISTORY_TYPE = "MESSAGE_HISTORY_TYPE",
+																MESSAGE_HISTORY_STATEMENT = "MESSAGE_HISTORY_STATEMENT",
+																MESSAGE_TIP_HISTORY_FILTER = "MESSAGE_TIP_HISTORY_FILTER",
+																
+																ACTION_HISTORY = "ACTION_HISTORY",
+																ACTION_TIP_HISTORY = "ACTION_TIP_HISTORY",
+																ACTION_REVERT_SELECTED = "ACTION_REVERT_SELECTED",
+																
+																ACTION_UNDO_STATEMENT = "ACTION_UNDO_STATEMENT",
+																ACTION_REDO_STATEMENT = "ACTION_REDO_STATEMENT",
+																
+																ACTION_EXPORT = "ACTION_EXPORT",
+																ACTION_TIP_EXPORT = "ACTION_TIP_EXPORT",
+																MESSAGE_EXPORT_VIEW = "MESSAGE_EXPORT_VIEW",
+																MESSAGE_EXPORTING = "MESSAGE_EXPORTING",
+																MESSAGE_ROWS_EXPORTED = "MESSAGE_ROWS_EXPORTED",
+																
+																ACTION_IMPORT_ROWS = "ACTION_IMPORT_ROWS",
+																ACTION_TIP_IMPORT_ROWS = "ACTION_TIP_IMPORT_ROWS",
+																MESSAGE_IMPORTING = "MESSAGE_IMPORTING",
+																MESSAGE_ROWS_IMPORTED = "MESSAGE_ROWS_IMPORTED",
+																MESSAGE_ROWS_REJECTED = "MESSAGE_ROWS_REJECTED",
+																
+																TITLE_CONSOLE = "TITLE_CONSOLE",
+																ACTION_CONSOLE = "ACTION_CONSOLE",
+																ACTION_TIP_CONSOLE = "ACTION_TIP_CONSOLE",
+																ACTION_RUN = "ACTION_RUN",
+																ACTION_TIP_RUN = "ACTION_TIP_RUN",
+																ACTION_STOP = "ACTION_STOP",
+																MESSAGE_TIP_CONSOLE = "MESSAGE_TIP_CONSOLE",
+																MESSAGE_RUNNING = "MESSAGE_RUNNING",
+																MESSAGE_ROWS_FETCHED = "MESSAGE_ROWS_FETCHED",
+																MESSAGE_ROWS_AFFECTED = "MESSAGE_ROWS_AFFECTED",
+																MESSAGE_FIRST_ROWS = "MESSAGE_FIRST_ROWS",
+																MESSAGE_ROW_LIMIT = "MESSAGE_ROW_LIMIT",
+																MESSAGE_CANCELED = "MESSAGE_CANCELED",
+																
+																TITLE_WAITING = "TITLE_WAITING",
+																MESSAGE_WAITING = "MESSAGE_WAITING",
+																
+																MESSAGE_TIP_AGGREGATES = "MESSAGE_TIP_AGGREGATES",
+																MESSAGE_AGGREGATING = "MESSAGE_AGGREGATING",
+																MESSAGE_AGGREGATE_COUNT = "MESSAGE_AGGREGATE_COUNT",
+																MESSAGE_AGGREGATE_NULLS = "MESSAGE_AGGREGATE_NULLS",
+																MESSAGE_AGGREGATE_SUM = "MESSAGE_AGGREGATE_SUM",
+																MESSAGE_AGGREGATE_MIN = "MESSAGE_AGGREGATE_MIN",
+																MESSAGE_AGGREGATE_MAX = "MESSAGE_AGGREGATE_MAX",
+																MESSAGE_AGGREGATE_AVERAGE = "MESSAGE_AGGREGATE_AVERAGE",
+																MESSAGE_AGGREGATE_DATABASE = "MESSAGE_AGGREGATE_DATABASE",
+																MESSAGE_AGGREGATE_LOADED = "MESSAGE_AGGREGATE_LOADED",
+																
+																MESSAGE_PROFILE_DISTINCT = "MESSAGE_PROFILE_DISTINCT",
+																MESSAGE_PROFILE_NULL = "MESSAGE_PROFILE_NULL",
+																MESSAGE_PROFILE_QUANTILES = "MESSAGE_PROFILE_QUANTILES",
+																MESSAGE_PROFILE_SAMPLED = "MESSAGE_PROFILE_SAMPLED",
+																MESSAGE_PROFILE_ROWS = "MESSAGE_PROFILE_ROWS",
+																MESSAGE_TOO_MANY_VALUES = "MESSAGE_TOO_MANY_VALUES",
+																ACTION_FILTER_VALUE = "ACTION_FILTER_VALUE",
+																ACTION_TIP_FILTER_VALUE = "ACTION_TIP_FILTER_VALUE";
 	}
 	
 	private static class Defaults {
@@ -174,19 +330,53 @@ public class ApplicationProperties {
 																CURRENT_TABLES_X = "1",
 																CURRENT_TABLES_Y = "1",
 																
+																VIRTUAL_SCROLL_ROWS = "100000",
+																
 																SAVED_HOST = "",
 																SAVED_DATABASE = "",
 																SAVED_DATABASE_TYPE = "",
 																SAVED_USER = "",
 																SAVED_PASSWORD = "",
 																
+																LOGIN_TIMEOUT = "10",
+																OPERATION_TIMEOUT = "60",
+																POOL_READ_LANES = "2",
+																POOL_IDLE_TIMEOUT = "300000",
+																POOL_HEALTH_CHECK_INTERVAL = "60000",
+																TABLE_CACHE_SIZE = "64",
+																HISTORY_MEMORY_ENTRIES = "500",
+																
+																JOURNAL_FOLDER = "journal/",
+																JOURNAL_SYNC_INTERVAL = "1000",
+																JOURNAL_UNDO_DEPTH = "100",
+																JOURNAL_MAX_SIZE = "67108864",
+																
+																SESSION_CACHED_TABLES = "4",
+																FIRST_PAGE_ROWS = "1000",
+																
+																EXPORT_BUFFER_SIZE = "1048576",
+																IMPORT_BATCH_ROWS = "1000",
+																IMPORT_TRANSACTION_ROWS = "100000",
+																IMPORT_CHUNK_SIZE = "4194304",
+																CONSOLE_FETCH_SIZE = "1000",
+																CONSOLE_MAX_ROWS = "1000000",
+																PROFILE_SAMPLE_ROWS = "100000",
+																PROFILE_HISTOGRAM_BUCKETS = "8",
+																PROFILE_PICKER_MAX_VALUES = "1000",
+																
+																METRICS_FILE = "sqlobviewer-metrics.log",
+																METRICS_STATUS_INTERVAL = "1000",
+																
+																CONFIG_SAVE_DELAY = "500",
+																
 																ASSETS_FOLDER = "assets/",
 																CONFIG_FILE = ASSETS_FOLDER + "config.ini",
 																LANG_FILE = ASSETS_FOLDER + "lang/en.lang",
 																LOG_FILE = "sqlobviewer.log",
 																
 																LOGGING_ENABLED = "false",
-																LOGGING_LEVEL = "INFO";
+																LOGGING_LEVEL = "INFO",
+																LOGGING_BUFFER_SIZE = "65536";
 		
 		private static final String TITLE_WINDOW = "SQLObViewer",	// Lang defaults
 																
@@ -212,6 +402,9 @@ public class ApplicationProperties {
 																MESSAGE_TIP_CURRENT_FILTER = "Current filter",
 																
 																MESSAGE_TIP_LAST_STATEMENT = "Last executed statement",
+																MESSAGE_TIP_METRICS = "Median/99th percentile/maximum latency of each operation",
+																MESSAGE_CONNECTING = "Connecting...",
+																MESSAGE_LOADING = "Loading...",
 																
 																MESSAGE_CONFIRM_REMOVE_TABLE = "Are you sure you want to drop the selected table?",
 																MESSAGE_CONFIRM_REMOVE_ROW = "Are you sure you want to delete the selected row(s)?",
@@ -238,6 +431,9 @@ public class ApplicationProperties {
 																ACTION_LOG_IN = "Log In",
 																ACTION_LOG_OUT = "Log Out",
 																
+																ACTION_NEW_SESSION = "New Session",
+																ACTION_TIP_NEW_SESSION = "Log in to another database in a new tab",
+																
 																ACTION_REFRESH_TABLE = "R",
 																ACTION_TIP_REFRESH_TABLE = "Refresh table",
 																
@@ -258,7 +454,72 @@ public class ApplicationProperties {
 																ACTION_TIP_ADD_FILTER = "Set filter",
 																ACTION_TIP_REMOVE_FILTER = "Remove filter",
 																
-																ACTION_UNDO_STATEMENT = "Undo";
+																TITLE_HISTORY = "Statement History",
+																
+																MESSAGE_HISTORY_ANY = "Any",
+																MESSAGE_HISTORY_TIME = "Time",
+																MESSAGE_HISTORY_DURATION = "Duration (ms)",
+																MESSAGE_HISTORY_ROWS = "Rows",
+																MESSAGE_HISTORY_TABLE = "Table",
+																MESSAGE_HISTORY_TYPE = "Type",
+																MESSAGE_HISTORY_STATEMENT = "Statement",
+																MESSAGE_TIP_HISTORY_FILTER = "Filter statements by text",
+																
+																ACTION_HISTORY = "History",
+																ACTION_TIP_HISTORY = "Show all statements executed in this session",
+																ACTION_REVERT_SELECTED = "Revert Selected",
+																
+																ACTION_UNDO_STATEMENT = "Undo",
+																ACTION_REDO_STATEMENT = "Redo",
+																
+																ACTION_EXPORT = "Export",
+																ACTION_TIP_EXPORT = "Export the current table to a CSV, TSV, or NDJSON file",
+																MESSAGE_EXPORT_VIEW = "Filtered view only",
+																MESSAGE_EXPORTING = "Exporting",
+																MESSAGE_ROWS_EXPORTED = "row(s) exported",
+																
+																ACTION_IMPORT_ROWS = "CSV",
+																ACTION_TIP_IMPORT_ROWS = "Insert rows from a CSV file with a header line of column names",
+																MESSAGE_IMPORTING = "Importing",
+																MESSAGE_ROWS_IMPORTED = "row(s) imported",
+																MESSAGE_ROWS_REJECTED = "row(s) rejected",
+																
+																TITLE_CONSOLE = "SQL Console",
+																ACTION_CONSOLE = "Console",
+																ACTION_TIP_CONSOLE = "Run SQL against this database",
+																ACTION_RUN = "Run",
+																ACTION_TIP_RUN = "Run the statement (Ctrl+Enter)",
+																ACTION_STOP = "Stop",
+																MESSAGE_TIP_CONSOLE = "Statement to run",
+																MESSAGE_RUNNING = "Running...",
+																MESSAGE_ROWS_FETCHED = "row(s) fetched",
+																MESSAGE_ROWS_AFFECTED = "row(s) affected",
+																MESSAGE_FIRST_ROWS = "first rows in",
+																MESSAGE_ROW_LIMIT = "row limit reached",
+																MESSAGE_CANCELED = "canceled",
+																
+																TITLE_WAITING = "Waiting for Database",
+																MESSAGE_WAITING = "Waiting for",
+																
+																MESSAGE_TIP_AGGREGATES = "Count, sum, minimum, maximum, average, and null count of the selected columns over the displayed rows",
+																MESSAGE_AGGREGATING = "Aggregating...",
+																MESSAGE_AGGREGATE_COUNT = "count",
+																MESSAGE_AGGREGATE_NULLS = "nulls",
+																MESSAGE_AGGREGATE_SUM = "sum",
+																MESSAGE_AGGREGATE_MIN = "min",
+																MESSAGE_AGGREGATE_MAX = "max",
+																MESSAGE_AGGREGATE_AVERAGE = "avg",
+																MESSAGE_AGGREGATE_DATABASE = "all rows, from database",
+																MESSAGE_AGGREGATE_LOADED = "loaded rows only",
+																
+																MESSAGE_PROFILE_DISTINCT = "distinct",
+																MESSAGE_PROFILE_NULL = "null",
+																MESSAGE_PROFILE_QUANTILES = "Quantiles",
+																MESSAGE_PROFILE_SAMPLED = "Head-sampled from the first",
+																MESSAGE_PROFILE_ROWS = "rows",
+																MESSAGE_TOO_MANY_VALUES = "distinct values, too many to list",
+																ACTION_FILTER_VALUE = "Filter by value...",
+																ACTION_TIP_FILTER_VALUE = "Filter by a typed value";
 																
 		private static Properties buildConfig() {
 			Properties defaults = new Properties();
@@ -271,18 +532,52 @@ public class ApplicationProperties {
 			defaults.put(Keys.CURRENT_TABLES_X, CURRENT_TABLES_X);
 			defaults.put(Keys.CURRENT_TABLES_Y, CURRENT_TABLES_Y);
 			
+			defaults.put(Keys.VIRTUAL_SCROLL_ROWS, VIRTUAL_SCROLL_ROWS);
+			
 			defaults.put(Keys.SAVED_HOST, SAVED_HOST);
 			defaults.put(Keys.SAVED_DATABASE, SAVED_DATABASE);
 			defaults.put(Keys.SAVED_DATABASE_TYPE, SAVED_DATABASE_TYPE);
 			defaults.put(Keys.SAVED_USER, SAVED_USER);
 			defaults.put(Keys.SAVED_PASSWORD, SAVED_PASSWORD);
 			
+			defaults.put(Keys.LOGIN_TIMEOUT, LOGIN_TIMEOUT);
+			defaults.put(Keys.OPERATION_TIMEOUT, OPERATION_TIMEOUT);
+			defaults.put(Keys.POOL_READ_LANES, POOL_READ_LANES);
+			defaults.put(Keys.POOL_IDLE_TIMEOUT, POOL_IDLE_TIMEOUT);
+			defaults.put(Keys.POOL_HEALTH_CHECK_INTERVAL, POOL_HEALTH_CHECK_INTERVAL);
+			defaults.put(Keys.TABLE_CACHE_SIZE, TABLE_CACHE_SIZE);
+			defaults.put(Keys.HISTORY_MEMORY_ENTRIES, HISTORY_MEMORY_ENTRIES);
+			
+			defaults.put(Keys.JOURNAL_FOLDER, JOURNAL_FOLDER);
+			defaults.put(Keys.JOURNAL_SYNC_INTERVAL, JOURNAL_SYNC_INTERVAL);
+			defaults.put(Keys.JOURNAL_UNDO_DEPTH, JOURNAL_UNDO_DEPTH);
+			defaults.put(Keys.JOURNAL_MAX_SIZE, JOURNAL_MAX_SIZE);
+			
+			defaults.put(Keys.SESSION_CACHED_TABLES, SESSION_CACHED_TABLES);
+			defaults.put(Keys.FIRST_PAGE_ROWS, FIRST_PAGE_ROWS);
+			
+			defaults.put(Keys.EXPORT_BUFFER_SIZE, EXPORT_BUFFER_SIZE);
+			defaults.put(Keys.IMPORT_BATCH_ROWS, IMPORT_BATCH_ROWS);
+			defaults.put(Keys.IMPORT_TRANSACTION_ROWS, IMPORT_TRANSACTION_ROWS);
+			defaults.put(Keys.IMPORT_CHUNK_SIZE, IMPORT_CHUNK_SIZE);
+			defaults.put(Keys.CONSOLE_FETCH_SIZE, CONSOLE_FETCH_SIZE);
+			defaults.put(Keys.CONSOLE_MAX_ROWS, CONSOLE_MAX_ROWS);
+			defaults.put(Keys.PROFILE_SAMPLE_ROWS, PROFILE_SAMPLE_ROWS);
+			defaults.put(Keys.PROFILE_HISTOGRAM_BUCKETS, PROFILE_HISTOGRAM_BUCKETS);
+			defaults.put(Keys.PROFILE_PICKER_MAX_VALUES, PROFILE_PICKER_MAX_VALUES);
+			
+			defaults.put(Keys.METRICS_FILE, METRICS_FILE);
+			defaults.put(Keys.METRICS_STATUS_INTERVAL, METRICS_STATUS_INTERVAL);
+			
+			defaults.put(Keys.CONFIG_SAVE_DELAY, CONFIG_SAVE_DELAY);
+			
 			defaults.put(Keys.ASSETS_FOLDER, ASSETS_FOLDER);
 			defaults.put(Keys.LANG_FILE, LANG_FILE);
 			defaults.put(Keys.LOG_FILE, LOG_FILE);
 
 			defaults.put(Keys.LOGGING_ENABLED, LOGGING_ENABLED);
 			defaults.put(Keys.LOGGING_LEVEL, LOGGING_LEVEL);
+			defaults.put(Keys.LOGGING_BUFFER_SIZE, LOGGING_BUFFER_SIZE);
 			
 			return defaults;
 		}
@@ -313,6 +608,9 @@ public class ApplicationProperties {
 			defaults.put(Keys.MESSAGE_TIP_CURRENT_FILTER, MESSAGE_TIP_CURRENT_FILTER);
 			
 			defaults.put(Keys.MESSAGE_TIP_LAST_STATEMENT, MESSAGE_TIP_LAST_STATEMENT);
+			defaults.put(Keys.MESSAGE_TIP_METRICS, MESSAGE_TIP_METRICS);
+			defaults.put(Keys.MESSAGE_CONNECTING, MESSAGE_CONNECTING);
+			defaults.put(Keys.MESSAGE_LOADING, MESSAGE_LOADING);
 			
 			defaults.put(Keys.MESSAGE_CONFIRM_REMOVE_TABLE, MESSAGE_CONFIRM_REMOVE_TABLE);
 			defaults.put(Keys.MESSAGE_CONFIRM_REMOVE_ROW, MESSAGE_CONFIRM_REMOVE_ROW);
@@ -339,6 +637,9 @@ public class ApplicationProperties {
 			defaults.put(Keys.ACTION_LOG_IN, ACTION_LOG_IN);
 			defaults.put(Keys.ACTION_LOG_OUT, ACTION_LOG_OUT);
 			
+			defaults.put(Keys.ACTION_NEW_SESSION, ACTION_NEW_SESSION);
+			defaults.put(Keys.ACTION_TIP_NEW_SESSION, ACTION_TIP_NEW_SESSION);
+			
 			defaults.put(Keys.ACTION_REFRESH_TABLE, ACTION_REFRESH_TABLE);
 			defaults.put(Keys.ACTION_TIP_REFRESH_TABLE, ACTION_TIP_REFRESH_TABLE);
 			
@@ -359,7 +660,72 @@ public class ApplicationProperties {
 			defaults.put(Keys.ACTION_TIP_ADD_FILTER, ACTION_TIP_ADD_FILTER);
 			defaults.put(Keys.ACTION_TIP_REMOVE_FILTER, ACTION_TIP_REMOVE_FILTER);
 			
+			defaults.put(Keys.TITLE_HISTORY, TITLE_HISTORY);
+			
+			defaults.put(Keys.MESSAGE_HISTORY_ANY, MESSAGE_HISTORY_ANY);
+			defaults.put(Keys.MESSAGE_HISTORY_TIME, MESSAGE_HISTORY_TIME);
+			defaults.put(Keys.MESSAGE_HISTORY_DURATION, MESSAGE_HISTORY_DURATION);
+			defaults.put(Keys.MESSAGE_HISTORY_ROWS, MESSAGE_HISTORY_ROWS);
+			defaults.put(Keys.MESSAGE_HISTORY_TABLE, MESSAGE_HISTORY_TABLE);
+			defaults.put(Keys.MESSAGE_HISTORY_TYPE, MESSAGE_HISTORY_TYPE);
+			defaults.put(Keys.MESSAGE_HISTORY_STATEMENT, MESSAGE_HISTORY_STATEMENT);
+			defaults.put(Keys.MESSAGE_TIP_HISTORY_FILTER, MESSAGE_TIP_HISTORY_FILTER);
+			
+			defaults.put(Keys.ACTION_HISTORY, ACTION_HISTORY);
+			defaults.put(Keys.ACTION_TIP_HISTORY, ACTION_TIP_HISTORY);
+			defaults.put(Keys.ACTION_REVERT_SELECTED, ACTION_REVERT_SELECTED);
+			
 			defaults.put(Keys.ACTION_UNDO_STATEMENT, ACTION_UNDO_STATEMENT);
+			defaults.put(Keys.ACTION_REDO_STATEMENT, ACTION_REDO_STATEMENT);
+			
+			defaults.put(Keys.ACTION_EXPORT, ACTION_EXPORT);
+			defaults.put(Keys.ACTION_TIP_EXPORT, ACTION_TIP_EXPORT);
+			defaults.put(Keys.MESSAGE_EXPORT_VIEW, MESSAGE_EXPORT_VIEW);
+			defaults.put(Keys.MESSAGE_EXPORTING, MESSAGE_EXPORTING);
+			defaults.put(Keys.MESSAGE_ROWS_EXPORTED, MESSAGE_ROWS_EXPORTED);
+			
+			defaults.put(Keys.ACTION_IMPORT_ROWS, ACTION_IMPORT_ROWS);
+			defaults.put(Keys.ACTION_TIP_IMPORT_ROWS, ACTION_TIP_IMPORT_ROWS);
+			defaults.put(Keys.MESSAGE_IMPORTING, MESSAGE_IMPORTING);
+			defaults.put(Keys.MESSAGE_ROWS_IMPORTED, MESSAGE_ROWS_IMPORTED);
+			defaults.put(Keys.MESSAGE_ROWS_REJECTED, MESSAGE_ROWS_REJECTED);
+			
+			defaults.put(Keys.TITLE_CONSOLE, TITLE_CONSOLE);
+			defaults.put(Keys.ACTION_CONSOLE, ACTION_CONSOLE);
+			defaults.put(Keys.ACTION_TIP_CONSOLE, ACTION_TIP_CONSOLE);
+			defaults.put(Keys.ACTION_RUN, ACTION_RUN);
+			defaults.put(Keys.ACTION_TIP_RUN, ACTION_TIP_RUN);
+			defaults.put(Keys.ACTION_STOP, ACTION_STOP);
+			defaults.put(Keys.MESSAGE_TIP_CONSOLE, MESSAGE_TIP_CONSOLE);
+			defaults.put(Keys.MESSAGE_RUNNING, MESSAGE_RUNNING);
+			defaults.put(Keys.MESSAGE_ROWS_FETCHED, MESSAGE_ROWS_FETCHED);
+			defaults.put(Keys.MESSAGE_ROWS_AFFECTED, MESSAGE_ROWS_AFFECTED);
+			defaults.put(Keys.MESSAGE_FIRST_ROWS, MESSAGE_FIRST_ROWS);
+			defaults.put(Keys.MESSAGE_ROW_LIMIT, MESSAGE_ROW_LIMIT);
+			defaults.put(Keys.MESSAGE_CANCELED, MESSAGE_CANCELED);
+			
+			defaults.put(Keys.TITLE_WAITING, TITLE_WAITING);
+			defaults.put(Keys.MESSAGE_WAITING, MESSAGE_WAITING);
+			
+			defaults.put(Keys.MESSAGE_TIP_AGGREGATES, MESSAGE_TIP_AGGREGATES);
+			defaults.put(Keys.MESSAGE_AGGREGATING, MESSAGE_AGGREGATING);
+			defaults.put(Keys.MESSAGE_AGGREGATE_COUNT, MESSAGE_AGGREGATE_COUNT);
+			defaults.put(Keys.MESSAGE_AGGREGATE_NULLS, MESSAGE_AGGREGATE_NULLS);
+			defaults.put(Keys.MESSAGE_AGGREGATE_SUM, MESSAGE_AGGREGATE_SUM);
+			defaults.put(Keys.MESSAGE_AGGREGATE_MIN, MESSAGE_AGGREGATE_MIN);
+			defaults.put(Keys.MESSAGE_AGGREGATE_MAX, MESSAGE_AGGREGATE_MAX);
+			defaults.put(Keys.MESSAGE_AGGREGATE_AVERAGE, MESSAGE_AGGREGATE_AVERAGE);
+			defaults.put(Keys.MESSAGE_AGGREGATE_DATABASE, MESSAGE_AGGREGATE_DATABASE);
+			defaults.put(Keys.MESSAGE_AGGREGATE_LOADED, MESSAGE_AGGREGATE_LOADED);
+			
+			defaults.put(Keys.MESSAGE_PROFILE_DISTINCT, MESSAGE_PROFILE_DISTINCT);
+			defaults.put(Keys.MESSAGE_PROFILE_NULL, MESSAGE_PROFILE_NULL);
+			defaults.put(Keys.MESSAGE_PROFILE_QUANTILES, MESSAGE_PROFILE_QUANTILES);
+			defaults.put(Keys.MESSAGE_PROFILE_SAMPLED, MESSAGE_PROFILE_SAMPLED);
+			defaults.put(Keys.MESSAGE_PROFILE_ROWS, MESSAGE_PROFILE_ROWS);
+			defaults.put(Keys.MESSAGE_TOO_MANY_VALUES, MESSAGE_TOO_MANY_VALUES);
+			defaults.put(Keys.ACTION_FILTER_VALUE, ACTION_FILTER_VALUE);
+			defaults.put(Keys.ACTION_TIP_FILTER_VALUE, ACTION_TIP_FILTER_VALUE);
 			
 			return defaults;
 		}
@@ -376,7 +742,9 @@ public class ApplicationProperties {
 		 * @return value of the specified key.
 		 */
 		public static String get(String key) {
-			return ApplicationProperties.get(key, config);
+			String value = snapshot.get(key);
+			
+			return value != null ? value : loadConfig(key);
 		}
 		/**
 		 * Retrieves the integer value of a key.
@@ -384,7 +752,17 @@ public class ApplicationProperties {
 		 * @return integer value of specified key
 		 */
 		public static int getInt(String key) {
-			return Integer.parseInt(get(key));
+			ConfigSnapshot current = snapshot;
+			if (!current.contains(key)) {
+				loadConfig(key);
+				current = snapshot;
+			}
+			return current.getInt(key);
+		}
+		
+		/** @return immutable snapshot of all configuration values read or set so far */
+		public static ConfigSnapshot getSnapshot() {
+			return snapshot;
 		}
 		
 		/**
@@ -394,14 +772,62 @@ public class ApplicationProperties {
 		 * @return {@code true} if invoking this method results in a change to the backing properties
 		 */
 		public static boolean set(String key, String value) {
-			return ApplicationProperties.set(key, value, config);
+			boolean change;
+			ConfigSnapshot changed;
+			
+			synchronized (config) {
+				change = ApplicationProperties.set(key, value, config);
+				changed = snapshot = snapshot.with(key, value);
+			}
+			if (change)
+				fireConfigChanged(key, changed);
+			
+			return change;
 		}
 		
 		/**
-		 * Saves current configuration.
+		 * Re-reads all snapshot values from the backing {@code Properties}, notifying listeners of any changed values.
+		 * Should be invoked after the backing properties are modified directly.
+		 */
+		public static void reload() {
+			ConfigSnapshot old,
+										reloaded;
+			
+			synchronized (config) {
+				old = reloaded = snapshot;
+				
+				for (String key : old.keys())
+					reloaded = reloaded.with(key, ApplicationProperties.get(key, config));
+				
+				snapshot = reloaded;
+			}
+			for (String key : old.keys()) {
+				if (!Objects.equals(old.get(key), reloaded.get(key)))
+					fireConfigChanged(key, reloaded);
+			}
+		}
+		
+		/**
+		 * Saves current configuration in the background.
+		 * Saves requested in quick succession are coalesced.
 		 */
 		public static void save() {
-			ApplicationProperties.save(config);
+			configSaver.request();
+		}
+		/**
+		 * Completes any pending save on the calling thread.
+		 */
+		public static void flush() {
+			configSaver.flush();
+		}
+		
+		/** @param listener listener to add */
+		public static void addListener(ConfigListener listener) {
+			configListeners.add(listener);
+		}
+		/** @param listener listener to remove */
+		public static void removeListener(ConfigListener listener) {
+			configListeners.remove(listener);
 		}
 		
 		/** @return backing {@code Properties} object */
@@ -420,7 +846,7 @@ public class ApplicationProperties {
 		 * @return value for the specified key.
 		 */
 		public static String get(String key) {
-			return ApplicationProperties.get(key, strings);
+			return ApplicationProperties.get(key, getStrings());
 		}
 	}
 }
@@ -2,7 +2,8 @@ package dev.kkorolyov.sqlobviewer.assets;
 
 import java.awt.Image;
 import java.io.File;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.swing.Icon;
@@ -29,6 +30,9 @@ public enum Asset {
 	private String path;
 	private boolean directory;
 	
+	private volatile Icon icon;
+	private volatile List<Image> images;
+	
 	private Asset(String path) {
 		this.path = path;
 		directory = this.path.endsWith("/");
@@ -52,31 +56,39 @@ public enum Asset {
 	}
 	
 	/**
-	 * @return this asset as an icon
+	 * @return this asset as an icon, decoded once and shared by all callers
 	 * @throws IllegalArgumentException if this asset is not a file
 	 */
 	public Icon asIcon() {
 		assertFile();
 		
-		return new ImageIcon(FileLocator.locateFile(path).getAbsolutePath());
+		Icon cached = icon;
+		if (cached == null)
+			icon = cached = new ImageIcon(FileLocator.locateFile(path).getAbsolutePath());	// A racing decode is harmless
+		
+		return cached;
 	}
 	
 	/**
-	 * @return this asset as a list of images
+	 * @return this asset as an unmodifiable list of images, decoded once and shared by all callers
 	 * @throws IllegalArgumentException if this asset is not a directory
 	 */
 	public List<Image> asImages() {
 		assertDirectory();
 		
-		File mainIconFolder = FileLocator.locateFile(path);
-		
-		List<Image> mainIcons = new LinkedList<>();
-
-		if (mainIconFolder != null && mainIconFolder.exists()) {
-			for (File mainIconFile : mainIconFolder.listFiles())
-				mainIcons.add(new ImageIcon(mainIconFile.getAbsolutePath()).getImage());
+		List<Image> cached = images;
+		if (cached == null) {
+			File mainIconFolder = FileLocator.locateFile(path);
+			
+			List<Image> mainIcons = new ArrayList<>();
+	
+			if (mainIconFolder != null && mainIconFolder.exists()) {
+				for (File mainIconFile : mainIconFolder.listFiles())
+					mainIcons.add(new ImageIcon(mainIconFile.getAbsolutePath()).getImage());
+			}
+			images = cached = Collections.unmodifiableList(mainIcons);
 		}
-		return mainIcons;
+		return cached;
 	}
 	
 	/** @return relative path to this asset */
@@ -0,0 +1,181 @@
+package dev.kkorolyov.sqlobviewer.assets;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * Extracts all assets bundled in the application .jar to the external assets folder, only when the .jar has changed since the last extraction.
+ * A manifest in the external assets folder records the .jar last extracted from and the checksum of each file extracted from it.
+ * An extracted file changed since its extraction is never overwritten.
+ */
+class AssetExtractor {
+	private static final Log log = Log.get(AssetExtractor.class);
+
+	private static final String MANIFEST = ".manifest";
+
+	private final File jar,
+										 externalFolder;
+	private final String bundledFolder;
+	private boolean synced;
+
+	/**
+	 * Constructs a new extractor.
+	 * @param jar application .jar
+	 * @param bundledFolder path of the assets folder within {@code jar}
+	 * @param externalFolder folder to extract to
+	 */
+	AssetExtractor(File jar, String bundledFolder, File externalFolder) {
+		this.jar = jar;
+		this.bundledFolder = bundledFolder;
+		this.externalFolder = externalFolder;
+	}
+
+	/**
+	 * Extracts all new or changed bundled assets, if not yet done by this extractor.
+	 */
+	synchronized void sync() {
+		if (synced)
+			return;
+
+		synced = true;
+
+		long start = System.nanoTime();
+		File manifest = new File(externalFolder, MANIFEST);
+		String stamp = jar.getAbsolutePath() + "|" + jar.lastModified() + "|" + jar.length();
+		Map<String, Long> extracted = new HashMap<>();
+
+		String lastStamp = readManifest(manifest, extracted);
+		if (stamp.equals(lastStamp)) {
+			log.debug(() -> "Bundled assets unchanged since last extraction from " + jar);
+			return;
+		}
+		Map<String, Long> checksums = new LinkedHashMap<>();
+		int written = 0;
+
+		try (JarFile jarFile = new JarFile(jar)) {
+			for (JarEntry entry : Collections.list(jarFile.entries())) {
+				String name = entry.getName();
+				if (entry.isDirectory() || !name.startsWith(bundledFolder) || name.endsWith(".class"))
+					continue;
+
+				String path = name.substring(bundledFolder.length());
+				File target = new File(externalFolder, path);
+				long checksum = entry.getCrc();
+
+				checksums.put(path, checksum);
+
+				if (target.exists()) {
+					long current = checksum(target);
+					Long previous = extracted.get(path);
+
+					if (current == checksum)
+						continue;	// Up to date
+					if (previous == null || current != previous) {	// Not extracted by us, or modified since extraction
+						if (previous == null)
+							checksums.remove(path);
+						else
+							checksums.put(path, previous);
+
+						continue;
+					}
+				}
+				extract(jarFile, entry, target);
+				written++;
+			}
+			writeManifest(manifest, stamp, checksums);
+		} catch (IOException e) {
+			log.exception(e);
+			return;
+		}
+		int writtenCount = written;
+		log.info(() -> "Extracted " + writtenCount + "/" + checksums.size() + " bundled assets from " + jar + " in " + (System.nanoTime() - start) / 1000000 + "ms");
+	}
+
+	/**
+	 * Extracts any missing files of a bundled asset, e.g. after they are deleted from the external folder.
+	 * @param path path of a bundled file or folder, relative to the assets folder
+	 */
+	synchronized void restore(String path) {
+		try (JarFile jarFile = new JarFile(jar)) {
+			for (JarEntry entry : Collections.list(jarFile.entries())) {
+				String name = entry.getName();
+				if (entry.isDirectory() || !name.startsWith(bundledFolder + path) || name.endsWith(".class"))
+					continue;
+
+				File target = new File(externalFolder, name.substring(bundledFolder.length()));
+				if (!target.exists()) {
+					extract(jarFile, entry, target);
+					log.info(() -> "Restored missing bundled asset: " + target);
+				}
+			}
+		} catch (IOException e) {
+			log.exception(e);
+		}
+	}
+
+	private static void extract(JarFile jarFile, JarEntry entry, File target) throws IOException {
+		File parent = target.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+			throw new IOException("Unable to create asset folder: " + parent);
+
+		try (InputStream in = jarFile.getInputStream(entry)) {
+			Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	private static long checksum(File file) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[8192];
+
+		try (InputStream in = new FileInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) > 0)
+				crc.update(buffer, 0, read);
+		}
+		return crc.getValue();
+	}
+
+	/** @return stamp of the .jar last extracted from, or {@code null} if no readable manifest */
+	private static String readManifest(File manifest, Map<String, Long> checksums) {
+		if (!manifest.isFile())
+			return null;
+
+		try (BufferedReader in = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+			String stamp = in.readLine();
+
+			String line;
+			while ((line = in.readLine()) != null) {
+				int split = line.indexOf('\t');
+				if (split > 0)
+					checksums.put(line.substring(split + 1), Long.parseLong(line.substring(0, split)));
+			}
+			return stamp;
+		} catch (IOException | NumberFormatException e) {
+			log.warning(() -> "Ignoring unreadable asset manifest " + manifest + ": " + e.getMessage());
+			checksums.clear();
+			return null;
+		}
+	}
+	private static void writeManifest(File manifest, String stamp, Map<String, Long> checksums) throws IOException {
+		File staging = new File(manifest.getPath() + ".tmp");
+		if (!manifest.getAbsoluteFile().getParentFile().isDirectory() && !manifest.getAbsoluteFile().getParentFile().mkdirs())
+			throw new IOException("Unable to create asset folder: " + manifest.getParentFile());
+
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(staging.toPath(), StandardCharsets.UTF_8))) {
+			out.println(stamp);
+			for (Map.Entry<String, Long> checksum : checksums.entrySet())
+				out.println(checksum.getValue() + "\t" + checksum.getKey());
+		}
+		Files.move(staging.toPath(), manifest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);	// Manifest only ever describes completed extractions
+	}
+}
@@ -0,0 +1,13 @@
+package dev.kkorolyov.sqlobviewer.assets;
+
+/**
+ * Listens for changes to configuration values.
+ */
+public interface ConfigListener {
+	/**
+	 * Invoked when a configuration value changes.
+	 * @param key changed key
+	 * @param snapshot configuration including the change
+	 */
+	void configChanged(String key, ConfigSnapshot snapshot);
+}
@@ -0,0 +1,48 @@
+package dev.kkorolyov.sqlobviewer.assets;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a save action off the calling thread, coalescing all requests made within a delay of the first into a single save.
+ * Any pending save is run when the JVM shuts down.
+ */
+class ConfigSaver {
+	private final Runnable save;
+	private final long delay;
+	private final AtomicBoolean pending = new AtomicBoolean();
+	private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "config-saver");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Constructs a new saver.
+	 * @param save action saving the current configuration
+	 * @param delay milliseconds to wait for further changes before saving
+	 */
+	ConfigSaver(Runnable save, long delay) {
+		this.save = save;
+		this.delay = delay;
+
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "config-saver-flush"));
+	}
+
+	/**
+	 * Requests a save, which is run after this saver's delay unless one is already pending.
+	 */
+	void request() {
+		if (pending.compareAndSet(false, true))
+			executor.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+	}
+	/**
+	 * Runs any pending save on the calling thread.
+	 */
+	synchronized void flush() {
+		if (pending.getAndSet(false))
+			save.run();
+	}
+}
@@ -0,0 +1,76 @@
+package dev.kkorolyov.sqlobviewer.assets;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable view of configuration values, with integer values parsed once when the snapshot is built.
+ */
+public final class ConfigSnapshot {
+	static final ConfigSnapshot EMPTY = new ConfigSnapshot(Collections.emptyMap(), Collections.emptyMap());
+
+	private final Map<String, String> values;
+	private final Map<String, Integer> ints;
+
+	private ConfigSnapshot(Map<String, String> values, Map<String, Integer> ints) {
+		this.values = values;
+		this.ints = ints;
+	}
+
+	/**
+	 * @param key key to use
+	 * @return value of {@code key}, or {@code null} if not in this snapshot
+	 */
+	public String get(String key) {
+		return values.get(key);
+	}
+	/**
+	 * @param key key to use
+	 * @return integer value of {@code key}
+	 * @throws NumberFormatException if {@code key}'s value is not an integer or not in this snapshot
+	 */
+	public int getInt(String key) {
+		Integer value = ints.get(key);
+		if (value == null)
+			throw new NumberFormatException("Not an integer value for " + key + ": " + values.get(key));
+
+		return value;
+	}
+
+	/**
+	 * @param key key to check
+	 * @return {@code true} if {@code key} has a value in this snapshot
+	 */
+	public boolean contains(String key) {
+		return values.containsKey(key);
+	}
+	/** @return all keys in this snapshot */
+	public Set<String> keys() {
+		return Collections.unmodifiableSet(values.keySet());
+	}
+
+	/**
+	 * @param key key to set
+	 * @param value value to set
+	 * @return snapshot with {@code key} set to {@code value}, or this snapshot if already equal
+	 */
+	ConfigSnapshot with(String key, String value) {
+		if (values.containsKey(key) && Objects.equals(values.get(key), value))
+			return this;
+
+		Map<String, String> newValues = new HashMap<>(values);
+		Map<String, Integer> newInts = new HashMap<>(ints);
+
+		newValues.put(key, value);
+		newInts.remove(key);
+		try {
+			newInts.put(key, Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			// Not an integer value
+		}
+		return new ConfigSnapshot(newValues, newInts);
+	}
+}
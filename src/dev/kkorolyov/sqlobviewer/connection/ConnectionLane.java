@@ -0,0 +1,160 @@
+package dev.kkorolyov.sqlobviewer.connection;
+
+import java.sql.SQLException;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.connection.DatabaseConnection;
+import dev.kkorolyov.sqlob.connection.TableConnection;
+import dev.kkorolyov.sqlob.connection.UncheckedSQLException;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool.ConnectionFactory;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * A single database connection within a {@code ConnectionPool}, along with its cache of table connections.
+ * A lane is used by at most one thread at a time.
+ */
+public class ConnectionLane {
+	private static final Log log = Log.get(ConnectionLane.class);
+	private static final String HEALTH_CHECK = "SELECT 1";
+	
+	private String name;
+	private ConnectionFactory factory;
+	private volatile DatabaseConnection conn;
+	private TableCache tables;
+	private volatile long lastUsed = System.currentTimeMillis();
+	private volatile int opens;
+	private volatile boolean aborted;
+	
+	ConnectionLane(String name, ConnectionFactory factory, int tableCacheSize) {
+		this.name = name;
+		this.factory = factory;
+		
+		tables = new TableCache(tableCacheSize);
+	}
+	
+	/**
+	 * Returns this lane's database connection, opening a new one if this lane is disconnected.
+	 * @return database connection
+	 * @throws UncheckedSQLException if a new connection cannot be opened
+	 */
+	public DatabaseConnection getConnection() {
+		if (conn == null) {
+			try {
+				connect();
+			} catch (SQLException e) {
+				throw new UncheckedSQLException(e);
+			}
+		}
+		return conn;
+	}
+	void connect() throws SQLException {
+		conn = factory.open();
+		opens++;
+		
+		log.debug(() -> "Opened connection for lane=" + name);
+	}
+	
+	/**
+	 * @param table name of table
+	 * @return connection to {@code table}, reused across calls until evicted or invalidated
+	 */
+	public TableConnection getTable(String table) {
+		return tables.get(table, name -> getConnection().connect(name));
+	}
+	
+	/** @param table name of table whose cached connection to discard */
+	void invalidateTable(String table) {
+		tables.invalidate(table);
+	}
+	/** Discards all cached table connections. */
+	void invalidateTables() {
+		tables.clear();
+	}
+	
+	/** @return this lane's table cache */
+	TableCache getTableCache() {
+		return tables;
+	}
+	
+	/**
+	 * Runs a cheap round trip to the database, a {@code SELECT 1} touching no tables or catalog.
+	 * @return {@code true} if this lane is disconnected or its connection responded
+	 */
+	boolean checkHealth() {
+		if (conn == null)
+			return true;
+		
+		try {
+			conn.execute(HEALTH_CHECK);
+			return true;
+		} catch (RuntimeException e) {
+			log.warning(() -> "Health check failed for lane=" + name);
+			log.exception(e, Level.WARNING);
+			return false;
+		}
+	}
+	
+	/**
+	 * Closes this lane's connection from another thread, failing any statement in progress on it.
+	 * The lane is disconnected once returned to its pool, and reconnects on its next use.
+	 */
+	void abort() {
+		aborted = true;
+		
+		DatabaseConnection runningConn = conn;
+		if (runningConn != null) {
+			try {
+				runningConn.close();
+			} catch (RuntimeException e) {
+				log.exception(e, Level.WARNING);
+			}
+		}
+		log.warning(() -> "Aborted lane=" + name);
+	}
+	/** @return {@code true} if this lane was aborted since it was last disconnected */
+	boolean isAborted() {
+		return aborted;
+	}
+	
+	/**
+	 * Closes this lane's connection, if any.
+	 * The lane reconnects on its next use.
+	 */
+	void disconnect() {
+		DatabaseConnection oldConn = conn;
+		conn = null;
+		aborted = false;
+		tables.clear();
+		
+		if (oldConn != null) {
+			try {
+				oldConn.close();
+			} catch (RuntimeException e) {
+				log.exception(e, Level.WARNING);
+			}
+			log.debug(() -> "Closed connection for lane=" + name);
+		}
+	}
+	
+	void touch() {
+		lastUsed = System.currentTimeMillis();
+	}
+	/** @return milliseconds since this lane was last used */
+	long getIdleTime() {
+		return System.currentTimeMillis() - lastUsed;
+	}
+	
+	/** @return {@code true} if this lane currently holds an open connection */
+	public boolean isConnected() {
+		return conn != null;
+	}
+	/** @return number of connections this lane has opened */
+	int getOpens() {
+		return opens;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,321 @@
+package dev.kkorolyov.sqlobviewer.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import dev.kkorolyov.sqlob.connection.DatabaseConnection;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * A small pool of connections to a single database, split into lanes.
+ * A single write lane serves interactive writes and statement reverts, and so holds the statement log.
+ * Multiple read lanes serve reads, prefetching, and statistics, so long reads never queue in front of writes.
+ * Idle read lanes are disconnected after a timeout and reconnect on demand; all connected lanes are periodically health-checked.
+ */
+public class ConnectionPool implements AutoCloseable {
+	private static final Log log = Log.get(ConnectionPool.class);
+	
+	private String database;
+	private ConnectionFactory factory;
+	private ConnectionLane writeLane;
+	private ReentrantLock writeLock = new ReentrantLock(true);
+	private List<ConnectionLane> readLanes = new ArrayList<>();
+	private LinkedBlockingDeque<ConnectionLane> idleReadLanes = new LinkedBlockingDeque<>();
+	private long idleTimeout;
+	private ScheduledExecutorService maintainer;
+	private volatile boolean closed;
+	
+	private AtomicLong 	reads = new AtomicLong(),
+											writes = new AtomicLong(),
+											readWaits = new AtomicLong(),
+											readWaitNanos = new AtomicLong(),
+											writeWaitNanos = new AtomicLong(),
+											evictions = new AtomicLong(),
+											failedHealthChecks = new AtomicLong();
+	
+	/**
+	 * Constructs a new pool and opens its write lane.
+	 * @param factory opens new connections
+	 * @param readLanes number of read lanes, at least {@code 1}
+	 * @param idleTimeout milliseconds after which an unused read lane is disconnected
+	 * @param healthCheckInterval milliseconds between health checks
+	 * @param tableCacheSize maximum number of table connections cached by each lane
+	 * @throws SQLException if the write lane fails to connect
+	 */
+	public ConnectionPool(ConnectionFactory factory, int readLanes, long idleTimeout, long healthCheckInterval, int tableCacheSize) throws SQLException {
+		this.factory = factory;
+		this.idleTimeout = idleTimeout;
+		
+		writeLane = new ConnectionLane("write", factory, tableCacheSize);
+		writeLane.connect();	// Fail fast on bad credentials
+		database = writeLane.getConnection().getDatabaseName();
+		
+		for (int i = 0; i < Math.max(1, readLanes); i++) {
+			ConnectionLane readLane = new ConnectionLane("read-" + i, factory, tableCacheSize);
+			
+			this.readLanes.add(readLane);
+			idleReadLanes.addLast(readLane);
+		}
+		maintainer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "pool-maintainer-" + database);
+			thread.setDaemon(true);
+			return thread;
+		});
+		maintainer.scheduleWithFixedDelay(this::maintain, healthCheckInterval, healthCheckInterval, TimeUnit.MILLISECONDS);
+		
+		log.info(() -> "Opened connection pool to " + database + " with " + this.readLanes.size() + " read lanes");
+	}
+	
+	/**
+	 * Runs a task on the write lane, waiting only for other writes.
+	 * @param task task to run
+	 * @return result of {@code task}
+	 */
+	public <T> T write(Function<ConnectionLane, T> task) {
+		long start = System.nanoTime();
+		writeLock.lock();
+		try {
+			writeWaitNanos.addAndGet(System.nanoTime() - start);
+			writes.incrementAndGet();
+			
+			writeLane.touch();
+			return task.apply(writeLane);
+		} finally {
+			if (writeLane.isAborted())
+				writeLane.disconnect();	// Loses the statement log, but the connection is already closed
+			
+			writeLock.unlock();
+		}
+	}
+	/**
+	 * Runs a task on any available read lane, waiting for one to free up if all are in use.
+	 * @param task task to run
+	 * @return result of {@code task}
+	 */
+	public <T> T read(Function<ConnectionLane, T> task) {
+		ConnectionLane lane = borrowReadLane();
+		try {
+			reads.incrementAndGet();
+			
+			lane.touch();
+			return task.apply(lane);
+		} finally {
+			if (lane.isAborted())
+				lane.disconnect();
+			
+			idleReadLanes.addFirst(lane);	// Most-recently used first, so rarely-used lanes age out
+		}
+	}
+	/**
+	 * Runs a task on the write lane in the background.
+	 * @param description description of the task
+	 * @param task task to run
+	 * @param executor executor to wait for the write lane and run the task on
+	 * @return operation which may be waited on and aborted
+	 */
+	public <T> LaneOperation<T> submitWrite(String description, Function<ConnectionLane, T> task, Executor executor) {
+		LaneOperation<T> operation = new LaneOperation<>(description);
+		submit(operation, () -> write(lane -> operation.runOn(lane, task)), executor);
+		
+		return operation;
+	}
+	/**
+	 * Runs a task on any available read lane in the background.
+	 * @param description description of the task
+	 * @param task task to run
+	 * @param executor executor to wait for a read lane and run the task on
+	 * @return operation which may be waited on and aborted
+	 */
+	public <T> LaneOperation<T> submitRead(String description, Function<ConnectionLane, T> task, Executor executor) {
+		LaneOperation<T> operation = new LaneOperation<>(description);
+		submit(operation, () -> read(lane -> operation.runOn(lane, task)), executor);
+		
+		return operation;
+	}
+	private static <T> void submit(LaneOperation<T> operation, Supplier<T> run, Executor executor) {
+		try {
+			executor.execute(() -> {
+				try {
+					operation.complete(run.get());
+				} catch (Throwable e) {
+					operation.fail(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			operation.fail(e);
+		}
+	}
+	
+	private ConnectionLane borrowReadLane() {
+		ConnectionLane lane = idleReadLanes.pollFirst();
+		
+		if (lane == null) {
+			readWaits.incrementAndGet();
+			long start = System.nanoTime();
+			
+			try {
+				lane = idleReadLanes.takeFirst();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for a read lane", e);
+			} finally {
+				readWaitNanos.addAndGet(System.nanoTime() - start);
+			}
+		}
+		return lane;
+	}
+	
+	/**
+	 * Opens a dedicated JDBC connection outside of all lanes, for bulk operations which would otherwise hold a lane for a long time.
+	 * The caller is responsible for closing the connection.
+	 * @return new JDBC connection to this pool's database
+	 * @throws SQLException if a connection cannot be opened
+	 */
+	public Connection openBulkConnection() throws SQLException {
+		return factory.openJdbc();
+	}
+	
+	/**
+	 * Discards the cached connection to a table in all lanes.
+	 * @param table name of table, e.g. after it is created or dropped
+	 */
+	public void invalidateTable(String table) {
+		writeLane.invalidateTable(table);
+		
+		for (ConnectionLane lane : readLanes)
+			lane.invalidateTable(table);
+	}
+	/**
+	 * Discards all cached table connections in all lanes.
+	 */
+	public void invalidateTables() {
+		writeLane.invalidateTables();
+		
+		for (ConnectionLane lane : readLanes)
+			lane.invalidateTables();
+	}
+	
+	private void maintain() {
+		for (ConnectionLane lane : readLanes) {
+			if (!idleReadLanes.remove(lane))	// In use
+				continue;
+			
+			try {
+				if (lane.isConnected() && lane.getIdleTime() > idleTimeout) {
+					lane.disconnect();
+					evictions.incrementAndGet();
+					
+					log.debug(() -> "Evicted idle lane=" + lane);
+				} else if (!lane.checkHealth()) {
+					lane.disconnect();
+					failedHealthChecks.incrementAndGet();
+				}
+			} finally {
+				idleReadLanes.addLast(lane);
+			}
+		}
+		if (writeLock.tryLock()) {
+			try {
+				if (!writeLane.checkHealth()) {	// Reconnecting loses the statement log, so only do so when broken
+					writeLane.disconnect();
+					failedHealthChecks.incrementAndGet();
+				}
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		log.debug(() -> getMetrics().toString());
+	}
+	
+	/** @return name of the database this pool connects to */
+	public String getDatabaseName() {
+		return database;
+	}
+	/** @return identity of the database and user this pool connects as, distinct for databases of the same name on different hosts */
+	public String getIdentity() {
+		String identity = factory.getIdentity();
+		return (identity != null) ? identity : database;
+	}
+	
+	/** @return snapshot of this pool's current metrics */
+	public PoolMetrics getMetrics() {
+		int connected = 0;
+		long 	opens = writeLane.getOpens(),
+					tableHits = writeLane.getTableCache().getHits(),
+					tableMisses = writeLane.getTableCache().getMisses(),
+					tableEvictions = writeLane.getTableCache().getEvictions();
+		for (ConnectionLane lane : readLanes) {
+			if (lane.isConnected())
+				connected++;
+			opens += lane.getOpens();
+			tableHits += lane.getTableCache().getHits();
+			tableMisses += lane.getTableCache().getMisses();
+			tableEvictions += lane.getTableCache().getEvictions();
+		}
+		return new PoolMetrics(readLanes.size(), connected, idleReadLanes.size(), reads.get(), writes.get(), readWaits.get(), readWaitNanos.get(), writeWaitNanos.get(), opens, evictions.get(), failedHealthChecks.get(), tableHits, tableMisses, tableEvictions);
+	}
+	
+	/** @return {@code true} if this pool has been closed */
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Closes all connections in this pool.
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+		
+		maintainer.shutdownNow();
+		
+		writeLock.lock();
+		try {
+			writeLane.disconnect();
+		} finally {
+			writeLock.unlock();
+		}
+		for (ConnectionLane lane : readLanes)
+			lane.disconnect();
+		
+		log.info(() -> "Closed connection pool to " + database + ": " + getMetrics());
+	}
+	
+	/**
+	 * Opens new database connections.
+	 */
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		/**
+		 * @return new database connection
+		 * @throws SQLException if a connection cannot be opened
+		 */
+		DatabaseConnection open() throws SQLException;
+		/**
+		 * @return new plain JDBC connection to the same database
+		 * @throws SQLException if a connection cannot be opened
+		 */
+		default Connection openJdbc() throws SQLException {
+			throw new SQLFeatureNotSupportedException("No JDBC connections from this factory");
+		}
+		/** @return identity of the database and user connected as, or {@code null} if unknown */
+		default String getIdentity() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package dev.kkorolyov.sqlobviewer.connection;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import dev.kkorolyov.sqlob.connection.UncheckedSQLException;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * A task running on a pool lane in the background, which may be waited on and aborted.
+ * Aborting closes the lane's connection, so a statement stuck in the database fails rather than holding its lane, and completes the operation immediately, whether or not its thread has returned yet.
+ * @param <T> result type
+ */
+public class LaneOperation<T> {
+	private static final Log log = Log.get(LaneOperation.class);
+	private static final String SQL_STATE_CANCELED = "57014";
+
+	private final String description;
+	private final CompletableFuture<T> result = new CompletableFuture<>();
+	private final AtomicReference<ConnectionLane> lane = new AtomicReference<>();
+	private volatile SQLException abortCause;
+
+	LaneOperation(String description) {
+		this.description = description;
+	}
+
+	/**
+	 * Runs a task on the lane borrowed for this operation.
+	 * @param borrowed lane borrowed for this operation
+	 * @param task task to run
+	 * @return result of {@code task}
+	 */
+	T runOn(ConnectionLane borrowed, Function<ConnectionLane, T> task) {
+		lane.set(borrowed);
+		try {
+			if (abortCause != null)	// Aborted while waiting for a lane
+				throw new UncheckedSQLException(abortCause);
+
+			return task.apply(borrowed);
+		} finally {
+			lane.set(null);
+		}
+	}
+	void complete(T value) {
+		result.complete(value);
+	}
+	void fail(Throwable e) {
+		result.completeExceptionally(e);
+	}
+
+	/** @return description of this operation */
+	public String getDescription() {
+		return description;
+	}
+	/** @return {@code true} if this operation completed, failed, or was aborted */
+	public boolean isDone() {
+		return result.isDone();
+	}
+	/** @param action invoked on the completing thread once this operation is done */
+	public void whenDone(Runnable action) {
+		result.whenComplete((value, e) -> action.run());
+	}
+
+	/**
+	 * Waits for this operation to complete, without aborting it.
+	 * @param millis maximum milliseconds to wait
+	 * @return {@code true} if this operation is done
+	 */
+	public boolean waitFor(long millis) {
+		try {
+			result.get(millis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | ExecutionException e) {
+			// Done or not, checked below
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return isDone();
+	}
+	/**
+	 * Waits for this operation to complete, aborting it if it does not complete in time.
+	 * @param timeout milliseconds after which this operation is aborted, or {@code 0} to wait indefinitely
+	 */
+	public void await(long timeout) {
+		try {
+			if (timeout > 0)
+				result.get(timeout, TimeUnit.MILLISECONDS);
+			else
+				result.get();
+		} catch (TimeoutException e) {
+			timeOut(timeout);
+		} catch (ExecutionException e) {
+			// Rethrown by join()
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancel();
+		}
+	}
+	/**
+	 * @return result of this operation, once done
+	 * @throws UncheckedSQLException if this operation failed or was aborted
+	 */
+	public T join() {
+		try {
+			return result.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Cancels this operation at the user's request.
+	 */
+	public void cancel() {
+		abort(new SQLException("Canceled: " + description, SQL_STATE_CANCELED));
+	}
+	/**
+	 * Aborts this operation for running too long.
+	 * @param timeout milliseconds this operation was allowed
+	 */
+	public void timeOut(long timeout) {
+		abort(new SQLTimeoutException("Timed out after " + timeout + "ms: " + description, SQL_STATE_CANCELED));
+	}
+	private void abort(SQLException cause) {
+		if (isDone() || abortCause != null)
+			return;
+
+		abortCause = cause;
+		log.warning(() -> cause.getMessage());
+
+		ConnectionLane running = lane.get();
+		if (running != null)
+			running.abort();
+
+		result.completeExceptionally(new UncheckedSQLException(cause));
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+}
@@ -0,0 +1,21 @@
+package dev.kkorolyov.sqlobviewer.connection;
+
+/**
+ * Waits for lane operations to complete, and may abort them.
+ */
+@FunctionalInterface
+public interface OperationWaiter {
+	/**
+	 * Blocks until an operation completes or is aborted.
+	 * @param operation operation to wait for
+	 */
+	void await(LaneOperation<?> operation);
+	
+	/**
+	 * @param timeout milliseconds after which an operation is aborted, or {@code 0} to wait indefinitely
+	 * @return waiter blocking the calling thread until an operation completes or times out
+	 */
+	static OperationWaiter timed(long timeout) {
+		return operation -> operation.await(timeout);
+	}
+}
@@ -0,0 +1,108 @@
+package dev.kkorolyov.sqlobviewer.connection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of a {@code ConnectionPool}'s metrics.
+ */
+public class PoolMetrics {
+	private final int readLanes,
+										connectedReadLanes,
+										idleReadLanes;
+	private final long 	reads,
+											writes,
+											readWaits,
+											readWaitNanos,
+											writeWaitNanos,
+											opens,
+											evictions,
+											failedHealthChecks,
+											tableHits,
+											tableMisses,
+											tableEvictions;
+	
+	PoolMetrics(int readLanes, int connectedReadLanes, int idleReadLanes, long reads, long writes, long readWaits, long readWaitNanos, long writeWaitNanos, long opens, long evictions, long failedHealthChecks, long tableHits, long tableMisses, long tableEvictions) {
+		this.readLanes = readLanes;
+		this.connectedReadLanes = connectedReadLanes;
+		this.idleReadLanes = idleReadLanes;
+		this.reads = reads;
+		this.writes = writes;
+		this.readWaits = readWaits;
+		this.readWaitNanos = readWaitNanos;
+		this.writeWaitNanos = writeWaitNanos;
+		this.opens = opens;
+		this.evictions = evictions;
+		this.failedHealthChecks = failedHealthChecks;
+		this.tableHits = tableHits;
+		this.tableMisses = tableMisses;
+		this.tableEvictions = tableEvictions;
+	}
+	
+	/** @return total number of read lanes */
+	public int getReadLanes() {
+		return readLanes;
+	}
+	/** @return number of read lanes holding an open connection */
+	public int getConnectedReadLanes() {
+		return connectedReadLanes;
+	}
+	/** @return number of read lanes not currently in use */
+	public int getIdleReadLanes() {
+		return idleReadLanes;
+	}
+	
+	/** @return number of reads run */
+	public long getReads() {
+		return reads;
+	}
+	/** @return number of writes run */
+	public long getWrites() {
+		return writes;
+	}
+	/** @return number of reads which had to wait for a free lane */
+	public long getReadWaits() {
+		return readWaits;
+	}
+	/** @return total time in milliseconds spent waiting for read lanes */
+	public long getReadWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(readWaitNanos);
+	}
+	/** @return total time in milliseconds spent waiting for the write lane */
+	public long getWriteWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(writeWaitNanos);
+	}
+	
+	/** @return number of connections opened */
+	public long getOpens() {
+		return opens;
+	}
+	/** @return number of idle read lanes disconnected */
+	public long getEvictions() {
+		return evictions;
+	}
+	/** @return number of failed health checks */
+	public long getFailedHealthChecks() {
+		return failedHealthChecks;
+	}
+	
+	/** @return number of table lookups served by a cached table connection */
+	public long getTableHits() {
+		return tableHits;
+	}
+	/** @return number of table lookups requiring a new table connection */
+	public long getTableMisses() {
+		return tableMisses;
+	}
+	/** @return number of table connections evicted from lane caches */
+	public long getTableEvictions() {
+		return tableEvictions;
+	}
+	
+	@Override
+	public String toString() {
+		return "PoolMetrics [readLanes=" + readLanes + ", connectedReadLanes=" + connectedReadLanes + ", idleReadLanes=" + idleReadLanes
+				 + ", reads=" + reads + ", writes=" + writes + ", readWaits=" + readWaits + ", readWaitMillis=" + getReadWaitMillis() + ", writeWaitMillis=" + getWriteWaitMillis()
+				 + ", opens=" + opens + ", evictions=" + evictions + ", failedHealthChecks=" + failedHealthChecks
+				 + ", tableHits=" + tableHits + ", tableMisses=" + tableMisses + ", tableEvictions=" + tableEvictions + "]";
+	}
+}
@@ -0,0 +1,85 @@
+package dev.kkorolyov.sqlobviewer.connection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import dev.kkorolyov.sqlob.connection.TableConnection;
+
+/**
+ * A per-connection, least-recently-used cache of one table connection per table.
+ * Statements on a cached table are issued through the same table connection, so they skip its metadata lookup.
+ * Only table connections are reused; this cache keeps no prepared statements, so statements are still parsed and planned each time they are issued.
+ */
+public class TableCache {
+	private int capacity;
+	private Map<String, TableConnection> tables;
+	private long 	hits,
+								misses,
+								evictions;
+	
+	/**
+	 * Constructs a new table cache.
+	 * @param capacity maximum number of cached tables
+	 */
+	public TableCache(int capacity) {
+		this.capacity = Math.max(1, capacity);
+		
+		tables = new LinkedHashMap<String, TableConnection>(this.capacity, .75f, true) {
+			private static final long serialVersionUID = 1792862045011766047L;
+
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, TableConnection> eldest) {
+				boolean evict = size() > TableCache.this.capacity;
+				if (evict)
+					evictions++;
+				
+				return evict;
+			}
+		};
+	}
+	
+	/**
+	 * Returns the connection to a table, connecting a new one on a miss.
+	 * @param table name of table
+	 * @param connector connects to a table by name
+	 * @return connection to {@code table}
+	 */
+	public synchronized TableConnection get(String table, Function<String, TableConnection> connector) {
+		TableConnection tableConn = tables.get(table);
+		
+		if (tableConn != null) {
+			hits++;
+		} else {
+			misses++;
+			
+			tableConn = connector.apply(table);
+			if (tableConn != null)
+				tables.put(table, tableConn);
+		}
+		return tableConn;
+	}
+	
+	/** @param table name of table whose connection to discard */
+	public synchronized void invalidate(String table) {
+		tables.remove(table);
+	}
+	/** Discards all cached table connections. */
+	public synchronized void clear() {
+		tables.clear();
+	}
+	
+	/** @return number of lookups served by a cached table connection */
+	public synchronized long getHits() {
+		return hits;
+	}
+	/** @return number of lookups requiring a new table connection */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	/** @return number of table connections evicted to stay within capacity */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+}
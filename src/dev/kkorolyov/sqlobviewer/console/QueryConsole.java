@@ -0,0 +1,239 @@
+package dev.kkorolyov.sqlobviewer.console;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.MismatchedTypeException;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionPool;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Runs ad-hoc SQL over a dedicated connection, streaming returned rows in batches as they are fetched.
+ * Each statement runs in its own transaction, committed once all rows are fetched, so drivers which only stream results within a transaction fetch rows by the fetch size rather than all at once.
+ * One statement runs at a time; a running statement may be canceled from any thread.
+ */
+public class QueryConsole implements AutoCloseable {
+	private static final Log log = Log.get(QueryConsole.class);
+
+	private final ConnectionPool pool;
+	private Connection connection;
+	private volatile Statement running;
+	private volatile boolean canceled,
+													 closed;
+
+	/**
+	 * Constructs a new console.
+	 * @param pool pool opening the console's connection on first use
+	 */
+	public QueryConsole(ConnectionPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Executes a single statement, blocking until all of its rows are fetched, the row limit is reached, or it is canceled.
+	 * @param sql statement to execute
+	 * @param fetchSize number of rows fetched from the database, and passed to {@code listener}, at a time
+	 * @param maxRows maximum number of rows fetched, or {@code 0} for no limit
+	 * @param listener receives returned columns and rows
+	 * @return execution result
+	 * @throws SQLException if a database error occurs; the statement is rolled back
+	 */
+	public synchronized QueryResult execute(String sql, int fetchSize, int maxRows, QueryListener listener) throws SQLException {
+		long start = System.nanoTime(),
+				 executeNanos = -1,
+				 rows = 0,
+				 bytes = 0;
+		int batchSize = Math.max(1, fetchSize),
+				updateCount = -1;
+		boolean truncated = false;
+
+		canceled = false;
+		Connection connection = getConnection();
+		try (Statement statement = connection.createStatement()) {
+			statement.setFetchSize(batchSize);
+			if (maxRows > 0 && maxRows < Integer.MAX_VALUE)
+				statement.setMaxRows(maxRows + 1);	// One extra row tells if the limit truncated the results
+
+			running = statement;
+			boolean hasRows = statement.execute(sql);
+			executeNanos = System.nanoTime() - start;
+
+			if (hasRows) {
+				try (ResultSet results = statement.getResultSet()) {
+					Column[] columns = getColumns(results.getMetaData());
+					listener.columns(columns);
+
+					List<RowEntry[]> batch = new ArrayList<>(batchSize);
+					while (!canceled && results.next()) {
+						if (maxRows > 0 && rows >= maxRows) {
+							truncated = true;
+							break;
+						}
+						RowEntry[] row = getRow(results, columns);
+						batch.add(row);
+						rows++;
+						bytes += Metrics.estimateBytes(row);
+
+						if (batch.size() >= batchSize) {
+							listener.rows(batch.toArray(new RowEntry[batch.size()][]));
+							batch.clear();
+						}
+					}
+					if (!batch.isEmpty())
+						listener.rows(batch.toArray(new RowEntry[batch.size()][]));
+				}
+			} else {
+				updateCount = statement.getUpdateCount();
+			}
+			if (canceled)
+				connection.rollback();
+			else
+				connection.commit();
+		} catch (SQLException e) {
+			rollback(connection);
+
+			if (!canceled)
+				throw e;
+
+			log.debug(() -> "Canceled statement failed as expected: " + e.getMessage());
+		} finally {
+			running = null;
+		}
+		Metrics.record(Metrics.CONSOLE, start, rows, bytes);
+
+		QueryResult result = new QueryResult(rows, updateCount, executeNanos, System.nanoTime() - start, truncated, canceled);
+		log.info(() -> "Executed in " + result.getTotalNanos() / 1000000 + "ms (" + (result.hasRows() ? result.getRows() + " rows" : result.getUpdateCount() + " updated") + (result.isCanceled() ? ", canceled" : "") + "): " + sql);
+
+		return result;
+	}
+	private Connection getConnection() throws SQLException {
+		if (closed)
+			throw new SQLException("Console is closed");
+
+		if (connection == null || connection.isClosed()) {
+			connection = pool.openBulkConnection();
+			connection.setAutoCommit(false);
+
+			log.debug("Opened console connection");
+		}
+		return connection;
+	}
+	private static void rollback(Connection connection) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			log.exception(e, Level.WARNING);
+		}
+	}
+
+	private static Column[] getColumns(ResultSetMetaData metaData) throws SQLException {
+		Column[] columns = new Column[metaData.getColumnCount()];
+
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = new Column(metaData.getColumnLabel(i + 1), getType(metaData.getColumnType(i + 1)));
+
+		return columns;
+	}
+	/** @return type whose values a JDBC type is read as; types without a matching type are read as text */
+	private static SqlType getType(int jdbcType) {
+		switch (jdbcType) {
+			case Types.BOOLEAN:
+			case Types.BIT:
+				return SqlType.BOOLEAN;
+			case Types.TINYINT:
+			case Types.SMALLINT:
+				return SqlType.SMALLINT;
+			case Types.INTEGER:
+				return SqlType.INTEGER;
+			case Types.BIGINT:
+				return SqlType.BIGINT;
+			case Types.REAL:
+				return SqlType.REAL;
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return SqlType.DOUBLE;
+			default:
+				return SqlType.VARCHAR;
+		}
+	}
+	private static RowEntry[] getRow(ResultSet results, Column[] columns) throws SQLException {
+		RowEntry[] row = new RowEntry[columns.length];
+
+		for (int i = 0; i < row.length; i++) {
+			Object value = getValue(results, i + 1, columns[i].getType());
+			try {
+				row[i] = new RowEntry(columns[i], results.wasNull() ? null : value);
+			} catch (MismatchedTypeException e) {
+				throw new IllegalStateException("Read a mismatched value for " + columns[i].getName(), e);
+			}
+		}
+		return row;
+	}
+	private static Object getValue(ResultSet results, int index, SqlType type) throws SQLException {
+		switch (type) {
+			case BOOLEAN:
+				return results.getBoolean(index);
+			case SMALLINT:
+				return results.getShort(index);
+			case INTEGER:
+				return results.getInt(index);
+			case BIGINT:
+				return results.getLong(index);
+			case REAL:
+				return results.getFloat(index);
+			case DOUBLE:
+				return results.getDouble(index);
+			default:
+				return results.getString(index);
+		}
+	}
+
+	/**
+	 * Cancels the running statement, if any.
+	 * Rows fetched before the cancel are kept by the listener, and the statement is rolled back.
+	 * May be invoked from any thread, and may block while the database is contacted.
+	 */
+	public void cancel() {
+		canceled = true;
+
+		Statement statement = running;
+		if (statement != null) {
+			try {
+				statement.cancel();
+			} catch (SQLException e) {
+				log.exception(e, Level.WARNING);	// Still stops at the next fetched row
+			}
+		}
+	}
+
+	/**
+	 * Cancels any running statement and closes this console's connection.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		cancel();
+
+		synchronized (this) {	// Waits for a canceled statement to roll back
+			if (connection != null) {
+				try {
+					connection.close();
+				} catch (SQLException e) {
+					log.exception(e, Level.WARNING);
+				}
+				connection = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package dev.kkorolyov.sqlobviewer.console;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+
+/**
+ * Receives the results of a query as they are fetched.
+ */
+public interface QueryListener {
+	/**
+	 * Invoked once on the querying thread before any rows, if the statement returns rows.
+	 * @param columns columns of the returned rows
+	 */
+	void columns(Column[] columns);
+	/**
+	 * Invoked on the querying thread after each batch of fetched rows.
+	 * @param rows next batch of rows, in order
+	 */
+	void rows(RowEntry[][] rows);
+}
@@ -0,0 +1,53 @@
+package dev.kkorolyov.sqlobviewer.console;
+
+/**
+ * The outcome and timing of a single console execution.
+ */
+public final class QueryResult {
+	private final long rows,
+										 executeNanos,
+										 totalNanos;
+	private final int updateCount;
+	private final boolean truncated,
+												canceled;
+
+	QueryResult(long rows, int updateCount, long executeNanos, long totalNanos, boolean truncated, boolean canceled) {
+		this.rows = rows;
+		this.updateCount = updateCount;
+		this.executeNanos = executeNanos;
+		this.totalNanos = totalNanos;
+		this.truncated = truncated;
+		this.canceled = canceled;
+	}
+
+	/** @return {@code true} if the statement returned rows rather than an update count */
+	public boolean hasRows() {
+		return updateCount < 0;
+	}
+	/** @return number of rows fetched */
+	public long getRows() {
+		return rows;
+	}
+	/** @return number of rows affected, or {@code -1} if the statement returned rows */
+	public int getUpdateCount() {
+		return updateCount;
+	}
+
+	/** @return nanoseconds until the statement executed and its first rows were available */
+	public long getExecuteNanos() {
+		return executeNanos;
+	}
+	/** @return nanoseconds until all rows were fetched and the statement committed */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/** @return {@code true} if more rows were available past the row limit */
+	public boolean isTruncated() {
+		return truncated;
+	}
+	/** @return {@code true} if the statement was canceled and rolled back */
+	public boolean isCanceled() {
+		return canceled;
+	}
+}
@@ -0,0 +1,188 @@
+package dev.kkorolyov.sqlobviewer.export;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+
+/**
+ * A text format rows may be exported in.
+ * Every format writes one row per {@code '\n'}-terminated line.
+ */
+public enum ExportFormat {
+	/** Comma-separated values, quoted as per RFC 4180, with a header line of column names; {@code null} is an empty field, and an empty string is {@code ""} */
+	CSV("csv") {
+		@Override
+		public void appendHeader(Column[] columns, StringBuilder line) {
+			for (int i = 0; i < columns.length; i++) {
+				if (i > 0)
+					line.append(',');
+				appendQuoted(columns[i].getName(), line);
+			}
+			line.append('\n');
+		}
+		@Override
+		public void appendRow(RowEntry[] row, StringBuilder line) {
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0)
+					line.append(',');
+
+				Object value = row[i].getValue();
+				if (value != null)
+					appendQuoted(value.toString(), line);
+			}
+			line.append('\n');
+		}
+
+		private void appendQuoted(String value, StringBuilder line) {
+			boolean quote = value.isEmpty();	// Distinguishes an empty string from null
+			for (int i = 0; i < value.length() && !quote; i++) {
+				char c = value.charAt(i);
+				quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+			}
+			if (!quote) {
+				line.append(value);
+				return;
+			}
+			line.append('"');
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c == '"')
+					line.append('"');
+				line.append(c);
+			}
+			line.append('"');
+		}
+	},
+	/** Tab-separated values, with tabs, line breaks, and backslashes escaped, and a header line of column names */
+	TSV("tsv") {
+		@Override
+		public void appendHeader(Column[] columns, StringBuilder line) {
+			for (int i = 0; i < columns.length; i++) {
+				if (i > 0)
+					line.append('\t');
+				appendEscaped(columns[i].getName(), line);
+			}
+			line.append('\n');
+		}
+		@Override
+		public void appendRow(RowEntry[] row, StringBuilder line) {
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0)
+					line.append('\t');
+
+				Object value = row[i].getValue();
+				if (value != null)
+					appendEscaped(value.toString(), line);
+			}
+			line.append('\n');
+		}
+
+		private void appendEscaped(String value, StringBuilder line) {
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+					case '\t':
+						line.append("\\t");
+						break;
+					case '\n':
+						line.append("\\n");
+						break;
+					case '\r':
+						line.append("\\r");
+						break;
+					case '\\':
+						line.append("\\\\");
+						break;
+					default:
+						line.append(c);
+				}
+			}
+		}
+	},
+	/** Newline-delimited JSON, one object of column names to values per row */
+	NDJSON("ndjson") {
+		@Override
+		public void appendHeader(Column[] columns, StringBuilder line) {
+			// Column names are repeated in each row
+		}
+		@Override
+		public void appendRow(RowEntry[] row, StringBuilder line) {
+			line.append('{');
+			for (int i = 0; i < row.length; i++) {
+				if (i > 0)
+					line.append(',');
+
+				appendString(row[i].getColumn().getName(), line);
+				line.append(':');
+
+				Object value = row[i].getValue();
+				if (value == null)
+					line.append("null");
+				else if (value instanceof Boolean || isFinite(value))
+					line.append(value);
+				else
+					appendString(value.toString(), line);
+			}
+			line.append("}\n");
+		}
+
+		private boolean isFinite(Object value) {
+			if (value instanceof Double || value instanceof Float)
+				return !Double.isNaN(((Number) value).doubleValue()) && !Double.isInfinite(((Number) value).doubleValue());
+
+			return value instanceof Number;
+		}
+		private void appendString(String value, StringBuilder line) {
+			line.append('"');
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				switch (c) {
+					case '"':
+						line.append("\\\"");
+						break;
+					case '\\':
+						line.append("\\\\");
+						break;
+					case '\n':
+						line.append("\\n");
+						break;
+					case '\r':
+						line.append("\\r");
+						break;
+					case '\t':
+						line.append("\\t");
+						break;
+					default:
+						if (c < 0x20)
+							line.append(String.format("\\u%04x", (int) c));
+						else
+							line.append(c);
+				}
+			}
+			line.append('"');
+		}
+	};
+
+	private final String extension;
+
+	private ExportFormat(String extension) {
+		this.extension = extension;
+	}
+
+	/** @return file extension of this format, without a leading {@code '.'} */
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Appends the header line of this format, if any.
+	 * @param columns exported columns
+	 * @param line builder to append to
+	 */
+	public abstract void appendHeader(Column[] columns, StringBuilder line);
+	/**
+	 * Appends a row as a single line.
+	 * @param row row to append
+	 * @param line builder to append to
+	 */
+	public abstract void appendRow(RowEntry[] row, StringBuilder line);
+}
@@ -0,0 +1,15 @@
+package dev.kkorolyov.sqlobviewer.export;
+
+/**
+ * Receives progress of an export and may cancel it.
+ */
+public interface ExportProgress {
+	/**
+	 * Invoked periodically on the exporting thread.
+	 * @param rows number of rows exported so far
+	 */
+	void exported(long rows);
+
+	/** @return {@code true} if the export should stop */
+	boolean isCanceled();
+}
@@ -0,0 +1,173 @@
+package dev.kkorolyov.sqlobviewer.export;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Streams rows to a file as UTF-8 text.
+ * Each row is encoded as it is read into a direct buffer which is written to the file whenever full, so memory use does not grow with the number of rows.
+ * Direct buffers are pooled and reused across exports.
+ */
+public class Exporter {
+	private static final Log log = Log.get(Exporter.class);
+
+	private static final int PROGRESS_INTERVAL = 4096;	// Rows
+	private static final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+	private final ExportFormat format;
+	private final int bufferSize;
+
+	/**
+	 * Constructs a new exporter.
+	 * @param format format to export in
+	 * @param bufferSize bytes buffered between writes to the file
+	 */
+	public Exporter(ExportFormat format, int bufferSize) {
+		this.format = format;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Exports rows to a file, replacing any existing content.
+	 * If the export fails or is canceled, the partially-written file is deleted.
+	 * @param columns columns of exported rows
+	 * @param rows supplies each row to export in order, then {@code null}
+	 * @param file file to export to
+	 * @param progress receives progress and may cancel the export
+	 * @return number of rows exported
+	 * @throws IOException if an I/O error occurs
+	 * @throws CancellationException if the export is canceled
+	 */
+	public long export(Column[] columns, Supplier<RowEntry[]> rows, File file, ExportProgress progress) throws IOException {
+		long start = System.nanoTime();
+
+		ByteBuffer buffer = acquireBuffer();
+		boolean completed = false;
+		long count = 0,
+				 bytes = 0;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), CREATE, TRUNCATE_EXISTING, WRITE)) {
+			LineEncoder encoder = new LineEncoder(channel, buffer);
+			StringBuilder line = new StringBuilder();
+
+			format.appendHeader(columns, line);
+			encoder.write(line);
+
+			RowEntry[] row;
+			while ((row = rows.get()) != null) {
+				line.setLength(0);
+				format.appendRow(row, line);
+				encoder.write(line);
+
+				if (++count % PROGRESS_INTERVAL == 0) {
+					if (progress.isCanceled())
+						throw new CancellationException("Export to " + file + " canceled after " + count + " rows");
+
+					progress.exported(count);
+				}
+			}
+			bytes = encoder.finish();
+			progress.exported(count);
+
+			completed = true;
+		} finally {
+			buffers.offer(buffer);
+
+			if (!completed)
+				Files.deleteIfExists(file.toPath());
+		}
+		Metrics.record(Metrics.EXPORT, start, count, bytes);
+
+		long exported = count, written = bytes;
+		log.info(() -> "Exported " + exported + " rows (" + written + " bytes) as " + format + " to " + file);
+
+		return count;
+	}
+
+	private ByteBuffer acquireBuffer() {
+		ByteBuffer buffer;
+		while ((buffer = buffers.poll()) != null) {
+			if (buffer.capacity() == bufferSize) {
+				buffer.clear();
+				return buffer;
+			}
+		}
+		return ByteBuffer.allocateDirect(bufferSize);	// Mismatched buffers are left for collection
+	}
+
+	/** Encodes lines into a byte buffer, draining it to a channel whenever full. */
+	private static class LineEncoder {
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+																																 .onMalformedInput(CodingErrorAction.REPLACE)
+																																 .onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private char[] chars = new char[256];
+		private CharBuffer charBuffer = CharBuffer.wrap(chars);
+		private long written;
+
+		LineEncoder(FileChannel channel, ByteBuffer buffer) {
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+
+		void write(StringBuilder line) throws IOException {
+			int length = line.length();
+			if (length > chars.length) {
+				chars = new char[Math.max(length, chars.length * 2)];
+				charBuffer = CharBuffer.wrap(chars);
+			}
+			line.getChars(0, length, chars, 0);
+			charBuffer.clear().limit(length);
+
+			encode(false);
+		}
+		/** @return total bytes written */
+		long finish() throws IOException {
+			charBuffer.clear().limit(0);
+			encode(true);
+
+			while (encoder.flush(buffer).isOverflow())
+				drain();
+			drain();
+
+			return written;
+		}
+
+		private void encode(boolean endOfInput) throws IOException {
+			CoderResult result;
+			while ((result = encoder.encode(charBuffer, buffer, endOfInput)).isOverflow())
+				drain();
+
+			if (result.isError())
+				result.throwException();
+		}
+		private void drain() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				written += channel.write(buffer);
+			buffer.clear();
+		}
+	}
+}
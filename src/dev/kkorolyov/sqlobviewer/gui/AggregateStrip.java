@@ -0,0 +1,258 @@
+package dev.kkorolyov.sqlobviewer.gui;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
+
+import java.text.NumberFormat;
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.aggregate.BlockAggregator;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnAggregate;
+import dev.kkorolyov.sqlobviewer.aggregate.ServerAggregates;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTable;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.model.DatabaseModel;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Displays aggregates of the selected columns of a table over its displayed rows.
+ * Aggregates are computed in the background, in parallel, and recomputed only for blocks of rows changed since the last computation.
+ * While the table is still loading and not filtered, aggregates are queried from the database instead.
+ */
+public class AggregateStrip implements Screen {
+	private static final Log log = Log.get(AggregateStrip.class);
+	private static final int REFRESH_DELAY = 100;	// Coalesces bursts of edits and selection changes
+
+	private DatabaseModel dbModel;
+	private SQLObTable table;
+	private SQLObTableModel model;
+	private TableModelListener modelListener = this::modelChanged;
+	private ChangeListener dataListener = e -> refreshLater();
+
+	private BlockAggregator aggregator;
+	private BitSet dirtyBlocks = new BitSet();
+	private SwingWorker<ColumnAggregate[], Void> worker;
+	private Timer refreshTimer;
+
+	private JPanel panel;
+	private JLabel aggregates;
+
+	/**
+	 * Constructs a new aggregate strip.
+	 * @param dbModel database model queried for tables still loading
+	 */
+	public AggregateStrip(DatabaseModel dbModel) {
+		this.dbModel = dbModel;
+
+		panel = new JPanel(new MigLayout("insets 0"));
+		aggregates = new JLabel();
+		aggregates.setToolTipText(Lang.get(MESSAGE_TIP_AGGREGATES));
+		panel.add(aggregates, "wmin 0");
+
+		refreshTimer = new Timer(REFRESH_DELAY, e -> refresh());
+		refreshTimer.setRepeats(false);
+	}
+
+	/**
+	 * Sets the table to aggregate and schedules recomputing aggregates, e.g. after its selection or filters change.
+	 * @param newTable table to aggregate the selected columns and displayed rows of
+	 */
+	public void setTable(SQLObTable newTable) {
+		table = newTable;
+		refreshLater();
+	}
+	private void refreshLater() {
+		refreshTimer.restart();
+	}
+
+	private void modelChanged(TableModelEvent e) {
+		if (e.getType() == TableModelEvent.UPDATE && e.getFirstRow() >= 0 && e.getLastRow() < Integer.MAX_VALUE) {	// Values replaced in place
+			dirtyBlocks.set(BlockAggregator.blockOf(e.getFirstRow()), BlockAggregator.blockOf(e.getLastRow()) + 1);
+		}	// Inserted and deleted rows change the rows snapshot, which is compared block by block
+		refreshLater();
+	}
+
+	private void refresh() {
+		cancel();
+
+		if (table == null || !(table.getModel() instanceof SQLObTableModel)) {
+			aggregates.setText(null);
+			return;
+		}
+		bindModel((SQLObTableModel) table.getModel());
+
+		int[] columns = getSelectedColumns();
+		if (columns.length <= 0) {
+			aggregates.setText(null);
+			return;
+		}
+		Column[] selected = new Column[columns.length];
+		boolean[] numeric = new boolean[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			selected[i] = model.getColumn(columns[i]);
+			numeric[i] = ServerAggregates.isNumeric(selected[i]);
+		}
+		RowEntry[][] rows = model.getRows();
+		BitSet included = getIncludedRows(rows.length);
+		String loadingTable = dbModel.isLoading() ? dbModel.getTable() : null;
+
+		if (loadingTable != null && included == null)
+			worker = new AggregateWorker(selected, Lang.get(MESSAGE_AGGREGATE_DATABASE), () -> dbModel.aggregateTable(loadingTable, selected));
+		else {
+			BlockAggregator current = new BlockAggregator(rows, included, columns, numeric, aggregator, dirtyBlocks);
+			worker = new AggregateWorker(selected, loadingTable != null ? Lang.get(MESSAGE_AGGREGATE_LOADED) : null, () -> current.compute(ForkJoinPool.commonPool()));
+
+			aggregator = current;
+			dirtyBlocks = new BitSet();
+		}
+		aggregates.setText(Lang.get(MESSAGE_AGGREGATING));
+		worker.execute();
+	}
+	private void cancel() {
+		if (worker != null && !worker.isDone())
+			worker.cancel(false);
+		if (aggregator != null)
+			aggregator.cancel();
+	}
+
+	private void bindModel(SQLObTableModel newModel) {
+		if (newModel == model)
+			return;
+
+		unbindModel();
+		model = newModel;
+		model.addTableModelListener(modelListener);
+		model.addChangeListener(dataListener);
+
+		aggregator = null;	// Blocks of another model are never reused
+	}
+	private void unbindModel() {
+		if (model != null) {
+			model.removeTableModelListener(modelListener);
+			model.removeChangeListener(dataListener);
+			model = null;
+		}
+	}
+
+	/** @return model indices of the selected columns, in display order */
+	private int[] getSelectedColumns() {
+		int[] columns = table.getSelectedColumns();
+
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = table.convertColumnIndexToModel(columns[i]);
+
+		return columns;
+	}
+	/** @return model indices of the displayed rows, or {@code null} if every row is displayed */
+	private BitSet getIncludedRows(int rows) {
+		int displayed = table.getRowCount();
+		if (displayed >= rows)
+			return null;
+
+		BitSet included = new BitSet(rows);
+		for (int i = 0; i < displayed; i++)
+			included.set(table.convertRowIndexToModel(i));
+
+		return included;
+	}
+
+	private String describe(Column[] columns, ColumnAggregate[] results, String source) {
+		NumberFormat format = NumberFormat.getNumberInstance();
+		StringBuilder description = new StringBuilder();
+
+		for (int i = 0; i < columns.length; i++) {
+			ColumnAggregate result = results[i];
+
+			if (i > 0)
+				description.append("  |  ");
+			description.append(columns[i].getName()).append(": ")
+								 .append(Lang.get(MESSAGE_AGGREGATE_COUNT)).append(' ').append(format.format(result.getCount())).append(", ")
+								 .append(Lang.get(MESSAGE_AGGREGATE_NULLS)).append(' ').append(format.format(result.getNulls()));
+
+			if (result.getSum() != null) {
+				description.append(", ").append(Lang.get(MESSAGE_AGGREGATE_SUM)).append(' ').append(format.format(result.getSum()))
+									 .append(", ").append(Lang.get(MESSAGE_AGGREGATE_AVERAGE)).append(' ').append(format.format(result.getAverage()));
+			}
+			if (result.getMin() != null) {
+				description.append(", ").append(Lang.get(MESSAGE_AGGREGATE_MIN)).append(' ').append(formatValue(format, result.getMin()))
+									 .append(", ").append(Lang.get(MESSAGE_AGGREGATE_MAX)).append(' ').append(formatValue(format, result.getMax()));
+			}
+		}
+		if (source != null)
+			description.append("  (").append(source).append(')');
+
+		return description.toString();
+	}
+	private static String formatValue(NumberFormat format, Object value) {
+		return (value instanceof Number) ? format.format(value) : value.toString();
+	}
+
+	@Override
+	public boolean focusDefaultComponent() {
+		return false;
+	}
+	@Override
+	public JPanel getPanel() {
+		return panel;
+	}
+
+	/**
+	 * Stops any running computation and detaches from the current table's model.
+	 */
+	public void clearListeners() {
+		refreshTimer.stop();
+		cancel();
+		unbindModel();
+		table = null;
+	}
+
+	@FunctionalInterface
+	private interface AggregateTask {
+		ColumnAggregate[] compute() throws Exception;
+	}
+	private class AggregateWorker extends SwingWorker<ColumnAggregate[], Void> {
+		private final Column[] columns;
+		private final String source;
+		private final AggregateTask task;
+
+		AggregateWorker(Column[] columns, String source, AggregateTask task) {
+			this.columns = columns;
+			this.source = source;
+			this.task = task;
+		}
+
+		@Override
+		protected ColumnAggregate[] doInBackground() throws Exception {
+			return task.compute();
+		}
+		@SuppressWarnings("synthetic-access")
+		@Override
+		protected void done() {
+			if (isCancelled())
+				return;
+
+			try {
+				ColumnAggregate[] results = get();
+				aggregates.setText(results != null ? describe(columns, results, source) : null);
+			} catch (ExecutionException e) {
+				log.exception(e);
+				aggregates.setText(null);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
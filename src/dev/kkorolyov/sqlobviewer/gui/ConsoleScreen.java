@@ -0,0 +1,192 @@
+package dev.kkorolyov.sqlobviewer.gui;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.*;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.console.QueryConsole;
+import dev.kkorolyov.sqlobviewer.console.QueryListener;
+import dev.kkorolyov.sqlobviewer.console.QueryResult;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTable;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Runs ad-hoc SQL and displays its results in a read-only table as they are fetched.
+ * Each execution's row count and timing are shown once it completes.
+ */
+public class ConsoleScreen implements Screen, AutoCloseable {
+	private static final Log log = Log.get(ConsoleScreen.class);
+
+	private QueryConsole console;
+	private SwingWorker<QueryResult, RowEntry[][]> runner;
+
+	private JPanel panel;
+	private JTextArea sqlText;
+	private JButton runButton,
+									stopButton;
+	private JLabel status;
+	private SQLObTableModel resultsModel;
+	private SQLObTable resultsTable;
+
+	/**
+	 * Constructs a new console screen.
+	 * @param console console to run statements on, closed along with this screen
+	 */
+	public ConsoleScreen(QueryConsole console) {
+		this.console = console;
+
+		initComponents();
+		buildComponents();
+	}
+	@SuppressWarnings("serial")
+	private void initComponents() {
+		panel = new JPanel(new MigLayout("insets 4px, gap 4px, wrap 3", "[fill][fill][fill, grow]", "[fill][][fill, grow]"));
+
+		sqlText = new JTextArea(6, 60);
+		sqlText.setToolTipText(Lang.get(MESSAGE_TIP_CONSOLE));
+		sqlText.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, InputEvent.CTRL_DOWN_MASK), ACTION_RUN);
+		sqlText.getActionMap().put(ACTION_RUN, new AbstractAction() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				run();
+			}
+		});
+		runButton = new JButton(Lang.get(ACTION_RUN));
+		runButton.setToolTipText(Lang.get(ACTION_TIP_RUN));
+		runButton.addActionListener(e -> run());
+
+		stopButton = new JButton(Lang.get(ACTION_STOP));
+		stopButton.addActionListener(e -> stop());
+
+		status = new JLabel();
+
+		resultsModel = new SQLObTableModel(new Column[0], new RowEntry[0][], false);
+		resultsTable = new SQLObTable(resultsModel);
+
+		syncRunning(false);
+	}
+	private void buildComponents() {
+		panel.add(new JScrollPane(sqlText), "span");
+		panel.add(runButton, "grow 0");
+		panel.add(stopButton, "grow 0");
+		panel.add(status, "wmin 0");
+		panel.add(resultsTable.getScrollPane(), "span");
+	}
+
+	private void run() {
+		String sql = sqlText.getText().trim();
+		if (sql.isEmpty() || (runner != null && !runner.isDone()))
+			return;
+
+		int fetchSize = Config.getInt(CONSOLE_FETCH_SIZE),
+				maxRows = Config.getInt(CONSOLE_MAX_ROWS);
+
+		resultsModel.setData(new Column[0], new RowEntry[0][]);
+		status.setText(Lang.get(MESSAGE_RUNNING));
+		syncRunning(true);
+
+		runner = new SwingWorker<QueryResult, RowEntry[][]>() {
+			@Override
+			protected QueryResult doInBackground() throws Exception {
+				return console.execute(sql, fetchSize, maxRows, new QueryListener() {
+					@SuppressWarnings("synthetic-access")
+					@Override
+					public void columns(Column[] columns) {
+						SwingUtilities.invokeLater(() -> resultsModel.setData(columns, new RowEntry[0][]));	// Queued ahead of any published rows
+					}
+					@Override
+					public void rows(RowEntry[][] rows) {
+						publish(rows);
+					}
+				});
+			}
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected void process(List<RowEntry[][]> chunks) {
+				for (RowEntry[][] rows : chunks)
+					resultsModel.appendRows(rows);
+
+				status.setText(Lang.get(MESSAGE_RUNNING) + " " + resultsModel.getRowCount() + " " + Lang.get(MESSAGE_ROWS_FETCHED));
+			}
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected void done() {
+				syncRunning(false);
+				try {
+					status.setText(describe(get()));
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+
+					log.exception(e);
+					status.setText(null);
+					JOptionPane.showMessageDialog(panel, cause.getMessage() != null ? cause.getMessage() : cause.toString(), Lang.get(TITLE_EXCEPTION), JOptionPane.WARNING_MESSAGE);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		runner.execute();
+	}
+	private void stop() {
+		stopButton.setEnabled(false);
+
+		CompletableFuture.runAsync(console::cancel);	// Cancelling may contact the database
+	}
+	private void syncRunning(boolean running) {
+		runButton.setEnabled(!running);
+		stopButton.setEnabled(running);
+	}
+
+	private static String describe(QueryResult result) {
+		StringBuilder description = new StringBuilder();
+
+		if (result.hasRows())
+			description.append(result.getRows()).append(' ').append(Lang.get(MESSAGE_ROWS_FETCHED));
+		else
+			description.append(result.getUpdateCount()).append(' ').append(Lang.get(MESSAGE_ROWS_AFFECTED));
+
+		description.append(" - ").append(formatMillis(result.getTotalNanos()));
+		if (result.hasRows() && result.getExecuteNanos() >= 0)
+			description.append(" (").append(Lang.get(MESSAGE_FIRST_ROWS)).append(' ').append(formatMillis(result.getExecuteNanos())).append(')');
+
+		if (result.isTruncated())
+			description.append(", ").append(Lang.get(MESSAGE_ROW_LIMIT));
+		if (result.isCanceled())
+			description.append(", ").append(Lang.get(MESSAGE_CANCELED));
+
+		return description.toString();
+	}
+	private static String formatMillis(long nanos) {
+		return String.format("%.3f ms", nanos / 1e6);
+	}
+
+	@Override
+	public boolean focusDefaultComponent() {
+		return sqlText.requestFocusInWindow();
+	}
+	@Override
+	public JPanel getPanel() {
+		return panel;
+	}
+
+	/**
+	 * Stops any running statement and closes this screen's console in the background.
+	 */
+	@Override
+	public void close() {
+		CompletableFuture.runAsync(console::close);	// Waits for a running statement to roll back
+	}
+}
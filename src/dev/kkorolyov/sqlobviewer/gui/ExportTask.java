@@ -0,0 +1,157 @@
+package dev.kkorolyov.sqlobviewer.gui;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
+
+import java.awt.Component;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.export.ExportProgress;
+import dev.kkorolyov.sqlobviewer.gui.table.SQLObTable;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * Runs an export in the background while showing its progress, which may be canceled.
+ */
+class ExportTask extends SwingWorker<Long, Long> {
+	private static final Log log = Log.get(ExportTask.class);
+
+	private static final int VIEW_CHUNK_ROWS = 1024;
+
+	private final Component parent;
+	private final File file;
+	private final Export export;
+	private final ProgressMonitor monitor;
+
+	/**
+	 * Constructs a new export task.
+	 * Must be invoked on the event dispatch thread.
+	 * @param parent component to show progress over
+	 * @param file file exported to
+	 * @param estimatedRows expected number of exported rows
+	 * @param export export to run
+	 */
+	ExportTask(Component parent, File file, int estimatedRows, Export export) {
+		this.parent = parent;
+		this.file = file;
+		this.export = export;
+
+		monitor = new ProgressMonitor(parent, Lang.get(MESSAGE_EXPORTING) + " " + file.getName(), "", 0, Math.max(1, estimatedRows));
+		monitor.setMillisToDecideToPopup(0);
+		monitor.setMillisToPopup(250);
+	}
+
+	@Override
+	protected Long doInBackground() throws IOException {
+		return export.run(new ExportProgress() {
+			@Override
+			public void exported(long rows) {
+				publish(rows);
+			}
+			@Override
+			public boolean isCanceled() {
+				return isCancelled();
+			}
+		});
+	}
+
+	@Override
+	protected void process(List<Long> chunks) {
+		if (monitor.isCanceled()) {
+			cancel(false);	// Export stops at its next progress report
+			return;
+		}
+		long rows = chunks.get(chunks.size() - 1);
+
+		monitor.setMaximum((int) Math.max(monitor.getMaximum(), Math.min(rows + 1, Integer.MAX_VALUE)));	// Estimate may be short
+		monitor.setProgress((int) Math.min(rows, Integer.MAX_VALUE));
+		monitor.setNote(rows + " " + Lang.get(MESSAGE_ROWS_EXPORTED));
+	}
+
+	@Override
+	protected void done() {
+		monitor.close();
+
+		if (isCancelled()) {
+			log.info(() -> "Canceled export to " + file);
+			return;
+		}
+		try {
+			get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			log.exception(e);
+			JOptionPane.showMessageDialog(parent, cause.getMessage() != null ? cause.getMessage() : cause.toString(), Lang.get(TITLE_EXCEPTION), JOptionPane.WARNING_MESSAGE);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns a supplier of the rows of a table in view order, e.g. filtered and sorted.
+	 * Rows are read a chunk at a time on the event dispatch thread, so the supplier may be used from any other thread.
+	 * @param table table to read
+	 * @return supplier of each row of {@code table}, then {@code null}
+	 */
+	static Supplier<RowEntry[]> viewRows(SQLObTable table) {
+		return new Supplier<RowEntry[]>() {
+			private RowEntry[][] chunk = new RowEntry[0][];
+			private int chunkIndex,
+									nextRow;
+
+			@Override
+			public RowEntry[] get() {
+				if (chunkIndex == chunk.length) {
+					chunk = readChunk(nextRow);
+					chunkIndex = 0;
+					nextRow += chunk.length;
+				}
+				return (chunkIndex < chunk.length) ? chunk[chunkIndex++] : null;
+			}
+
+			private RowEntry[][] readChunk(int start) {
+				RowEntry[][][] result = new RowEntry[1][][];
+				try {
+					SwingUtilities.invokeAndWait(() -> {
+						int end = Math.min(start + VIEW_CHUNK_ROWS, table.getRowCount());
+
+						result[0] = new RowEntry[Math.max(0, end - start)][];
+						for (int i = 0; i < result[0].length; i++)
+							result[0][i] = table.getRow(start + i);
+					});
+				} catch (InvocationTargetException e) {
+					throw new IllegalStateException(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(e);
+				}
+				return result[0];
+			}
+		};
+	}
+
+	/**
+	 * An export reporting its progress.
+	 */
+	@FunctionalInterface
+	interface Export {
+		/**
+		 * @param progress receives progress and may cancel the export
+		 * @return number of rows exported
+		 * @throws IOException if an I/O error occurs
+		 */
+		long run(ExportProgress progress) throws IOException;
+	}
+}
@@ -0,0 +1,288 @@
+package dev.kkorolyov.sqlobviewer.gui;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
+
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
+import dev.kkorolyov.sqlob.construct.statement.UpdateStatement;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestListener;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestSubject;
+import dev.kkorolyov.sqlobviewer.history.HistoryEntry;
+import dev.kkorolyov.sqlobviewer.history.HistoryIndex;
+import dev.kkorolyov.sqlobviewer.history.StatementHistory;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * A searchable view of a session's statement history.
+ * The history is indexed and filtered off the event dispatch thread.
+ */
+public class HistoryScreen implements Screen, SqlRequestSubject {
+	private static final Log log = Log.get(HistoryScreen.class);
+
+	private HistoryIndex index;
+	private SwingWorker<int[], Void> indexer;
+	private boolean refreshPending;
+
+	private JPanel panel;
+	private JComboBox<String> 	tableFilter,
+															typeFilter;
+	private boolean filtersEnabled = true;
+	private JTextField textFilter;
+	private HistoryTableModel entriesModel;
+	private JTable entriesTable;
+	private JButton revertButton;
+
+	private Set<SqlRequestListener> sqlRequestListeners = new CopyOnWriteArraySet<>();
+
+	/**
+	 * Constructs a new history screen.
+	 * @param history history to display
+	 */
+	public HistoryScreen(StatementHistory history) {
+		index = new HistoryIndex(history);
+
+		initComponents();
+		buildComponents();
+	}
+	private void initComponents() {
+		panel = new JPanel(new MigLayout("insets 4px, gap 4px, wrap 3", "[fill][fill][fill, grow]", "[][fill, grow][]"));
+
+		tableFilter = buildFilter(Lang.get(MESSAGE_HISTORY_TABLE));
+		typeFilter = buildFilter(Lang.get(MESSAGE_HISTORY_TYPE));
+
+		textFilter = new JTextField();
+		textFilter.setToolTipText(Lang.get(MESSAGE_TIP_HISTORY_FILTER));
+		textFilter.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				refresh();
+			}
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				refresh();
+			}
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				refresh();
+			}
+		});
+		entriesModel = new HistoryTableModel();
+		entriesTable = new JTable(entriesModel);
+		entriesTable.setFillsViewportHeight(true);
+		entriesTable.getSelectionModel().addListSelectionListener(e -> syncRevertButton());
+
+		revertButton = new JButton(Lang.get(ACTION_REVERT_SELECTED));
+		revertButton.addActionListener(e -> revertSelected());
+		syncRevertButton();
+	}
+	private JComboBox<String> buildFilter(String tooltip) {
+		JComboBox<String> filter = new JComboBox<>(new String[]{Lang.get(MESSAGE_HISTORY_ANY)});
+		filter.setToolTipText(tooltip);
+		filter.addActionListener(e -> {
+			if (filtersEnabled)
+				refresh();
+		});
+		return filter;
+	}
+	private void buildComponents() {
+		panel.add(tableFilter);
+		panel.add(typeFilter);
+		panel.add(textFilter);
+		panel.add(new JScrollPane(entriesTable), "span");
+		panel.add(revertButton, "span, center, grow 0");
+	}
+
+	/**
+	 * Indexes any new history entries and reapplies the current filters in the background.
+	 */
+	public void refresh() {
+		if (indexer != null && !indexer.isDone()) {
+			refreshPending = true;	// Coalesce with the running refresh
+			return;
+		}
+		String 	table = getFilterValue(tableFilter),
+						type = getFilterValue(typeFilter),
+						text = textFilter.getText();
+
+		indexer = new SwingWorker<int[], Void>() {
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected int[] doInBackground() throws Exception {
+				int added = index.update();
+				if (added > 0)
+					log.debug(() -> "Indexed " + added + " new history entries (total=" + index.size() + ")");
+
+				return index.filter(table, type, text);
+			}
+			@SuppressWarnings("synthetic-access")
+			@Override
+			protected void done() {
+				try {
+					entriesModel.setMatches(get());
+					syncFilters();
+				} catch (InterruptedException | ExecutionException e) {
+					log.exception(e, Level.WARNING);
+				}
+				if (refreshPending) {
+					refreshPending = false;
+					refresh();
+				}
+			}
+		};
+		indexer.execute();
+	}
+	private static String getFilterValue(JComboBox<String> filter) {
+		return filter.getSelectedIndex() > 0 ? (String) filter.getSelectedItem() : null;
+	}
+
+	private void syncFilters() {
+		filtersEnabled = false;
+
+		syncFilter(tableFilter, index.getTables());
+		syncFilter(typeFilter, index.getTypes());
+
+		filtersEnabled = true;
+	}
+	private static void syncFilter(JComboBox<String> filter, String[] values) {
+		if (filter.getItemCount() - 1 == values.length)
+			return;	// Indexed values only ever grow
+
+		Object selected = filter.getSelectedItem();
+
+		filter.removeAllItems();
+		filter.addItem(Lang.get(MESSAGE_HISTORY_ANY));
+		for (String value : values)
+			filter.addItem(value);
+
+		filter.setSelectedItem(selected);
+	}
+
+	private void syncRevertButton() {
+		revertButton.setEnabled(getSelectedStatements().length > 0);
+	}
+	private void revertSelected() {
+		StatementCommand[] statements = getSelectedStatements();
+
+		if (statements.length > 0)
+			fireRevertStatements(statements);
+	}
+	/** @return revertible statements of all selected entries, from newest to oldest */
+	private StatementCommand[] getSelectedStatements() {
+		List<StatementCommand> statements = new ArrayList<>();
+
+		for (int row : entriesTable.getSelectedRows()) {	// Rows are ordered newest to oldest
+			HistoryEntry entry = entriesModel.getEntry(entriesTable.convertRowIndexToModel(row));
+			StatementCommand statement = (entry != null) ? entry.getStatement() : null;
+
+			if (statement instanceof UpdateStatement)	// Spilled entries are text-only
+				statements.add(statement);
+		}
+		return statements.toArray(new StatementCommand[statements.size()]);
+	}
+
+	@Override
+	public boolean focusDefaultComponent() {
+		return textFilter.requestFocusInWindow();
+	}
+	@Override
+	public JPanel getPanel() {
+		return panel;
+	}
+
+	private void fireRevertStatements(StatementCommand[] statements) {
+		for (SqlRequestListener listener : sqlRequestListeners)
+			listener.revertStatements(statements, this);
+	}
+
+	@Override
+	public void addSqlRequestListener(SqlRequestListener listener) {
+		sqlRequestListeners.add(listener);
+	}
+	@Override
+	public void removeSqlRequestListener(SqlRequestListener listener) {
+		sqlRequestListeners.remove(listener);
+	}
+
+	@Override
+	public void clearListeners() {
+		sqlRequestListeners.clear();
+	}
+
+	private class HistoryTableModel extends AbstractTableModel {
+		private static final long serialVersionUID = -2390870167271830497L;
+
+		private final String[] columnNames = {	Lang.get(MESSAGE_HISTORY_TIME),
+																						Lang.get(MESSAGE_HISTORY_DURATION),
+																						Lang.get(MESSAGE_HISTORY_ROWS),
+																						Lang.get(MESSAGE_HISTORY_TABLE),
+																						Lang.get(MESSAGE_HISTORY_TYPE),
+																						Lang.get(MESSAGE_HISTORY_STATEMENT)};
+		private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+		private int[] matches = new int[0];
+
+		void setMatches(int[] newMatches) {
+			matches = newMatches;
+			fireTableDataChanged();
+		}
+		@SuppressWarnings("synthetic-access")
+		HistoryEntry getEntry(int row) {
+			try {
+				return index.get(matches[row]);
+			} catch (UncheckedIOException e) {
+				log.exception(e, Level.WARNING);	// Spill file unreadable, e.g. deleted on close
+				return null;
+			}
+		}
+
+		@Override
+		public int getRowCount() {
+			return matches.length;
+		}
+		@Override
+		public int getColumnCount() {
+			return columnNames.length;
+		}
+		@Override
+		public String getColumnName(int column) {
+			return columnNames[column];
+		}
+
+		@Override
+		public Object getValueAt(int rowIndex, int columnIndex) {
+			HistoryEntry entry = getEntry(rowIndex);
+			if (entry == null)
+				return null;
+
+			switch (columnIndex) {
+				case 0:
+					return timeFormat.format(new Date(entry.getTimestamp()));
+				case 1:
+					return entry.getDuration() >= 0 ? String.format("%.3f", entry.getDuration() / 1e6) : "";
+				case 2:
+					return entry.getAffectedRows() >= 0 ? String.valueOf(entry.getAffectedRows()) : "";
+				case 3:
+					return entry.getTable();
+				case 4:
+					return entry.getType();
+				default:
+					return entry.getText();
+			}
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package dev.kkorolyov.sqlobviewer.gui;
+
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
+
+import java.awt.Component;
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.*;
+
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.importing.ImportError;
+import dev.kkorolyov.sqlobviewer.importing.ImportProgress;
+import dev.kkorolyov.sqlobviewer.importing.ImportResult;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Runs an import in the background while showing its progress, which may be canceled, then shows its result.
+ */
+class ImportTask extends SwingWorker<ImportResult, long[]> {
+	private static final Log log = Log.get(ImportTask.class);
+
+	private final Component parent;
+	private final File file;
+	private final Import importAction;
+	private final Runnable onDone;
+	private final ProgressMonitor monitor;
+	private volatile boolean canceled;
+
+	/**
+	 * Constructs a new import task.
+	 * Must be invoked on the event dispatch thread.
+	 * @param parent component to show progress over
+	 * @param file file imported
+	 * @param importAction import to run
+	 * @param onDone invoked on the event dispatch thread once the import completes, fails, or is canceled
+	 */
+	ImportTask(Component parent, File file, Import importAction, Runnable onDone) {
+		this.parent = parent;
+		this.file = file;
+		this.importAction = importAction;
+		this.onDone = onDone;
+
+		monitor = new ProgressMonitor(parent, Lang.get(MESSAGE_IMPORTING) + " " + file.getName(), "", 0, 100);
+		monitor.setMillisToDecideToPopup(0);
+		monitor.setMillisToPopup(250);
+	}
+
+	@Override
+	protected ImportResult doInBackground() throws IOException, SQLException {
+		long size = Math.max(1, file.length());
+
+		return importAction.run(new ImportProgress() {
+			@Override
+			public void imported(long bytes, long rows, long errors) {
+				publish(new long[]{bytes * 100 / size, rows, errors});
+			}
+			@Override
+			public boolean isCanceled() {
+				return canceled;
+			}
+		});
+	}
+
+	@Override
+	protected void process(List<long[]> chunks) {
+		if (monitor.isCanceled())
+			canceled = true;	// Import rolls back its uncommitted rows, then completes with a result
+
+		long[] last = chunks.get(chunks.size() - 1);
+
+		monitor.setProgress((int) last[0]);
+		monitor.setNote(last[1] + " " + Lang.get(MESSAGE_ROWS_IMPORTED) + ", " + last[2] + " " + Lang.get(MESSAGE_ROWS_REJECTED));
+	}
+
+	@Override
+	protected void done() {
+		monitor.close();
+		try {
+			showResult(get());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			log.exception(e);
+			JOptionPane.showMessageDialog(parent, cause.getMessage() != null ? cause.getMessage() : cause.toString(), Lang.get(TITLE_EXCEPTION), JOptionPane.WARNING_MESSAGE);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			onDone.run();
+		}
+	}
+	private void showResult(ImportResult result) {
+		String summary = result.getRows() + " " + Lang.get(MESSAGE_ROWS_IMPORTED) + ", " + result.getErrorCount() + " " + Lang.get(MESSAGE_ROWS_REJECTED);
+
+		if (result.getErrors().isEmpty()) {
+			JOptionPane.showMessageDialog(parent, summary, file.getName(), JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		StringBuilder errors = new StringBuilder();
+		for (ImportError error : result.getErrors())
+			errors.append(error).append(System.lineSeparator());
+
+		JTextArea errorsText = new JTextArea(errors.toString(), 10, 60);
+		errorsText.setEditable(false);
+		errorsText.setCaretPosition(0);
+
+		JPanel message = new JPanel(new MigLayout("insets 0, gap 4px, flowy"));
+		message.add(new JLabel(summary));
+		message.add(new JScrollPane(errorsText), "grow");
+
+		JOptionPane.showMessageDialog(parent, message, file.getName(), JOptionPane.WARNING_MESSAGE);
+	}
+
+	/**
+	 * An import reporting its progress.
+	 */
+	@FunctionalInterface
+	interface Import {
+		/**
+		 * @param progress receives progress and may cancel the import
+		 * @return import result
+		 * @throws IOException if an I/O error occurs
+		 * @throws SQLException if a database error occurs
+		 */
+		ImportResult run(ImportProgress progress) throws IOException, SQLException;
+	}
+}
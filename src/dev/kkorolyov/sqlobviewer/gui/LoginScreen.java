@@ -2,6 +2,7 @@ package dev.kkorolyov.sqlobviewer.gui;
 
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
 
+import java.awt.Cursor;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
@@ -14,6 +15,8 @@ import dev.kkorolyov.sqlob.connection.DatabaseConnection.DatabaseType;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
 import dev.kkorolyov.sqlobviewer.assets.Asset;
+import dev.kkorolyov.sqlobviewer.gui.event.CancelListener;
+import dev.kkorolyov.sqlobviewer.gui.event.CancelSubject;
 import dev.kkorolyov.sqlobviewer.gui.event.OptionsListener;
 import dev.kkorolyov.sqlobviewer.gui.event.OptionsSubject;
 import dev.kkorolyov.sqlobviewer.gui.event.SubmitListener;
@@ -23,9 +26,11 @@ import net.miginfocom.swing.MigLayout;
 /**
  * The login screen.
  */
-public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
+public class LoginScreen implements Screen, SubmitSubject, OptionsSubject, CancelSubject {
 	private static final int DEFAULT_FIELD_COLUMNS = 15;
 	
+	private boolean cancelable;
+	
 	private JPanel panel;
 	private JLabel 	hostLabel,
 									databaseLabel,
@@ -38,15 +43,22 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 											passwordField;
 	private JComboBox<DatabaseType> databaseTypeComboBox;
 	private JButton loginButton,
-									optionsButton;
+									optionsButton,
+									backButton;
+
+	private boolean connecting;
 
 	private Set<SubmitListener> submitListeners = new CopyOnWriteArraySet<>();
 	private Set<OptionsListener> optionsListeners = new CopyOnWriteArraySet<>();
+	private Set<CancelListener> cancelListeners = new CopyOnWriteArraySet<>();
 	
 	/**
 	 * Constructs a new login screen.
+	 * @param isCancelable if {@code true}, this screen will have a button to return without logging in
 	 */
-	public LoginScreen() {
+	public LoginScreen(boolean isCancelable) {
+		cancelable = isCancelable;
+		
 		initComponents();
 		
 		buildComponents();
@@ -77,6 +89,9 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 		optionsButton.setToolTipText(Lang.get(ACTION_OPTIONS));
 		optionsButton.addActionListener(e -> fireOptions());
 		
+		backButton = new JButton(Lang.get(ACTION_BACK));
+		backButton.addActionListener(e -> fireCanceled());
+		
 		KeyListener submitKeyListener = new KeyAdapter() {
 			@Override
 			public void keyPressed(KeyEvent e) {
@@ -101,7 +116,9 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 		panel.add(userField);
 		panel.add(passwordLabel);
 		panel.add(passwordField);
-		panel.add(optionsButton, "span, split 2, align 25%, grow 0");
+		panel.add(optionsButton, "span, split " + (cancelable ? 3 : 2) + ", align 25%, grow 0");
+		if (cancelable)
+			panel.add(backButton, "align 50%, grow 0");
 		panel.add(loginButton, "align 75%, grow 0");
 	}
 	
@@ -135,6 +152,15 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 		return (DatabaseType) databaseTypeComboBox.getSelectedItem();
 	}
 	
+	/** @param newConnecting whether a login submitted from this screen is connecting, disabling further submits while {@code true} */
+	public void setConnecting(boolean newConnecting) {
+		connecting = newConnecting;
+		
+		loginButton.setEnabled(!connecting);
+		loginButton.setText(Lang.get(connecting ? MESSAGE_CONNECTING : ACTION_LOG_IN));
+		panel.setCursor(connecting ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+	}
+	
 	@Override
 	public boolean focusDefaultComponent() {
 		return hostField.requestFocusInWindow();
@@ -145,6 +171,9 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 	}
 	
 	private void fireSubmitted() {		
+		if (connecting)
+			return;
+		
 		for (SubmitListener listener : submitListeners)
 			listener.submitted(this);
 	}
@@ -154,6 +183,11 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 			listener.optionsRequested(this);
 	}
 	
+	private void fireCanceled() {
+		for (CancelListener listener : cancelListeners)
+			listener.canceled(this);
+	}
+	
 	@Override
 	public void addSubmitListener(SubmitListener listener) {
 		submitListeners.add(listener);
@@ -172,9 +206,19 @@ public class LoginScreen implements Screen, SubmitSubject, OptionsSubject {
 		optionsListeners.remove(listener);
 	}
 	
+	@Override
+	public void addCancelListener(CancelListener listener) {
+		cancelListeners.add(listener);
+	}
+	@Override
+	public void removeCancelListener(CancelListener listener) {
+		cancelListeners.remove(listener);
+	}
+	
 	@Override
 	public void clearListeners() {
 		submitListeners.clear();
 		optionsListeners.clear();
+		cancelListeners.clear();
 	}
 }
@@ -2,33 +2,46 @@ package dev.kkorolyov.sqlobviewer.gui;
 
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.*;
 
+import java.awt.Cursor;
+import java.awt.Dialog;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.PrintWriter;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
-import dev.kkorolyov.simplelogs.Logger;
-import dev.kkorolyov.simplelogs.Logger.Level;
 import dev.kkorolyov.sqlob.construct.Column;
 import dev.kkorolyov.sqlob.construct.RowEntry;
 import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfile;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfiler;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
 import dev.kkorolyov.sqlobviewer.assets.Asset;
+import dev.kkorolyov.sqlobviewer.export.ExportFormat;
+import dev.kkorolyov.sqlobviewer.export.Exporter;
 import dev.kkorolyov.sqlobviewer.gui.event.CancelListener;
 import dev.kkorolyov.sqlobviewer.gui.event.CancelSubject;
+import dev.kkorolyov.sqlobviewer.gui.event.SessionListener;
+import dev.kkorolyov.sqlobviewer.gui.event.SessionSubject;
 import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestListener;
 import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestSubject;
 import dev.kkorolyov.sqlobviewer.gui.table.SQLObTable;
 import dev.kkorolyov.sqlobviewer.gui.table.SQLObTableModel;
+import dev.kkorolyov.sqlobviewer.importing.CsvImporter;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
 import dev.kkorolyov.sqlobviewer.model.DatabaseModel;
 import dev.kkorolyov.swingplus.JHoverButtonPanel;
 import dev.kkorolyov.swingplus.JHoverButtonPanel.ExpandTrigger;
@@ -38,8 +51,8 @@ import net.miginfocom.swing.MigLayout;
 /**
  * The main application screen.
  */
-public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, ChangeListener {
-	private static final Logger log = Logger.getLogger(MainScreen.class.getName(), Level.DEBUG, (PrintWriter[]) null);
+public class MainScreen implements Screen, CancelSubject, SessionSubject, SqlRequestSubject, ChangeListener {
+	private static final Log log = Log.get(MainScreen.class);
 	
 	private DatabaseModel dbModel;
 	
@@ -51,16 +64,32 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 	private JHoverButtonPanel 	tableButtonPanel,
 															rowButtonPanel;
 	private JButton	backButton,
+									newSessionButton,
+									historyButton,
+									consoleButton,
+									exportButton,
 									refreshTableButton,
 									addTableButton,
 									removeTableButton,
 									addRowButton,
-									removeRowButton;
+									removeRowButton,
+									importRowsButton;
 	private JLabel selectedRowsCounter;
+	private AggregateStrip aggregateStrip;
 	private JTextArea lastStatementText;
 	private JPopupMenu lastStatementPopup;
+	private JMenuItem	undoItem,
+										redoItem;
+	private HistoryScreen historyScreen;
+	private JLabel metricsStatus;
+	private Timer metricsTimer;
+	private JDialog historyDialog;
+	private ConsoleScreen consoleScreen;
+	private JDialog consoleDialog;
+	private SwingWorker<ColumnProfile[], Void> profiler;
 	
 	private Set<CancelListener> cancelListeners = new CopyOnWriteArraySet<>();
+	private Set<SessionListener> sessionListeners = new CopyOnWriteArraySet<>();
 	private Set<SqlRequestListener> sqlRequestListeners = new CopyOnWriteArraySet<>();
 	
 	/**
@@ -87,7 +116,10 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 			}
 		});
 		tableGrid = new TableGrid(new SQLObTableModel(dbModel.getTableColumns(), dbModel.getTableData(), true), Config.getInt(CURRENT_TABLES_X), Config.getInt(CURRENT_TABLES_Y));
-		tableGrid.addChangeListener(e -> syncSelectedRowsCounter());
+		tableGrid.addChangeListener(e -> {
+			syncSelectedRowsCounter();
+			aggregateStrip.setTable((SQLObTable) e.getSource());
+		});
 		
 		tableGridSelector = new GridSelector(Config.getInt(MAX_TABLES_X), Config.getInt(MAX_TABLES_Y));
 		tableGridSelector.addChangeListener(e -> syncTableGrid());
@@ -95,6 +127,8 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		selectedRowsCounter = new JLabel();
 		syncSelectedRowsCounter();
 		
+		aggregateStrip = new AggregateStrip(dbModel);
+		
 		lastStatementText = new JTextArea();
 		lastStatementText.setOpaque(false);
 		lastStatementText.setEditable(false);
@@ -112,12 +146,17 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 			}
 		});
 		lastStatementPopup = new JPopupMenu();
-		JMenuItem undoItem = new JMenuItem(Lang.get(ACTION_UNDO_STATEMENT));
-		undoItem.addActionListener(e ->  {
-			if (lastStatementText.getText().length() > 0)	// Check for some statement
+		undoItem = new JMenuItem(Lang.get(ACTION_UNDO_STATEMENT));
+		undoItem.addActionListener(e -> {
+			if (dbModel.getUndoCount() > 0)
+				fireUndo(1);
+			else if (dbModel.getLastStatement() != null)	// Nothing journaled, fall back to reverting last statement
 				fireRevertStatement(dbModel.getLastStatement());
 		});
 		lastStatementPopup.add(undoItem);
+		redoItem = new JMenuItem(Lang.get(ACTION_REDO_STATEMENT));
+		redoItem.addActionListener(e -> fireRedo(1));
+		lastStatementPopup.add(redoItem);
 		
 		tableSelector = new JComboBox<String>();
 		tableSelector.addActionListener(e -> {
@@ -137,6 +176,28 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		
 		backButton = new JButton(Lang.get(ACTION_LOG_OUT));
 		backButton.addActionListener(e -> fireCanceled());
+		
+		newSessionButton = new JButton(Lang.get(ACTION_NEW_SESSION));
+		newSessionButton.setToolTipText(Lang.get(ACTION_TIP_NEW_SESSION));
+		newSessionButton.addActionListener(e -> fireSessionRequested());
+		
+		historyScreen = new HistoryScreen(dbModel.getHistory());
+		historyButton = new JButton(Lang.get(ACTION_HISTORY));
+		historyButton.setToolTipText(Lang.get(ACTION_TIP_HISTORY));
+		historyButton.addActionListener(e -> displayHistoryDialog());
+		
+		consoleButton = new JButton(Lang.get(ACTION_CONSOLE));
+		consoleButton.setToolTipText(Lang.get(ACTION_TIP_CONSOLE));
+		consoleButton.addActionListener(e -> displayConsoleDialog());
+		
+		exportButton = new JButton(Lang.get(ACTION_EXPORT));
+		exportButton.setToolTipText(Lang.get(ACTION_TIP_EXPORT));
+		exportButton.addActionListener(e -> displayExportDialog());
+		
+		metricsStatus = new JLabel();
+		metricsStatus.setToolTipText(Lang.get(MESSAGE_TIP_METRICS));
+		metricsTimer = new Timer(Config.getInt(METRICS_STATUS_INTERVAL), e -> syncMetricsStatus());
+		metricsTimer.start();
 	}
 	private void initTableButtons() {
 		tableButtonPanel = new JHoverButtonPanel(Lang.get(DYNAMIC_ACTION_TABLE), Orientation.X, ExpandTrigger.HOVER);
@@ -163,8 +224,13 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		removeRowButton.setToolTipText(Lang.get(ACTION_TIP_REMOVE_ROW));
 		removeRowButton.addActionListener(e -> displayConfirmRemoveRowDialog());
 		
+		importRowsButton = new JButton(Lang.get(ACTION_IMPORT_ROWS));
+		importRowsButton.setToolTipText(Lang.get(ACTION_TIP_IMPORT_ROWS));
+		importRowsButton.addActionListener(e -> displayImportDialog());
+		
 		rowButtonPanel.addButton(addRowButton);
 		rowButtonPanel.addButton(removeRowButton);
+		rowButtonPanel.addButton(importRowsButton);
 	}
 	private void buildComponents() {
 		panel.add(refreshTableButton);
@@ -175,17 +241,33 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		panel.add(tableGridSelector.getPanel(), "gap 0");
 		panel.add(selectedRowsCounter, "spanx");
 		panel.add(lastStatementText, "spanx 2, wmin 0, wrap");
-		panel.add(backButton, "span, center, grow 0");
+		panel.add(aggregateStrip.getPanel(), "spanx, wmin 0");
+		panel.add(newSessionButton, "span, split 5, center, grow 0");
+		panel.add(historyButton, "grow 0");
+		panel.add(consoleButton, "grow 0");
+		panel.add(exportButton, "grow 0");
+		panel.add(metricsStatus, "span, wmin 0");
+		panel.add(backButton, "grow 0");
 	}
 	
 	private void update() {
+		boolean loading = dbModel.isLoading();
+		
 		setTables(dbModel.getTables());
 		syncTable();
+		tableSelector.setEnabled(!loading);
+		exportButton.setEnabled(!loading && dbModel.getTable() != null);
+		panel.setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
 		
 		getTableModel().setData(dbModel.getTableColumns(), dbModel.getTableData());
+		if (!getTableModel().isProfiled())
+			profileTable();
 		
 		StatementCommand lastStatement = dbModel.getLastStatement();
-		lastStatementText.setText(lastStatement != null ? lastStatement.toString() : null);
+		lastStatementText.setText(loading ? Lang.get(MESSAGE_LOADING) : lastStatement != null ? lastStatement.toString() : null);
+		
+		if (historyDialog != null && historyDialog.isVisible())
+			historyScreen.refresh();
 	}
 	private void syncTable() {
 		tableSelectorEnabled = false;
@@ -247,7 +329,7 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 
 		tableSelectorEnabled = true;
 		
-		log.debug("Set new tables of length = " + tableSelector.getItemCount());
+		log.debug(() -> "Set new tables of length = " + tableSelector.getItemCount());
 	}
 	/**
 	 * Clears all tables from table selector.
@@ -264,6 +346,10 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 	public void setTableModel(SQLObTableModel newModel) {
 		tableGrid.setModel(newModel);
 	}
+	/** @return all tables currently displaying the table model */
+	public List<SQLObTable> getDisplayedTables() {
+		return tableGrid.getTables();
+	}
 		
 	private int getNumSelectedRows() {
 		int totalSelected = 0;
@@ -274,7 +360,7 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		return totalSelected;
 	}
 	private RowEntry[][] getSelectedRows() {
-		List<RowEntry[]> selectedRows = new LinkedList<>();
+		List<RowEntry[]> selectedRows = new ArrayList<>(getNumSelectedRows());
 		
 		for (SQLObTable table : tableGrid.getTables()) {
 			for (int index : table.getSelectedRows())
@@ -283,9 +369,45 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		return selectedRows.toArray(new RowEntry[selectedRows.size()][]);
 	}
 	
-	private void deleteRows(RowEntry[][] toDelete) {
-		for (RowEntry[] toDel : toDelete)
-			getTableModel().deleteRow(toDel);
+	private void profileTable() {
+		if (profiler != null)
+			profiler.cancel(false);	// Profiles stale data
+		
+		SQLObTableModel model = getTableModel();
+		Column[] columns = model.getColumns();
+		String table = dbModel.getTable();
+		if (table == null || columns.length <= 0)
+			return;
+		
+		RowEntry[][] rows = model.getRows();
+		boolean loading = dbModel.isLoading();
+		ColumnProfiler columnProfiler = new ColumnProfiler(Config.getInt(PROFILE_SAMPLE_ROWS), Config.getInt(PROFILE_HISTOGRAM_BUCKETS));
+		
+		profiler = new SwingWorker<ColumnProfile[], Void>() {
+			@Override
+			protected ColumnProfile[] doInBackground() throws Exception {
+				return loading ? dbModel.profileTable(table, columns, columnProfiler) : columnProfiler.profile(columns, rows, ForkJoinPool.commonPool());	// Sample rows not loaded yet
+			}
+			@Override
+			protected void done() {
+				if (isCancelled())
+					return;
+				
+				try {
+					model.setProfiles(get());
+				} catch (ExecutionException e) {
+					log.exception(e);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		profiler.execute();
+	}
+	
+	private void syncMetricsStatus() {
+		if (panel.isShowing())
+			metricsStatus.setText(Metrics.summarize(Metrics.QUERY, Metrics.FETCH, Metrics.SET_DATA, Metrics.INDEX, Metrics.SORT, Metrics.PAINT));
 	}
 	
 	private void tryShowLastStatementPopup(MouseEvent e) {
@@ -293,6 +415,9 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 			showLastStatementPopup(e);
 	}
 	private void showLastStatementPopup(MouseEvent e) {
+		undoItem.setEnabled(dbModel.getUndoCount() > 0 || lastStatementText.getText().length() > 0);
+		redoItem.setEnabled(dbModel.getRedoCount() > 0);
+		
 		lastStatementPopup.show(e.getComponent(), e.getX(), e.getY());
 	}
 	
@@ -354,8 +479,113 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 			message.add(selectedRowsTable.getScrollPane());
 			
 			if (displayDialog(title, message, Lang.get(OPTION_YES), Lang.get(OPTION_NO)) == 0)
-				deleteRows(selectedRows);
+				getTableModel().deleteRows(selectedRows);
+		}
+	}
+	
+	private void displayImportDialog() {
+		String table = dbModel.getTable();
+		if (table == null) {
+			log.warning("No table selected, aborting ImportDialog creation");
+			return;
+		}
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle(Lang.get(ACTION_TIP_IMPORT_ROWS));
+		chooser.setFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+		
+		if (chooser.showOpenDialog(panel) != JFileChooser.APPROVE_OPTION)
+			return;
+		
+		File file = chooser.getSelectedFile();
+		CsvImporter importer = new CsvImporter(Config.getInt(IMPORT_BATCH_ROWS), Config.getInt(IMPORT_TRANSACTION_ROWS), Config.getInt(IMPORT_CHUNK_SIZE), Runtime.getRuntime().availableProcessors());
+		
+		importRowsButton.setEnabled(false);
+		new ImportTask(panel, file, progress -> dbModel.importTable(table, importer, file, progress), () -> {
+			importRowsButton.setEnabled(true);
+			fireUpdate();	// Transactions committed before a failure or cancel keep their rows
+		}).execute();
+	}
+	
+	private void displayHistoryDialog() {
+		if (historyDialog == null) {
+			historyDialog = new JDialog(SwingUtilities.getWindowAncestor(panel), Lang.get(TITLE_HISTORY), Dialog.ModalityType.MODELESS);
+			historyDialog.setContentPane(historyScreen.getPanel());
+			historyDialog.setSize(panel.getWidth(), panel.getHeight() / 2);
+			historyDialog.setLocationRelativeTo(panel);
 		}
+		historyScreen.refresh();
+		historyDialog.setVisible(true);
+		historyScreen.focusDefaultComponent();
+	}
+	
+	private void displayConsoleDialog() {
+		if (consoleDialog == null) {
+			consoleScreen = new ConsoleScreen(dbModel.openConsole());
+			
+			consoleDialog = new JDialog(SwingUtilities.getWindowAncestor(panel), Lang.get(TITLE_CONSOLE) + " - " + dbModel.getDatabase(), Dialog.ModalityType.MODELESS);
+			consoleDialog.setContentPane(consoleScreen.getPanel());
+			consoleDialog.setSize(panel.getWidth(), panel.getHeight());
+			consoleDialog.setLocationRelativeTo(panel);
+		}
+		consoleDialog.setVisible(true);
+		consoleScreen.focusDefaultComponent();
+	}
+	
+	private void displayExportDialog() {
+		String table = dbModel.getTable();
+		if (table == null) {
+			log.warning("No table selected, aborting ExportDialog creation");
+			return;
+		}
+		SQLObTable filteredView = null;
+		for (SQLObTable displayedTable : tableGrid.getTables()) {
+			if (displayedTable.getRowCount() < getTableModel().getRowCount()) {
+				filteredView = displayedTable;
+				break;
+			}
+		}
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle(Lang.get(ACTION_TIP_EXPORT));
+		chooser.setAcceptAllFileFilterUsed(false);
+		for (ExportFormat format : ExportFormat.values())
+			chooser.addChoosableFileFilter(new FileNameExtensionFilter(format + " (*." + format.getExtension() + ")", format.getExtension()));
+		chooser.setFileFilter(chooser.getChoosableFileFilters()[0]);
+		chooser.setSelectedFile(new File(table + "." + ExportFormat.values()[0].getExtension()));
+		
+		JCheckBox viewOnly = new JCheckBox(Lang.get(MESSAGE_EXPORT_VIEW), filteredView != null);
+		viewOnly.setEnabled(filteredView != null);
+		chooser.setAccessory(viewOnly);
+		
+		if (chooser.showSaveDialog(panel) != JFileChooser.APPROVE_OPTION)
+			return;
+		
+		ExportFormat format = getExportFormat(chooser.getFileFilter());
+		File file = chooser.getSelectedFile();
+		if (!file.getName().contains("."))
+			file = new File(file.getPath() + "." + format.getExtension());
+		
+		File exportFile = file;
+		Exporter exporter = new Exporter(format, Config.getInt(EXPORT_BUFFER_SIZE));
+		ExportTask task;
+		
+		if (viewOnly.isSelected()) {	// Rows already loaded, in view order
+			SQLObTable view = filteredView;
+			Column[] columns = getTableModel().getColumns();
+			
+			task = new ExportTask(panel, exportFile, view.getRowCount(), progress -> exporter.export(columns, ExportTask.viewRows(view), exportFile, progress));
+		} else {	// Rows streamed from the database
+			task = new ExportTask(panel, exportFile, getTableModel().getRowCount(), progress -> dbModel.exportTable(table, exporter, exportFile, progress));
+		}
+		task.execute();
+	}
+	private static ExportFormat getExportFormat(FileFilter filter) {
+		String extension = ((FileNameExtensionFilter) filter).getExtensions()[0];
+		
+		for (ExportFormat format : ExportFormat.values()) {
+			if (format.getExtension().equals(extension))
+				return format;
+		}
+		throw new IllegalArgumentException("No export format for extension: " + extension);
 	}
 	
 	private int displayDialog(String title, Object message, Object... options) {
@@ -382,6 +612,11 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 			listener.canceled(this);
 	}
 	
+	private void fireSessionRequested() {
+		for (SessionListener listener : sessionListeners)
+			listener.sessionRequested(this);
+	}
+	
 	private void fireUpdate() {		
 		for (SqlRequestListener listener : sqlRequestListeners)
 			listener.update(this);
@@ -405,6 +640,14 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		for (SqlRequestListener listener : sqlRequestListeners)
 			listener.revertStatement(statement, this);
 	}
+	private void fireUndo(int steps) {
+		for (SqlRequestListener listener : sqlRequestListeners)
+			listener.undo(steps, this);
+	}
+	private void fireRedo(int steps) {
+		for (SqlRequestListener listener : sqlRequestListeners)
+			listener.redo(steps, this);
+	}
 	
 	@Override
 	public void addCancelListener(CancelListener listener) {
@@ -415,19 +658,43 @@ public class MainScreen implements Screen, CancelSubject, SqlRequestSubject, Cha
 		cancelListeners.remove(listener);
 	}
 	
+	@Override
+	public void addSessionListener(SessionListener listener) {
+		sessionListeners.add(listener);
+	}
+	@Override
+	public void removeSessionListener(SessionListener listener) {
+		sessionListeners.remove(listener);
+	}
+	
 	@Override
 	public void addSqlRequestListener(SqlRequestListener listener) {
 		sqlRequestListeners.add(listener);
 		getTableModel().addSqlRequestListener(listener);
+		historyScreen.addSqlRequestListener(listener);
 	}
 	@Override
 	public void removeSqlRequestListener(SqlRequestListener listener) {
 		sqlRequestListeners.remove(listener);
+		historyScreen.removeSqlRequestListener(listener);
 	}
 	
 	@Override
 	public void clearListeners() {
 		cancelListeners.clear();
+		sessionListeners.clear();
 		sqlRequestListeners.clear();
+		historyScreen.clearListeners();
+		aggregateStrip.clearListeners();
+		if (profiler != null)
+			profiler.cancel(false);
+		metricsTimer.stop();
+		
+		if (historyDialog != null)
+			historyDialog.dispose();
+		if (consoleDialog != null) {
+			consoleDialog.dispose();
+			consoleScreen.close();
+		}
 	}
 }
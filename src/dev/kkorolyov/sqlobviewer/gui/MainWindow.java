@@ -1,9 +1,13 @@
 package dev.kkorolyov.sqlobviewer.gui;
 
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.ACTION_CANCEL;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_APPLICATION_CLOSING;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_EXPAND_ERROR;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_WAITING;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.OPERATION_TIMEOUT;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.TITLE_ERROR;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.TITLE_EXCEPTION;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.TITLE_WAITING;
 
 import java.awt.Dimension;
 import java.awt.Point;
@@ -14,13 +18,17 @@ import java.awt.event.WindowListener;
 
 import javax.swing.*;
 
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
 import dev.kkorolyov.sqlobviewer.assets.Asset;
+import dev.kkorolyov.sqlobviewer.connection.LaneOperation;
 
 /**
  * Main SQLObViewer application window.
  */
 public class MainWindow implements Window {
+	private static final int WAITING_POPUP_DELAY = 250;
+	
 	private String title;
 	private int width,
 							height;
@@ -117,6 +125,39 @@ public class MainWindow implements Window {
 			exit();
 		}
 	}
+	
+	/**
+	 * Waits for a database operation, aborting it once it exceeds {@code OPERATION_TIMEOUT} seconds.
+	 * On the event dispatch thread, an operation still running after a short delay shows a modal popup which keeps the application responsive and may cancel the operation.
+	 * @param operation operation to wait for
+	 */
+	public void awaitOperation(LaneOperation<?> operation) {
+		long timeout = Config.getInt(OPERATION_TIMEOUT) * 1000L;
+		
+		if (!SwingUtilities.isEventDispatchThread()) {
+			operation.await(timeout);
+			return;
+		}
+		if (operation.waitFor(WAITING_POPUP_DELAY))
+			return;
+		
+		JOptionPane waitingPane = new JOptionPane(Lang.get(MESSAGE_WAITING) + " " + operation.getDescription() + "...", JOptionPane.INFORMATION_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[]{Lang.get(ACTION_CANCEL)});
+		JDialog waitingDialog = waitingPane.createDialog(frame, Lang.get(TITLE_WAITING));
+		
+		operation.whenDone(() -> SwingUtilities.invokeLater(waitingDialog::dispose));	// Runs within the dialog's event loop
+		
+		Timer timeoutTimer = new Timer((int) Math.max(1, timeout - WAITING_POPUP_DELAY), e -> operation.timeOut(timeout));
+		timeoutTimer.setRepeats(false);
+		if (timeout > 0)
+			timeoutTimer.start();
+		
+		waitingDialog.setVisible(true);	// Blocks while dispatching events until disposed or dismissed
+		
+		timeoutTimer.stop();
+		if (!operation.isDone())	// Dismissed
+			operation.cancel();
+	}
+	
 	private static JPanel buildExceptionPanel(Throwable exception) {
 		String 	basicMessage = (exception.getCause() == null) ? exception.getMessage() : exception.getCause().getMessage(),
 						extendedMessage = basicMessage + System.lineSeparator() + buildExceptionStackString(exception);
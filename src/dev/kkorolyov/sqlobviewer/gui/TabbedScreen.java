@@ -0,0 +1,96 @@
+package dev.kkorolyov.sqlobviewer.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import javax.swing.JPanel;
+import javax.swing.JTabbedPane;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * A screen displaying other screens in tabs.
+ */
+public class TabbedScreen implements Screen {
+	private JPanel panel;
+	private JTabbedPane tabs;
+	private List<Screen> screens = new ArrayList<>();
+	
+	private Set<ChangeListener> changeListeners = new CopyOnWriteArraySet<>();
+	
+	/**
+	 * Constructs a new tabbed screen with no tabs.
+	 */
+	public TabbedScreen() {
+		panel = new JPanel(new MigLayout("insets 0", "[grow, fill]", "[grow, fill]"));
+		
+		tabs = new JTabbedPane();
+		tabs.addChangeListener(e -> fireStateChanged());
+		
+		panel.add(tabs);
+	}
+	
+	/**
+	 * Adds and selects a new tab.
+	 * @param title tab title
+	 * @param screen screen displayed by the tab
+	 */
+	public void addTab(String title, Screen screen) {
+		screens.add(screen);
+		tabs.addTab(title, screen.getPanel());
+		
+		tabs.setSelectedIndex(tabs.getTabCount() - 1);
+	}
+	/**
+	 * Removes the tab displaying a screen.
+	 * @param screen screen to remove
+	 */
+	public void removeTab(Screen screen) {
+		int index = screens.indexOf(screen);
+		
+		if (index >= 0) {
+			screens.remove(index);
+			tabs.removeTabAt(index);
+		}
+	}
+	
+	/** @return screen displayed by the selected tab, or {@code null} if no tabs */
+	public Screen getSelectedScreen() {
+		int index = tabs.getSelectedIndex();
+		
+		return (index >= 0) ? screens.get(index) : null;
+	}
+	/** @return number of tabs */
+	public int getTabCount() {
+		return screens.size();
+	}
+	
+	@Override
+	public boolean focusDefaultComponent() {
+		Screen selected = getSelectedScreen();
+		
+		return selected != null && selected.focusDefaultComponent();
+	}
+	@Override
+	public JPanel getPanel() {
+		return panel;
+	}
+	
+	private void fireStateChanged() {
+		for (ChangeListener listener : changeListeners)
+			listener.stateChanged(new ChangeEvent(this));
+	}
+	
+	/** @param listener change listener notified when the selected tab changes */
+	public void addChangeListener(ChangeListener listener) {
+		changeListeners.add(listener);
+	}
+	/** @param listener change listener to remove */
+	public void removeChangeListener(ChangeListener listener) {
+		changeListeners.remove(listener);
+	}
+}
@@ -0,0 +1,12 @@
+package dev.kkorolyov.sqlobviewer.gui.event;
+
+/**
+ * Listens for new session requests.
+ */
+public interface SessionListener {
+	/**
+	 * Invoked when a new database session is requested.
+	 * @param source entity firing this event
+	 */
+	void sessionRequested(SessionSubject source);
+}
@@ -0,0 +1,11 @@
+package dev.kkorolyov.sqlobviewer.gui.event;
+
+/**
+ * Fires new session request events.
+ */
+public interface SessionSubject extends Subject {
+	/** @param listener session listener to add */
+	void addSessionListener(SessionListener listener);
+	/** @param listener session listener to remove */
+	void removeSessionListener(SessionListener listener);
+}
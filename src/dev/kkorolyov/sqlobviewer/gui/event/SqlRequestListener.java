@@ -48,6 +48,19 @@ public interface SqlRequestListener {
 	 * @param source entity requesting this operation
 	 */
 	void insertRow(RowEntry[] rowValues, SqlRequestSubject source);
+	/**
+	 * Invoked when several {@code UPDATE TABLE} operations are requested as a single change.
+	 * @param newValues new values to set for each row
+	 * @param criteria operation criteria of each row
+	 * @param source entity requesting this operation
+	 */
+	void updateRows(RowEntry[][] newValues, RowEntry[][] criteria, SqlRequestSubject source);
+	/**
+	 * Invoked when several {@code INSERT INTO TABLE} operations are requested as a single change.
+	 * @param rows values of each row to insert
+	 * @param source entity requesting this operation
+	 */
+	void insertRows(RowEntry[][] rows, SqlRequestSubject source);
 	/**
 	 * Invoked when a {@code DELETE FROM TABLE} operation is requested.
 	 * @param criteria operation criteria
@@ -61,4 +74,23 @@ public interface SqlRequestListener {
 	 * @param source entity requesting this operation
 	 */
 	void revertStatement(StatementCommand statement, SqlRequestSubject source);
+	/**
+	 * Invoked when reverting several SQL statements at once is requested.
+	 * @param statements statements to revert, in reversion order
+	 * @param source entity requesting this operation
+	 */
+	void revertStatements(StatementCommand[] statements, SqlRequestSubject source);
+	
+	/**
+	 * Invoked when undoing recent changes is requested.
+	 * @param steps number of changes to undo
+	 * @param source entity requesting this operation
+	 */
+	void undo(int steps, SqlRequestSubject source);
+	/**
+	 * Invoked when redoing undone changes is requested.
+	 * @param steps number of changes to redo
+	 * @param source entity requesting this operation
+	 */
+	void redo(int steps, SqlRequestSubject source);
 }
@@ -0,0 +1,54 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import javax.swing.SwingConstants;
+
+import dev.kkorolyov.sqlob.construct.SqlType;
+
+/**
+ * Aligns the cells of a particular family of {@code SqlTypes}.
+ * Every family's values display as their own {@code toString()}; families differ only in how their cells are aligned.
+ */
+public enum CellFormat {
+	/** Text values, aligned leading */
+	TEXT(SwingConstants.LEADING),
+	/** Integral values, aligned trailing */
+	INTEGER(SwingConstants.TRAILING),
+	/** Floating-point values, aligned trailing */
+	DECIMAL(SwingConstants.TRAILING),
+	/** Boolean values, rendered by the table's default checkbox renderer */
+	BOOLEAN(SwingConstants.CENTER);
+	
+	private final int alignment;
+	
+	private CellFormat(int alignment) {
+		this.alignment = alignment;
+	}
+	
+	/**
+	 * @param type SQL type to get format of
+	 * @return appropriate format for values of {@code type}
+	 */
+	public static CellFormat of(SqlType type) {
+		if (type == null)
+			return TEXT;
+		
+		switch (type) {
+			case BOOLEAN:
+				return BOOLEAN;
+			case SMALLINT:
+			case INTEGER:
+			case BIGINT:
+				return INTEGER;
+			case REAL:
+			case DOUBLE:
+				return DECIMAL;
+			default:
+				return TEXT;
+		}
+	}
+	
+	/** @return horizontal alignment of cells in this format, as a {@code SwingConstants} value */
+	public int getAlignment() {
+		return alignment;
+	}
+}
@@ -0,0 +1,121 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import java.util.Arrays;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+/**
+ * Caches the formatted display strings of a {@code SQLObTableModel}'s cells.
+ * Rows are cached in a fixed number of slots selected by row index, so memory stays bounded however many rows the model holds.
+ * Contiguous rows never share a slot, so every row of any visible window stays cached, and a repaint finding its cells cached neither allocates nor modifies the cache.
+ * Each cached cell is formatted at most once until invalidated by a change to its row in the backing model.
+ */
+public class DisplayValueCache implements TableModelListener {
+	/** Number of rows cached, comfortably more than every visible table displays at once; a power of 2 */
+	public static final int MAX_ROWS = 4096;
+	
+	private static final int EMPTY = -1;
+	private static final String NULL_VALUE = "";
+	
+	private SQLObTableModel model;
+	private final int[] cachedRows = new int[MAX_ROWS];	// Model row index cached in each slot
+	private final String[][] rows = new String[MAX_ROWS][];
+	private int columnCount;
+	
+	/**
+	 * Constructs a new cache for a model.
+	 * @param model model to cache display values of
+	 */
+	public DisplayValueCache(SQLObTableModel model) {
+		this.model = model;
+		
+		Arrays.fill(cachedRows, EMPTY);
+	}
+	
+	/**
+	 * Returns the display string of a cell, formatting it only if not already cached.
+	 * @param rowIndex model row index
+	 * @param columnIndex model column index
+	 * @return display string of cell at the specified indices
+	 */
+	public String get(int rowIndex, int columnIndex) {
+		if (columnIndex >= columnCount)
+			invalidate();
+		
+		int slot = rowIndex & (MAX_ROWS - 1);
+		String[] row = rows[slot];
+		
+		if (cachedRows[slot] != rowIndex) {	// Evicts the row previously in this slot
+			if (row == null || row.length != columnCount)
+				row = rows[slot] = new String[columnCount];
+			else
+				Arrays.fill(row, null);
+			
+			cachedRows[slot] = rowIndex;
+		}
+		String displayValue = row[columnIndex];
+		if (displayValue == null)
+			displayValue = row[columnIndex] = format(model.getValueAt(rowIndex, columnIndex));
+		
+		return displayValue;
+	}
+	/** Numbers use their own {@code toString()}, so a {@code REAL} value displays as the {@code Float} it is rather than as a widened {@code double} */
+	private static String format(Object value) {
+		return (value == null) ? NULL_VALUE : value.toString();
+	}
+	
+	/**
+	 * Discards all cached display strings.
+	 */
+	public void invalidate() {
+		Arrays.fill(cachedRows, EMPTY);
+		
+		columnCount = model.getColumnCount();
+	}
+	
+	private void invalidateRows(int firstRow, int lastRow, int column) {
+		if (lastRow - firstRow >= MAX_ROWS) {	// Cheaper to check each slot
+			for (int slot = 0; slot < MAX_ROWS; slot++) {
+				if (cachedRows[slot] >= firstRow && cachedRows[slot] <= lastRow)
+					cachedRows[slot] = EMPTY;
+			}
+			return;
+		}
+		for (int i = firstRow; i <= lastRow; i++) {
+			int slot = i & (MAX_ROWS - 1);
+			if (cachedRows[slot] != i)
+				continue;
+			
+			if (column == TableModelEvent.ALL_COLUMNS || column >= rows[slot].length)
+				cachedRows[slot] = EMPTY;
+			else
+				rows[slot][column] = null;
+		}
+	}
+	private void invalidateFrom(int firstRow) {	// Following rows shifted
+		for (int slot = 0; slot < MAX_ROWS; slot++) {
+			if (cachedRows[slot] >= firstRow)
+				cachedRows[slot] = EMPTY;
+		}
+	}
+	
+	@Override
+	public void tableChanged(TableModelEvent e) {
+		if (e == null || e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE) {	// Structure or all data changed
+			invalidate();
+			return;
+		}
+		switch (e.getType()) {
+			case TableModelEvent.UPDATE:
+				invalidateRows(e.getFirstRow(), e.getLastRow(), e.getColumn());
+				break;
+			case TableModelEvent.INSERT:
+			case TableModelEvent.DELETE:
+				invalidateFrom(e.getFirstRow());	// Appended rows shift nothing, so nothing is dropped
+				break;
+			default:
+				invalidate();
+		}
+	}
+}
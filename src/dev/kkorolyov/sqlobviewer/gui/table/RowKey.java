@@ -0,0 +1,51 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import java.util.Arrays;
+
+import dev.kkorolyov.sqlob.construct.RowEntry;
+
+/**
+ * Identifies a row by the values of its entries.
+ * A key is a snapshot; later changes to the row it was created from do not affect it.
+ */
+public final class RowKey {
+	private final RowEntry[] row;
+	private final int hash;
+	
+	/**
+	 * Constructs a new key for a row.
+	 * @param row row to identify
+	 */
+	public RowKey(RowEntry[] row) {
+		this.row = Arrays.copyOf(row, row.length);
+		hash = computeHash(this.row);
+	}
+	private static int computeHash(RowEntry[] row) {
+		int result = 1;
+		
+		for (RowEntry entry : row)
+			result = 31 * result + ((entry == null || entry.getValue() == null) ? 0 : entry.getValue().hashCode());
+		
+		return result;
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof RowKey))
+			return false;
+		
+		RowKey other = (RowKey) obj;
+		return hash == other.hash && Arrays.equals(row, other.row);
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(row);
+	}
+}
@@ -0,0 +1,43 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import java.awt.Component;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+
+import dev.kkorolyov.sqlob.construct.SqlType;
+
+/**
+ * Renders {@code SQLObTable} cells using the display strings cached by the backing {@code SQLObTableModel}.
+ */
+public class SQLObCellRenderer extends DefaultTableCellRenderer {
+	private static final long serialVersionUID = -2215737816353271540L;
+
+	/**
+	 * Constructs a new cell renderer.
+	 * @param horizontalAlignment horizontal alignment of rendered values
+	 */
+	public SQLObCellRenderer(int horizontalAlignment) {
+		setHorizontalAlignment(horizontalAlignment);
+	}
+	
+	/**
+	 * @param type SQL type to render
+	 * @return renderer specialized for values of {@code type}, or {@code null} if the table's default renderer should be used
+	 */
+	public static SQLObCellRenderer forType(SqlType type) {
+		CellFormat format = CellFormat.of(type);
+		
+		return (format == CellFormat.BOOLEAN) ? null : new SQLObCellRenderer(format.getAlignment());
+	}
+	
+	@Override
+	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+		Object displayValue = value;
+		
+		if (table.getModel() instanceof SQLObTableModel)
+			displayValue = ((SQLObTableModel) table.getModel()).getDisplayValue(table.convertRowIndexToModel(row), table.convertColumnIndexToModel(column));
+		
+		return super.getTableCellRendererComponent(table, displayValue, isSelected, hasFocus, row, column);
+	}
+}
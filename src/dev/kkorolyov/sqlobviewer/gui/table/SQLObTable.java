@@ -1,11 +1,24 @@
 package dev.kkorolyov.sqlobviewer.gui.table;
 
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.ACTION_COPY;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.ACTION_FILTER_VALUE;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.ACTION_TIP_ADD_FILTER;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.ACTION_TIP_FILTER_VALUE;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.ACTION_TIP_REMOVE_FILTER;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_PROFILE_DISTINCT;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_PROFILE_NULL;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_PROFILE_QUANTILES;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_PROFILE_ROWS;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_PROFILE_SAMPLED;
 import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_TIP_CURRENT_FILTER;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.MESSAGE_TOO_MANY_VALUES;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.PROFILE_PICKER_MAX_VALUES;
+import static dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Keys.VIRTUAL_SCROLL_ROWS;
 
 import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.Window;
 import java.awt.datatransfer.StringSelection;
@@ -13,23 +26,33 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.PrintWriter;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.EventObject;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.regex.Pattern;
 
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.*;
 import javax.swing.text.JTextComponent;
 
-import dev.kkorolyov.simplelogs.Logger;
-import dev.kkorolyov.simplelogs.Logger.Level;
 import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfile;
+import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Config;
 import dev.kkorolyov.sqlobviewer.assets.ApplicationProperties.Lang;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
 import dev.kkorolyov.swingplus.JScrollablePopupMenu;
 
 /**
@@ -37,17 +60,23 @@ import dev.kkorolyov.swingplus.JScrollablePopupMenu;
  */
 public class SQLObTable extends JTable implements ChangeListener {
 	private static final long serialVersionUID = 899876032885503098L;
-	private static final int DEFAULT_POPUP_HEIGHT = 32;
+	private static final int DEFAULT_POPUP_HEIGHT = 32,
+														DEFAULT_VIRTUAL_VIEWPORT_ROWS = 32;
 	private static final String FILTER_MARKER = "*";
-	private static final Logger log = Logger.getLogger(SQLObTable.class.getName(), Level.DEBUG, (PrintWriter[]) null);
+	private static final Log log = Log.get(SQLObTable.class);
 
-	private int lastSelectedRow = -1,
-							lastSelectedColumn = -1;
+	private List<RowKey> selectedKeys = new ArrayList<>();
+	private RowKey leadKey;
+	private int lastSelectedColumn = -1;
 	private boolean selectionListenerActive = true;
+	private boolean virtualScrolling;
+	private int rowOffset;
 	private Map<Integer, RowFilter<SQLObTableModel, Integer>> filters = new HashMap<>();
 	private Map<Integer, String> filterStrings = new HashMap<>();
+	private Map<SqlType, TableCellRenderer> renderers = new EnumMap<>(SqlType.class);
 	
-	private JScrollPane scrollPane;
+	private VirtualScrollPane scrollPane;
+	private long sortStart = -1;
 	
 	private Set<ChangeListener> changeListeners = new CopyOnWriteArraySet<>();
 	
@@ -61,17 +90,14 @@ public class SQLObTable extends JTable implements ChangeListener {
 		
 		if (getSelectionModel() != null) {
 			getSelectionModel().addListSelectionListener(e -> {
-				if (selectionListenerActive) {
-					lastSelectedRow = getSelectedRow();
-					if (lastSelectedRow >= 0)
-						lastSelectedRow = lastSelectedRow < getRowCount() ? convertRowIndexToModel(lastSelectedRow) : -1;
-					
-					lastSelectedColumn = getSelectedColumn();
-					if (lastSelectedColumn >= 0)
-						lastSelectedColumn = lastSelectedColumn < getColumnCount() ? convertColumnIndexToModel(lastSelectedColumn) : -1;
-				}
+				if (selectionListenerActive && !e.getValueIsAdjusting())
+					saveSelection();
 			});
 		}
+		getColumnModel().getSelectionModel().addListSelectionListener(e -> {
+			if (selectionListenerActive && !e.getValueIsAdjusting())
+				saveSelectedColumn();
+		});
 		addMouseListener(new MouseAdapter() {
 			@Override
 			public void mouseClicked(MouseEvent e) {
@@ -105,9 +131,11 @@ public class SQLObTable extends JTable implements ChangeListener {
 				tryShowHeaderPopup(e);
 			}
 		});
+		setTransferHandler(new SQLObTableTransferHandler());	// Ctrl+C and Ctrl+V stream through the clipboard
 		setModel(model);
 		
-		scrollPane = new JScrollPane(this);
+		scrollPane = new VirtualScrollPane(this);
+		syncVirtualScrolling();
 	}
 	
 	/**
@@ -142,14 +170,14 @@ public class SQLObTable extends JTable implements ChangeListener {
 	 * @param column index of column to apply filter on
 	 */
 	public void addFilter(String filter, int column) {
-		String exactFilter = '^' + filter + '$';
+		String exactFilter = '^' + Pattern.quote(filter) + '$';	// Matched literally, so typed text never fails to compile
 		
 		filters.put(column, RowFilter.regexFilter(exactFilter, column));
 		filterStrings.put(column, filter);
 		
 		applyFilterMarker(column, true);
 		
-		log.debug("Added filter=" + exactFilter + " for column=" + getModel().getColumnName(column).toUpperCase());
+		log.debug(() -> "Added filter=" + exactFilter + " for column=" + getModel().getColumnName(column).toUpperCase());
 		
 		applyFilters();
 	}
@@ -164,9 +192,9 @@ public class SQLObTable extends JTable implements ChangeListener {
 		applyFilterMarker(column, false);
 		
 		if (removedFilter == null)
-			log.debug("No filter to remove for column=" + getModel().getColumnName(column).toUpperCase());
+			log.debug(() -> "No filter to remove for column=" + getModel().getColumnName(column).toUpperCase());
 		else
-			log.debug("Removed filter=" + removedFilterString + " for column=" + getModel().getColumnName(column).toUpperCase());
+			log.debug(() -> "Removed filter=" + removedFilterString + " for column=" + getModel().getColumnName(column).toUpperCase());
 		
 		applyFilters();
 	}
@@ -179,7 +207,10 @@ public class SQLObTable extends JTable implements ChangeListener {
 	}
 	
 	private void applyFilters() {
+		sortStart = System.nanoTime();
 		getCastedRowSorter().setRowFilter(RowFilter.andFilter(filters.values()));
+		
+		fireStateChanged();	// Filtered rows changed
 	}
 	
 	private void applyFilterMarker(int column, boolean enabled) {
@@ -197,6 +228,7 @@ public class SQLObTable extends JTable implements ChangeListener {
 	 * Sorts this table based on its sorter's current sort keys.
 	 */
 	public void sort() {
+		sortStart = System.nanoTime();
 		getCastedRowSorter().sort();
 	}
 	
@@ -210,11 +242,109 @@ public class SQLObTable extends JTable implements ChangeListener {
 		return new SQLObTable(getCastedModel().getEmptyTableModel());
 	}
 	
-	/*** @return auto-updating {@code JScrollPane} containing this table */
-	public JScrollPane getScrollPane() {
+	/*** @return auto-updating {@code VirtualScrollPane} containing this table */
+	public VirtualScrollPane getScrollPane() {
 		return scrollPane;
 	}
 	
+	/** @return {@code true} if only a window of rows is laid out, with vertical scrolling mapped to logical row position */
+	public boolean isVirtualScrolling() {
+		return virtualScrolling;
+	}
+	/** @param virtualScrolling whether only a window of rows should be laid out, with vertical scrolling mapped to logical row position */
+	public void setVirtualScrolling(boolean virtualScrolling) {
+		if (this.virtualScrolling == virtualScrolling)
+			return;
+		
+		this.virtualScrolling = virtualScrolling;
+		rowOffset = 0;
+		
+		if (scrollPane != null)
+			scrollPane.setVirtual(virtualScrolling);
+		
+		log.debug(() -> "Set virtual scrolling=" + virtualScrolling + " for " + getRowCount() + " rows");
+		
+		revalidate();
+		repaint();
+	}
+	private void syncVirtualScrolling() {
+		setVirtualScrolling(getModel().getRowCount() >= Config.getInt(VIRTUAL_SCROLL_ROWS));
+	}
+	
+	/** @return view index of the first laid-out row, always {@code 0} if not virtual scrolling */
+	public int getRowOffset() {
+		return rowOffset;
+	}
+	/**
+	 * Sets the view index of the first laid-out row.
+	 * Fires a {@code rowOffset} property change, which may be used to page in the rows of the new window.
+	 * Does nothing if not virtual scrolling.
+	 * @param offset new row offset, clamped to the range of valid offsets
+	 */
+	public void setRowOffset(int offset) {
+		if (!virtualScrolling)
+			return;
+		
+		int oldOffset = rowOffset;
+		rowOffset = Math.max(0, Math.min(offset, getRowCount() - getVisibleRowCapacity()));
+		
+		if (rowOffset != oldOffset) {
+			if (getEditorComponent() != null)
+				getEditorComponent().setBounds(getCellRect(getEditingRow(), getEditingColumn(), false));
+			
+			revalidate();
+			repaint();
+			
+			firePropertyChange("rowOffset", oldOffset, rowOffset);
+		}
+		if (scrollPane != null)
+			scrollPane.sync();
+	}
+	/** @return number of rows fitting in the visible area, or the total row count if not virtual scrolling */
+	public int getVisibleRowCapacity() {
+		if (!virtualScrolling)
+			return getRowCount();
+		
+		int viewportHeight = (scrollPane != null) ? scrollPane.getViewportHeight() : 0;
+		return Math.max(1, viewportHeight / getRowHeight());
+	}
+	/** @return number of rows currently laid out */
+	public int getWindowRowCount() {
+		return virtualScrolling ? Math.max(0, Math.min(getVisibleRowCapacity(), getRowCount() - rowOffset)) : getRowCount();
+	}
+	private void scrollRowToVisible(int row) {
+		if (row < 0 || row >= getRowCount())
+			return;
+		
+		if (row < rowOffset)
+			setRowOffset(row);
+		else if (row >= rowOffset + getVisibleRowCapacity())
+			setRowOffset(row - getVisibleRowCapacity() + 1);
+	}
+	
+	@Override
+	public Rectangle getCellRect(int row, int column, boolean includeSpacing) {
+		if (!virtualScrolling || row < 0 || row >= getRowCount())
+			return super.getCellRect(row, column, includeSpacing);
+		
+		Rectangle cell = super.getCellRect(0, column, includeSpacing);	// Column bounds and row height
+		long y = (long) (row - rowOffset) * getRowHeight() + cell.y;
+		cell.y = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, y));
+		
+		return cell;
+	}
+	@Override
+	public int rowAtPoint(Point point) {
+		if (!virtualScrolling)
+			return super.rowAtPoint(point);
+		
+		if (point.y < 0)
+			return -1;
+		
+		long row = rowOffset + (long) (point.y / getRowHeight());
+		return (row < getRowCount()) ? (int) row : -1;
+	}
+	
 	private void tryShowCellPopup(MouseEvent e) {
 		if (e.isPopupTrigger()) {
 			int row = rowAtPoint(e.getPoint()),
@@ -277,19 +407,55 @@ public class SQLObTable extends JTable implements ChangeListener {
 			
 			headerPopup.add(removeFilterItem);
 		}
+		JMenuItem typedFilterItem = new JMenuItem(Lang.get(ACTION_FILTER_VALUE));
+		typedFilterItem.setToolTipText(Lang.get(ACTION_TIP_FILTER_VALUE));
+		typedFilterItem.addActionListener(e -> displayFilterDialog(column));
+		
+		headerPopup.add(typedFilterItem);
 		headerPopup.addSeparator();
 		
-		for (Object value : getCastedModel().getUniqueValues(column)) {
-			if (!value.toString().equals(filterValue)) {
-				JMenuItem currentFilterItem = new JMenuItem(value.toString());
-				currentFilterItem.setToolTipText(Lang.get(ACTION_TIP_ADD_FILTER) + ": " + value);
-				currentFilterItem.addActionListener(e -> addFilter(value.toString(), column));
-				
-				headerPopup.add(currentFilterItem);
+		ColumnProfile profile = getCastedModel().getProfile(convertColumnIndexToModel(column));
+		if (profile != null && profile.getDistinct() > Config.getInt(PROFILE_PICKER_MAX_VALUES)) {	// Too many values to pick from, so skip collecting them
+			JMenuItem tooManyItem = new JMenuItem("~" + NumberFormat.getIntegerInstance().format(profile.getDistinct()) + " " + Lang.get(MESSAGE_TOO_MANY_VALUES));
+			tooManyItem.setEnabled(false);
+			
+			headerPopup.add(tooManyItem);
+		} else {
+			for (Object value : getCastedModel().getUniqueValues(column)) {
+				if (!value.toString().equals(filterValue)) {
+					JMenuItem currentFilterItem = new JMenuItem(value.toString());
+					currentFilterItem.setToolTipText(Lang.get(ACTION_TIP_ADD_FILTER) + ": " + value);
+					currentFilterItem.addActionListener(e -> addFilter(value.toString(), column));
+					
+					headerPopup.add(currentFilterItem);
+				}
 			}
 		}
 		return headerPopup;
 	}
+	private void displayFilterDialog(int column) {
+		String filter = JOptionPane.showInputDialog(this, getColumnName(column), getFilterValue(column));
+		
+		if (filter != null && filter.length() > 0)
+			addFilter(filter, column);
+	}
+	
+	@Override
+	public TableCellRenderer getCellRenderer(int row, int column) {
+		SQLObTableModel model = getCastedModel();
+		
+		if (model != null && getColumnModel().getColumn(column).getCellRenderer() == null) {
+			SqlType type = model.getColumn(convertColumnIndexToModel(column)).getType();
+			
+			if (!renderers.containsKey(type))
+				renderers.put(type, SQLObCellRenderer.forType(type));
+			
+			TableCellRenderer renderer = renderers.get(type);
+			if (renderer != null)
+				return renderer;
+		}
+		return super.getCellRenderer(row, column);
+	}
 	
 	@Override
 	public boolean editCellAt(int row, int column, EventObject e) {
@@ -309,14 +475,67 @@ public class SQLObTable extends JTable implements ChangeListener {
 		}
 	}
 	
+	@Override
+	public Dimension getPreferredSize() {
+		Dimension preferred = super.getPreferredSize();
+		
+		if (virtualScrolling)
+			preferred.height = getWindowRowCount() * getRowHeight();
+		
+		return preferred;
+	}
 	@Override
 	public Dimension getPreferredScrollableViewportSize() {
-		return new Dimension((int) super.getPreferredScrollableViewportSize().getWidth(), (getRowHeight() * getRowCount()));
+		int rows = virtualScrolling ? DEFAULT_VIRTUAL_VIEWPORT_ROWS : getRowCount();
+		
+		return new Dimension((int) super.getPreferredScrollableViewportSize().getWidth(), (int) Math.min(Integer.MAX_VALUE, (long) getRowHeight() * rows));
 	}
 	@Override
 	public boolean getFillsViewportHeight() {
 		return true;
 	}
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return !virtualScrolling && super.getScrollableTracksViewportHeight();	// A virtual window never fills partial rows
+	}
+	
+	@Override
+	public void setRowSorter(RowSorter<? extends TableModel> sorter) {
+		super.setRowSorter(sorter);
+		
+		if (sorter != null) {
+			sorter.addRowSorterListener(e -> {
+				if (e.getType() == RowSorterEvent.Type.SORT_ORDER_CHANGED) {	// Header clicks sort right after changing order
+					sortStart = System.nanoTime();
+				} else if (sortStart >= 0) {
+					Metrics.record(Metrics.SORT, sortStart, getRowCount(), 0);
+					sortStart = -1;
+				}
+			});
+		}
+	}
+	
+	@Override
+	protected void paintComponent(Graphics g) {
+		long start = System.nanoTime();
+		super.paintComponent(g);
+		
+		Rectangle clip = g.getClipBounds();
+		Metrics.record(Metrics.PAINT, start, (clip != null) ? clip.height / Math.max(1, getRowHeight()) + 1 : getWindowRowCount(), 0);
+	}
+	
+	@Override
+	public void tableChanged(TableModelEvent e) {
+		super.tableChanged(e);
+		
+		if (scrollPane != null && e != null && e.getType() == TableModelEvent.INSERT) {	// Appended rows arrive without a state change
+			syncVirtualScrolling();
+			setRowOffset(rowOffset);
+		}
+		if (selectionListenerActive && e != null && e.getType() == TableModelEvent.UPDATE
+				&& e.getFirstRow() >= 0 && e.getLastRow() < Integer.MAX_VALUE && getSelectedRowCount() > 0)
+			saveSelection();	// Selected rows may have been edited, so their saved keys hold stale values
+	}
 	
 	@Override
 	public void setModel(TableModel dataModel) {
@@ -325,6 +544,9 @@ public class SQLObTable extends JTable implements ChangeListener {
 		
 		super.setModel(dataModel != null ? dataModel : new DefaultTableModel());
 		
+		if (scrollPane != null)
+			syncVirtualScrolling();
+		
 		if (dataModel instanceof SQLObTableModel) {
 			SQLObTableModel castedModel = (SQLObTableModel) dataModel;
 			castedModel.addChangeListener(this);
@@ -355,15 +577,113 @@ public class SQLObTable extends JTable implements ChangeListener {
 		
 		selectionListenerActive = oldSelectionListenerActive;	// Ok to listen to selection changes again
 		
-		if (lastSelectedRow >= 0 && lastSelectedColumn >= 0)
-			changeSelection(convertRowIndexToView(lastSelectedRow), convertColumnIndexToView(lastSelectedColumn), false, false);
+		syncVirtualScrolling();
+		setRowOffset(rowOffset);	// Re-clamp to new row count
+		
+		restoreSelection();
 		
 		revalidate();
 		repaint();
 	}
 	
+	private void saveSelection() {
+		SQLObTableModel model = getCastedModel();
+		if (model == null)
+			return;
+		
+		selectedKeys.clear();
+		leadKey = null;
+		
+		int lead = getSelectionModel().getLeadSelectionIndex();
+		for (int viewIndex : getSelectedRows()) {
+			if (viewIndex < getRowCount()) {
+				RowKey key = model.getRowKey(convertRowIndexToModel(viewIndex));
+				selectedKeys.add(key);
+				
+				if (viewIndex == lead)
+					leadKey = key;
+			}
+		}
+		saveSelectedColumn();
+	}
+	private void saveSelectedColumn() {
+		lastSelectedColumn = getSelectedColumn();
+		if (lastSelectedColumn >= 0)
+			lastSelectedColumn = lastSelectedColumn < getColumnCount() ? convertColumnIndexToModel(lastSelectedColumn) : -1;
+	}
+	
+	/**
+	 * Reselects the rows identified by the saved selection keys at their current view indices.
+	 * Each key is looked up in the model's row index, which the model rebuilds over all its rows on the first lookup after its data is set.
+	 * Restoring a selection after a refresh therefore costs one O(rows) index rebuild, recorded as {@link Metrics#INDEX}, plus O(selected) lookups.
+	 */
+	private void restoreSelection() {
+		SQLObTableModel model = getCastedModel();
+		if (model == null || selectedKeys.isEmpty() || lastSelectedColumn < 0 || lastSelectedColumn >= getColumnCount())
+			return;
+		
+		int[] viewIndices = new int[selectedKeys.size()];
+		int found = 0,
+				leadIndex = -1;
+		
+		for (RowKey key : selectedKeys) {
+			int modelIndex = model.getIndex(key);
+			int viewIndex = (modelIndex >= 0) ? convertRowIndexToView(modelIndex) : -1;
+			
+			if (viewIndex >= 0) {
+				viewIndices[found++] = viewIndex;
+				
+				if (key.equals(leadKey))
+					leadIndex = viewIndex;
+			}
+		}
+		if (found <= 0)
+			return;
+		
+		Arrays.sort(viewIndices, 0, found);
+		if (leadIndex < 0)
+			leadIndex = viewIndices[0];
+		
+		boolean oldSelectionListenerActive = selectionListenerActive;
+		selectionListenerActive = false;
+		
+		ListSelectionModel rowSelection = getSelectionModel();
+		rowSelection.setValueIsAdjusting(true);
+		
+		int rangeStart = viewIndices[0];
+		for (int i = 1; i <= found; i++) {
+			if (i == found || viewIndices[i] > viewIndices[i - 1] + 1) {	// End of contiguous range
+				rowSelection.addSelectionInterval(rangeStart, viewIndices[i - 1]);
+				
+				if (i < found)
+					rangeStart = viewIndices[i];
+			}
+		}
+		rowSelection.addSelectionInterval(leadIndex, leadIndex);	// Restore lead
+		
+		int viewColumn = convertColumnIndexToView(lastSelectedColumn);
+		getColumnModel().getSelectionModel().setSelectionInterval(viewColumn, viewColumn);
+		
+		rowSelection.setValueIsAdjusting(false);
+		
+		selectionListenerActive = oldSelectionListenerActive;
+		
+		if (virtualScrolling)
+			scrollRowToVisible(leadIndex);
+		else
+			scrollRectToVisible(getCellRect(leadIndex, viewColumn, true));
+		
+		int restored = found;
+		log.debug(() -> "Restored selection of " + restored + "/" + selectedKeys.size() + " rows");
+		
+		fireStateChanged();
+	}
+	
 	@Override
 	public void changeSelection(int rowIndex, int columnIndex, boolean toggle, boolean extend) {
+		if (virtualScrolling)
+			scrollRowToVisible(rowIndex);
+		
 		super.changeSelection(rowIndex, columnIndex, toggle, extend);
 		
 		fireStateChanged();
@@ -387,10 +707,42 @@ public class SQLObTable extends JTable implements ChangeListener {
 						modelColumnIndex = (viewColumnIndex < 0) ? -1 : convertColumnIndexToModel(viewColumnIndex);
 								
 				String filterString = (modelColumnIndex < 0) ? null : getFilterValue(modelColumnIndex);
-				return filterString == null ? filterString : (Lang.get(MESSAGE_TIP_CURRENT_FILTER) + ": " + filterString);
+				ColumnProfile profile = (modelColumnIndex < 0 || getCastedModel() == null) ? null : getCastedModel().getProfile(modelColumnIndex);
+				
+				return buildHeaderTip(filterString, profile);
 			};
 		};
 	}
+	private static String buildHeaderTip(String filterString, ColumnProfile profile) {
+		if (profile == null)
+			return filterString == null ? filterString : (Lang.get(MESSAGE_TIP_CURRENT_FILTER) + ": " + filterString);
+		
+		NumberFormat format = NumberFormat.getNumberInstance(),
+								 percent = NumberFormat.getPercentInstance();
+		percent.setMaximumFractionDigits(1);
+		
+		StringBuilder tip = new StringBuilder("<html>");
+		if (filterString != null)
+			tip.append(escape(Lang.get(MESSAGE_TIP_CURRENT_FILTER) + ": " + filterString)).append("<br>");
+		
+		tip.append(profile.isSampled() ? "&ge;" : "~").append(format.format(profile.getDistinct())).append(' ').append(escape(Lang.get(MESSAGE_PROFILE_DISTINCT)))
+			 .append(", ").append(percent.format(profile.getNullFraction())).append(' ').append(escape(Lang.get(MESSAGE_PROFILE_NULL)));
+		
+		Object[] quantiles = profile.getQuantiles();
+		if (quantiles.length > 0) {
+			tip.append("<br>").append(escape(Lang.get(MESSAGE_PROFILE_QUANTILES))).append(": ");
+			
+			for (int i = 0; i < quantiles.length; i++)
+				tip.append(i > 0 ? " | " : "").append(escape(quantiles[i] instanceof Number ? format.format(quantiles[i]) : String.valueOf(quantiles[i])));
+		}
+		if (profile.isSampled())
+			tip.append("<br>").append(escape(Lang.get(MESSAGE_PROFILE_SAMPLED))).append(' ').append(format.format(profile.getSampleRows())).append(" / ").append(format.format(profile.getRows())).append(' ').append(escape(Lang.get(MESSAGE_PROFILE_ROWS)));
+		
+		return tip.append("</html>").toString();
+	}
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
 	
 	private void fireStateChanged() {
 		for (ChangeListener listener : changeListeners)
@@ -1,6 +1,6 @@
 package dev.kkorolyov.sqlobviewer.gui.table;
 
-import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -8,24 +8,30 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.table.AbstractTableModel;
 
-import dev.kkorolyov.simplelogs.Logger;
-import dev.kkorolyov.simplelogs.Logger.Level;
 import dev.kkorolyov.sqlob.construct.Column;
 import dev.kkorolyov.sqlob.construct.MismatchedTypeException;
 import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfile;
 import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestListener;
 import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestSubject;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
 
 /**
  * A {@code TableModel} backed by {@code SQLOb} data.
  */
 public class SQLObTableModel extends AbstractTableModel implements SqlRequestSubject {
 	private static final long serialVersionUID = 8155987048579413913L;
-	private static final Logger log = Logger.getLogger(SQLObTableModel.class.getName(), Level.DEBUG, (PrintWriter[]) null);
+	private static final Log log = Log.get(SQLObTableModel.class);
 
 	private List<Column> columns = new LinkedList<>();
-	private List<RowEntry[]> data = new LinkedList<>();
+	private List<RowEntry[]> data = new ArrayList<>();
 	private boolean editable;
+	private DisplayValueCache displayValues = new DisplayValueCache(this);
+	private Map<RowKey, Integer> rowIndices = new HashMap<>();
+	private ColumnProfile[] profiles;
+	private boolean duplicateRows,
+									indexed;
 	
 	private Set<SqlRequestListener> sqlRequestListeners = new CopyOnWriteArraySet<>();
 	private Set<ChangeListener> changeListeners = new CopyOnWriteArraySet<>();
@@ -37,6 +43,8 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 	 * @param isEditable whether the data in this model may be edited
 	 */
 	public SQLObTableModel(Column[] columns, RowEntry[][] data, boolean isEditable) {	// TODO Table name
+		addTableModelListener(displayValues);
+		
 		setData(columns, data);
 		setEditable(isEditable);
 	}
@@ -51,7 +59,7 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 		for (RowEntry[] row : data)
 			uniqueValues.add(row[column].getValue());
 		
-		log.debug("Returning " + uniqueValues.size() + " unique values for column=" + getColumnName(column).toUpperCase());
+		log.debug(() -> "Returning " + uniqueValues.size() + " unique values for column=" + getColumnName(column).toUpperCase());
 		return uniqueValues.toArray(new Object[uniqueValues.size()]);
 	}
 	
@@ -70,6 +78,8 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 	 * @param newData new data
 	 */
 	public void setData(Column[] newColumns, RowEntry[][] newData) {
+		long start = System.nanoTime();
+		
 		Arrays.sort(newData, new Comparator<RowEntry[]>() {
 			Comparator<RowEntry> innerComparator = new Comparator<RowEntry>() {
 				@Override
@@ -93,15 +103,43 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 		for (RowEntry[] datum : newData)
 			data.add(datum);
 		
+		invalidateIndex();	// Rebuilt once a row is next looked up
+		
+		if (columnsChanged || dataChanged) {
+			displayValues.invalidate();
+			profiles = null;
+		}
+		
+		Metrics.record(Metrics.SET_DATA, start, newData.length, 0);	// Sort and diff; listeners measure their own work
+		
 		if (columnsChanged) {
-			log.debug(this + ": COLUMNS CHANGED (current column count=" + getColumnCount() + ")");
+			log.debug(() -> this + ": COLUMNS CHANGED (current column count=" + getColumnCount() + ")");
 			fireTableChanged(null);
 		}
 		if (dataChanged)
-			log.debug(this + ": DATA CHANGED (current row count=" + getRowCount() + ")");
+			log.debug(() -> this + ": DATA CHANGED (current row count=" + getRowCount() + ")");
 			fireStateChanged();
 	}
 	
+	/**
+	 * @param column column index
+	 * @return profile of the column, or {@code null} if this model's current data is not profiled
+	 */
+	public ColumnProfile getProfile(int column) {
+		return (profiles != null && column >= 0 && column < profiles.length) ? profiles[column] : null;
+	}
+	/** @return {@code true} if this model's current data is profiled */
+	public boolean isProfiled() {
+		return profiles != null;
+	}
+	/**
+	 * Sets the profiles of this model's columns, cleared once this model's columns or data are next set.
+	 * @param newProfiles profile of each column, in order
+	 */
+	public void setProfiles(ColumnProfile[] newProfiles) {
+		profiles = newProfiles;
+	}
+	
 	/** @return {@code true} if the data in this model may be edited */
 	public boolean isEditable() {
 		return editable;
@@ -188,21 +226,72 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 	public RowEntry[] getRow(int index) {
 		return data.get(index);
 	}
+	/**
+	 * @param index row index
+	 * @return key identifying the row at the specified index
+	 */
+	public RowKey getRowKey(int index) {
+		return new RowKey(data.get(index));
+	}
+	
 	/**
 	 * @param row row to search for
 	 * @return index of the first occuring match, or {@code -1} if not found
 	 */
 	public int getIndex(RowEntry[] row) {
-		log.debug("Searching for row: " + row);
+		return getIndex(new RowKey(row));
+	}
+	/**
+	 * @param key key of row to search for
+	 * @return index of the first occuring row identified by {@code key}, or {@code -1} if not found
+	 */
+	public int getIndex(RowKey key) {
+		ensureIndexed();
+		Integer index = rowIndices.get(key);
 		
-		for (int i = 0; i < data.size(); i++) {
-			if (Arrays.equals(data.get(i), row)) {
-				log.debug("Found a matching row at index: " + i);
-				return i;
-			}
-		}
-		log.debug("Failed to find a matching row");
-		return -1;
+		return (index != null) ? index : -1;
+	}
+	
+	private void ensureIndexed() {
+		if (indexed)
+			return;
+		
+		long start = System.nanoTime();
+		
+		indexed = true;
+		for (int i = 0; i < data.size(); i++)
+			indexRow(i);
+		
+		Metrics.record(Metrics.INDEX, start, data.size(), 0);
+	}
+	private void invalidateIndex() {
+		rowIndices.clear();
+		duplicateRows = false;
+		indexed = false;
+	}
+	private void indexRow(int index) {
+		if (indexed && rowIndices.putIfAbsent(new RowKey(data.get(index)), index) != null)
+			duplicateRows = true;
+	}
+	private void unindexRow(int index) {
+		if (!indexed)
+			return;
+		
+		RowKey key = new RowKey(data.get(index));
+		
+		if (duplicateRows)
+			invalidateIndex();	// A duplicate may need to take over the removed key
+		else if (Integer.valueOf(index).equals(rowIndices.get(key)))
+			rowIndices.remove(key);
+	}
+	
+	/**
+	 * @param rowIndex row index
+	 * @param columnIndex column index
+	 * @return formatted display string of the value at the specified cell
+	 */
+	public String getDisplayValue(int rowIndex, int columnIndex) {
+		return displayValues.get(rowIndex, columnIndex);
 	}
 	
 	@Override
@@ -214,11 +303,16 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 		if (!Objects.equals(getValueAt(rowIndex, columnIndex), value)) {	// No point updating with equal value
 			RowEntry[] criteria = saveRow(rowIndex);
 			
+			RowEntry newEntry;
 			try {
-				data.get(rowIndex)[columnIndex] = new RowEntry(columns.get(columnIndex), value);
+				newEntry = new RowEntry(columns.get(columnIndex), value);
 			} catch (MismatchedTypeException e) {
 				throw new RuntimeException(e);
 			}
+			unindexRow(rowIndex);
+			data.get(rowIndex)[columnIndex] = newEntry;
+			indexRow(rowIndex);
+			
 			RowEntry[] newValues = saveRow(rowIndex);	// New values after updating table value
 			
 			fireTableRowsUpdated(rowIndex, rowIndex);
@@ -232,21 +326,177 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 	 */
 	public void insertRow(RowEntry[] newRow) {
 		data.add(newRow);
+		indexRow(data.size() - 1);
 		
 		fireTableRowsInserted(data.size() - 1, data.size() - 1);
 		requestInsertRow(newRow);
 	}
+	/**
+	 * Sets the values of several rows as a single request.
+	 * Rows with no changed values are left out of the request.
+	 * @param rowIndices index of each row to set
+	 * @param columnIndices index of the column each value of a row is set in
+	 * @param values new values of each row; values past the last of {@code columnIndices} are ignored
+	 */
+	public void setValuesAt(int[] rowIndices, int[] columnIndices, Object[][] values) {
+		List<RowEntry[]> newValues = new ArrayList<>(rowIndices.length),
+										 criteria = new ArrayList<>(rowIndices.length);
+		int firstUpdated = Integer.MAX_VALUE,
+				lastUpdated = -1;
+		
+		for (int i = 0; i < rowIndices.length; i++) {
+			int rowIndex = rowIndices[i];
+			RowEntry[] oldRow = saveRow(rowIndex),
+								 newRow = saveRow(rowIndex);
+			boolean changed = false;
+			
+			for (int j = 0; j < values[i].length && j < columnIndices.length; j++) {
+				int column = columnIndices[j];
+				
+				if (!Objects.equals(oldRow[column].getValue(), values[i][j])) {
+					try {
+						newRow[column] = new RowEntry(columns.get(column), values[i][j]);
+					} catch (MismatchedTypeException e) {
+						throw new RuntimeException(e);
+					}
+					changed = true;
+				}
+			}
+			if (changed) {
+				unindexRow(rowIndex);
+				System.arraycopy(newRow, 0, data.get(rowIndex), 0, newRow.length);
+				indexRow(rowIndex);
+				
+				newValues.add(newRow);
+				criteria.add(oldRow);
+				firstUpdated = Math.min(firstUpdated, rowIndex);
+				lastUpdated = Math.max(lastUpdated, rowIndex);
+			}
+		}
+		if (newValues.isEmpty())
+			return;
+		
+		fireTableRowsUpdated(firstUpdated, lastUpdated);
+		requestUpdateRows(newValues.toArray(new RowEntry[newValues.size()][]), criteria.toArray(new RowEntry[criteria.size()][]));
+	}
+	/**
+	 * Inserts several rows as a single request.
+	 * @param newRows rows to insert
+	 */
+	public void insertRows(RowEntry[][] newRows) {
+		if (newRows.length == 0)
+			return;
+		
+		int first = data.size();
+		for (RowEntry[] newRow : newRows) {
+			data.add(newRow);
+			indexRow(data.size() - 1);
+		}
+		fireTableRowsInserted(first, data.size() - 1);
+		requestInsertRows(newRows);
+	}
+	/**
+	 * Appends rows without requesting their insertion, e.g. as they are fetched by a query.
+	 * @param newRows rows to append
+	 */
+	public void appendRows(RowEntry[][] newRows) {
+		if (newRows.length == 0)
+			return;
+		
+		int first = data.size();
+		for (RowEntry[] newRow : newRows) {
+			data.add(newRow);
+			indexRow(data.size() - 1);
+		}
+		fireTableRowsInserted(first, data.size() - 1);
+	}
+	
+	/**
+	 * Parses a value the same way a cell editor would.
+	 * @param text text of a value, e.g. as pasted
+	 * @param column index of column the value is for
+	 * @return value of {@code text} as the column's type, or {@code null} if {@code text} is {@code null} or empty
+	 * @throws IllegalArgumentException if {@code text} is not a valid value of the column's type
+	 */
+	public Object parseValue(String text, int column) {
+		if (text == null || text.isEmpty())
+			return null;
+		
+		Class<?> type = getColumnClass(column);
+		if (type == String.class || type == Object.class)
+			return text;
+		
+		try {
+			return type.getConstructor(String.class).newInstance(text.trim());
+		} catch (InvocationTargetException e) {
+			throw new IllegalArgumentException("Not a valid " + type.getSimpleName() + ": " + text, e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("Unsupported column type: " + type, e);
+		}
+	}
+	
 	/**
 	 * Deletes all rows matching the specified criteria.
 	 * @param criteria criteria to match
 	 */
 	public void deleteRow(RowEntry[] criteria) {
-		int index;
-		while ((index = getIndex(criteria)) >= 0) {
-			data.remove(index);
-			fireTableRowsDeleted(index, index);
+		deleteRows(new RowEntry[][] {criteria});
+	}
+	/**
+	 * Deletes all rows matching any of the specified criteria, scanning rows at most once however many criteria there are.
+	 * Each criteria is requested as its own deletion.
+	 * @param criteria criteria to match
+	 */
+	public void deleteRows(RowEntry[][] criteria) {
+		if (criteria.length == 1)
+			ensureIndexed();
+		
+		if (criteria.length == 1 && !duplicateRows) {	// Only row matching is indexed
+			int index = getIndex(criteria[0]);
+			if (index >= 0)
+				removeRow(index);
+		} else if (criteria.length > 0) {
+			removeRows(criteria);
+		}
+		for (RowEntry[] criterion : criteria)
+			requestDeleteRow(criterion);
+	}
+	private void removeRow(int index) {
+		rowIndices.remove(new RowKey(data.remove(index)));
+		rowIndices.replaceAll((key, i) -> (i > index) ? i - 1 : i);	// Following rows shifted, no rehashing needed
+		
+		fireTableRowsDeleted(index, index);
+	}
+	private void removeRows(RowEntry[][] criteria) {
+		Set<RowKey> keys = new HashSet<>();
+		for (RowEntry[] criterion : criteria)
+			keys.add(new RowKey(criterion));
+		
+		int kept = 0,
+				first = -1,
+				last = -1;
+		for (int i = 0; i < data.size(); i++) {
+			RowEntry[] row = data.get(i);
+			
+			if (keys.contains(new RowKey(row))) {
+				if (first < 0)
+					first = i;
+				last = i;
+			} else {
+				data.set(kept++, row);
+			}
 		}
-		requestDeleteRow(criteria);
+		int removed = data.size() - kept;
+		if (removed <= 0)
+			return;
+		
+		data.subList(kept, data.size()).clear();
+		invalidateIndex();
+		
+		if (last - first + 1 == removed)
+			fireTableRowsDeleted(first, last);
+		else
+			fireTableDataChanged();	// One event rather than one per scattered row
 	}
 	
 	@Override
@@ -271,6 +521,14 @@ public class SQLObTableModel extends AbstractTableModel implements SqlRequestSub
 		for (SqlRequestListener listener : sqlRequestListeners)
 			listener.insertRow(rowValues, this);
 	}
+	private void requestUpdateRows(RowEntry[][] newValues, RowEntry[][] criteria) {
+		for (SqlRequestListener listener : sqlRequestListeners)
+			listener.updateRows(newValues, criteria, this);
+	}
+	private void requestInsertRows(RowEntry[][] rows) {
+		for (SqlRequestListener listener : sqlRequestListeners)
+			listener.insertRows(rows, this);
+	}
 	private void requestDeleteRow(RowEntry[] criteria) {		
 		for (SqlRequestListener listener : sqlRequestListeners)
 			listener.deleteRow(criteria, this);
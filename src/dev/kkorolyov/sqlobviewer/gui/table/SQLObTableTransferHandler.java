@@ -0,0 +1,149 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JComponent;
+import javax.swing.TransferHandler;
+import javax.swing.UIManager;
+
+import dev.kkorolyov.sqlob.construct.MismatchedTypeException;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * Copies the selected cells of a {@code SQLObTable} as streamed tab-separated text, and pastes tab-separated text as a single update of existing rows followed by a single insert of any remaining rows.
+ */
+class SQLObTableTransferHandler extends TransferHandler {
+	private static final long serialVersionUID = -3263807460815217413L;
+	private static final Log log = Log.get(SQLObTableTransferHandler.class);
+
+	@Override
+	public int getSourceActions(JComponent c) {
+		return COPY;
+	}
+
+	@Override
+	protected Transferable createTransferable(JComponent c) {
+		SQLObTable table = (SQLObTable) c;
+		int[] viewRows = table.getSelectedRows();
+		if (viewRows.length <= 0)
+			return null;
+
+		int[] viewColumns = table.getColumnSelectionAllowed() ? table.getSelectedColumns() : allColumns(table);
+		int[] columns = new int[viewColumns.length];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = table.convertColumnIndexToModel(viewColumns[i]);
+
+		RowEntry[][] rows = new RowEntry[viewRows.length][];	// References only, text is written once pasted
+		for (int i = 0; i < rows.length; i++)
+			rows[i] = table.getRow(viewRows[i]);
+
+		log.debug(() -> "Copying " + rows.length + " rows of " + columns.length + " columns");
+		return new TsvTransferable(rows, columns);
+	}
+	private static int[] allColumns(SQLObTable table) {
+		int[] columns = new int[table.getColumnCount()];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = i;
+
+		return columns;
+	}
+
+	@Override
+	public boolean canImport(TransferSupport support) {
+		if (support.isDrop() || !(support.getComponent() instanceof SQLObTable))
+			return false;
+
+		SQLObTable table = (SQLObTable) support.getComponent();
+		if (!(table.getModel() instanceof SQLObTableModel) || !((SQLObTableModel) table.getModel()).isEditable())
+			return false;
+
+		return support.isDataFlavorSupported(TsvTransferable.READER_FLAVOR) || support.isDataFlavorSupported(DataFlavor.stringFlavor);
+	}
+
+	/**
+	 * Pastes lines starting at the first selected row and column, updating existing rows and inserting rows past the last row.
+	 * If nothing is selected, every line is inserted as a new row.
+	 * Nothing is changed if any value does not parse as its column's type.
+	 */
+	@Override
+	public boolean importData(TransferSupport support) {
+		if (!canImport(support))
+			return false;
+
+		SQLObTable table = (SQLObTable) support.getComponent();
+		SQLObTableModel model = (SQLObTableModel) table.getModel();
+
+		int firstRow = table.getSelectedRow(),
+				firstColumn = (firstRow >= 0) ? Math.max(0, table.getSelectedColumn()) : 0;
+		int[] columns = new int[table.getColumnCount() - firstColumn];
+		for (int i = 0; i < columns.length; i++)
+			columns[i] = table.convertColumnIndexToModel(firstColumn + i);
+
+		List<Object[]> values = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(openReader(support.getTransferable()))) {
+			String line;
+			while ((line = reader.readLine()) != null)
+				values.add(parseLine(line, columns, model));
+		} catch (IOException | UnsupportedFlavorException | IllegalArgumentException e) {
+			log.exception(e);
+			UIManager.getLookAndFeel().provideErrorFeedback(table);
+			return false;
+		}
+		int updated = (firstRow < 0) ? 0 : Math.min(values.size(), table.getRowCount() - firstRow);
+
+		int[] rowIndices = new int[updated];
+		for (int i = 0; i < updated; i++)
+			rowIndices[i] = table.convertRowIndexToModel(firstRow + i);
+
+		RowEntry[][] newRows = new RowEntry[values.size() - updated][];
+		try {
+			for (int i = 0; i < newRows.length; i++)
+				newRows[i] = buildRow(values.get(updated + i), columns, model);
+		} catch (MismatchedTypeException e) {
+			log.exception(e);
+			UIManager.getLookAndFeel().provideErrorFeedback(table);
+			return false;
+		}
+		log.debug(() -> "Pasting " + rowIndices.length + " updated rows and " + newRows.length + " inserted rows");
+
+		if (rowIndices.length > 0)
+			model.setValuesAt(rowIndices, columns, values.subList(0, updated).toArray(new Object[updated][]));
+		model.insertRows(newRows);
+
+		return true;
+	}
+	private static Reader openReader(Transferable transferable) throws IOException, UnsupportedFlavorException {
+		if (transferable.isDataFlavorSupported(TsvTransferable.READER_FLAVOR))
+			return (Reader) transferable.getTransferData(TsvTransferable.READER_FLAVOR);
+
+		return new StringReader((String) transferable.getTransferData(DataFlavor.stringFlavor));
+	}
+	private static Object[] parseLine(String line, int[] columns, SQLObTableModel model) {
+		String[] fields = TsvTransferable.parseLine(line);
+		Object[] values = new Object[Math.min(fields.length, columns.length)];
+
+		for (int i = 0; i < values.length; i++)
+			values[i] = model.parseValue(fields[i], columns[i]);
+
+		return values;
+	}
+	private static RowEntry[] buildRow(Object[] values, int[] columns, SQLObTableModel model) throws MismatchedTypeException {
+		RowEntry[] row = new RowEntry[model.getColumnCount()];
+		for (int i = 0; i < row.length; i++)
+			row[i] = new RowEntry(model.getColumn(i), null);	// Columns not pasted are inserted as null
+
+		for (int i = 0; i < values.length; i++)
+			row[columns[i]] = new RowEntry(model.getColumn(columns[i]), values[i]);
+
+		return row;
+	}
+}
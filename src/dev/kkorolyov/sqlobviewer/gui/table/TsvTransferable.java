@@ -0,0 +1,149 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.export.ExportFormat;
+
+/**
+ * Transfers table cells as tab-separated text, one line per row.
+ * Only references to the transferred rows are held; text is written a row at a time as it is read, and only once it is requested.
+ * Text uses the escaping of {@link ExportFormat#TSV}, and so is parsed back by {@link #parseLine(String)}.
+ */
+public class TsvTransferable implements Transferable {
+	/** Flavor of tab-separated text read incrementally through a {@code Reader} */
+	public static final DataFlavor READER_FLAVOR = new DataFlavor("text/plain; class=java.io.Reader", "Tab-separated text");
+
+	private static final DataFlavor[] FLAVORS = {READER_FLAVOR, DataFlavor.stringFlavor};
+
+	private final RowEntry[][] rows;
+	private final int[] columns;
+
+	/**
+	 * Constructs a new transferable.
+	 * @param rows transferred rows, in order
+	 * @param columns index of each transferred column of each row, in order
+	 */
+	public TsvTransferable(RowEntry[][] rows, int[] columns) {
+		this.rows = rows;
+		this.columns = columns;
+	}
+
+	@Override
+	public DataFlavor[] getTransferDataFlavors() {
+		return FLAVORS.clone();
+	}
+	@Override
+	public boolean isDataFlavorSupported(DataFlavor flavor) {
+		for (DataFlavor supported : FLAVORS) {
+			if (supported.equals(flavor))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException, IOException {
+		if (READER_FLAVOR.equals(flavor))
+			return new TsvReader();
+		if (DataFlavor.stringFlavor.equals(flavor)) {	// Built only if a consumer cannot stream
+			StringBuilder text = new StringBuilder();
+			char[] buffer = new char[8192];
+
+			try (Reader reader = new TsvReader()) {
+				int read;
+				while ((read = reader.read(buffer)) > 0)
+					text.append(buffer, 0, read);
+			}
+			return text.toString();
+		}
+		throw new UnsupportedFlavorException(flavor);
+	}
+
+	/**
+	 * Parses a line of tab-separated text.
+	 * @param line line to parse, without its line break
+	 * @return unescaped value of each field of {@code line}, with an empty field as {@code null}
+	 */
+	public static String[] parseLine(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+
+		for (int i = 0; i <= line.length(); i++) {
+			char c = (i < line.length()) ? line.charAt(i) : '\t';
+
+			if (c == '\t') {
+				fields.add(field.length() > 0 ? field.toString() : null);
+				field.setLength(0);
+			} else if (c == '\\' && i + 1 < line.length()) {
+				char escaped = line.charAt(++i);
+				switch (escaped) {
+					case 't':
+						field.append('\t');
+						break;
+					case 'n':
+						field.append('\n');
+						break;
+					case 'r':
+						field.append('\r');
+						break;
+					case '\\':
+						field.append('\\');
+						break;
+					default:	// Not an escape, e.g. text from another application
+						field.append(c).append(escaped);
+				}
+			} else {
+				field.append(c);
+			}
+		}
+		return fields.toArray(new String[fields.size()]);
+	}
+
+	/** Writes one row at a time into a small buffer as text is read. */
+	private class TsvReader extends Reader {
+		private final StringBuilder line = new StringBuilder();
+		private final RowEntry[] selected = new RowEntry[columns.length];
+		private int nextRow,
+								linePosition;
+
+		@Override
+		public int read(char[] buffer, int offset, int length) {
+			if (linePosition == line.length() && !nextLine())
+				return -1;
+
+			int read = Math.min(length, line.length() - linePosition);
+			line.getChars(linePosition, linePosition + read, buffer, offset);
+			linePosition += read;
+
+			return read;
+		}
+		private boolean nextLine() {
+			if (nextRow >= rows.length)
+				return false;
+
+			RowEntry[] row = rows[nextRow++];
+			for (int i = 0; i < columns.length; i++)
+				selected[i] = row[columns[i]];
+
+			line.setLength(0);
+			ExportFormat.TSV.appendRow(selected, line);
+			linePosition = 0;
+
+			return true;
+		}
+
+		@Override
+		public void close() {
+			nextRow = rows.length;
+			line.setLength(0);
+			linePosition = 0;
+		}
+	}
+}
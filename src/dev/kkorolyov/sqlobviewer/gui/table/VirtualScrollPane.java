@@ -0,0 +1,106 @@
+package dev.kkorolyov.sqlobviewer.gui.table;
+
+import java.awt.BorderLayout;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JScrollPane;
+import javax.swing.ScrollPaneConstants;
+
+/**
+ * Scrolls a {@code SQLObTable}.
+ * In virtual scrolling mode, the vertical scroll bar maps to the table's logical row offset rather than pixel position, so only a window of rows is laid out regardless of row count.
+ */
+public class VirtualScrollPane extends JPanel {
+	private static final long serialVersionUID = -6430958219620911485L;
+
+	private SQLObTable table;
+	private JScrollPane scrollPane;
+	private JScrollBar rowScrollBar;
+	private boolean virtual,
+									syncing;
+	
+	/**
+	 * Constructs a new scroll pane for a table.
+	 * @param table table to scroll
+	 */
+	@SuppressWarnings("synthetic-access")
+	public VirtualScrollPane(SQLObTable table) {
+		super(new BorderLayout());
+		
+		this.table = table;
+		
+		scrollPane = new JScrollPane(table);
+		scrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(ComponentEvent e) {
+				if (virtual) {
+					VirtualScrollPane.this.table.setRowOffset(VirtualScrollPane.this.table.getRowOffset());	// Re-clamp to new window size
+					VirtualScrollPane.this.table.revalidate();
+					sync();
+				}
+			}
+		});
+		scrollPane.addMouseWheelListener(e -> {
+			if (virtual)
+				this.table.setRowOffset(this.table.getRowOffset() + e.getUnitsToScroll());
+		});
+		rowScrollBar = new JScrollBar(JScrollBar.VERTICAL);
+		rowScrollBar.addAdjustmentListener(e -> {
+			if (virtual && !syncing)
+				this.table.setRowOffset(e.getValue());
+		});
+		rowScrollBar.setVisible(false);
+		
+		add(scrollPane, BorderLayout.CENTER);
+		add(rowScrollBar, BorderLayout.EAST);
+	}
+	
+	/** @return {@code true} if scrolling is virtual */
+	public boolean isVirtual() {
+		return virtual;
+	}
+	/** @param virtual whether scrolling should be virtual */
+	public void setVirtual(boolean virtual) {
+		if (this.virtual == virtual)
+			return;
+		
+		this.virtual = virtual;
+		
+		scrollPane.setVerticalScrollBarPolicy(virtual ? ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER : ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
+		scrollPane.setWheelScrollingEnabled(!virtual);
+		rowScrollBar.setVisible(virtual);
+		
+		sync();
+		revalidate();
+	}
+	
+	/**
+	 * Synchronizes the row scroll bar with the table's current row offset and row count.
+	 */
+	public void sync() {
+		if (!virtual)
+			return;
+		
+		syncing = true;
+		
+		int visibleRows = Math.max(1, table.getVisibleRowCapacity());
+		rowScrollBar.setValues(table.getRowOffset(), Math.min(visibleRows, table.getRowCount()), 0, table.getRowCount());
+		rowScrollBar.setUnitIncrement(1);
+		rowScrollBar.setBlockIncrement(visibleRows);
+		
+		syncing = false;
+	}
+	
+	/** @return height in pixels of the area available to display rows */
+	public int getViewportHeight() {
+		return scrollPane.getViewport().getHeight();
+	}
+	
+	/** @return wrapped {@code JScrollPane} */
+	public JScrollPane getScrollPane() {
+		return scrollPane;
+	}
+}
@@ -0,0 +1,94 @@
+package dev.kkorolyov.sqlobviewer.history;
+
+import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
+
+/**
+ * A single statement recorded in a {@code StatementHistory}.
+ */
+public final class HistoryEntry {
+	private final long sequence,
+										 timestamp,
+										 duration;
+	private final int affectedRows;
+	private final String table;
+	private final StatementCommand statement;
+	private final String 	text,
+												type;
+	
+	HistoryEntry(long sequence, long timestamp, long duration, int affectedRows, String table, StatementCommand statement) {
+		this(sequence, timestamp, duration, affectedRows, table, statement, String.valueOf(statement));
+	}
+	private HistoryEntry(long sequence, long timestamp, long duration, int affectedRows, String table, StatementCommand statement, String text) {
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.duration = duration;
+		this.affectedRows = affectedRows;
+		this.table = table;
+		this.statement = statement;
+		this.text = text;
+		
+		type = parseType(text);
+	}
+	private static String parseType(String text) {
+		String trimmed = text.trim();
+		int end = 0;
+		while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end)))
+			end++;
+		
+		return trimmed.substring(0, end).toUpperCase();
+	}
+	
+	/** @return position of this entry in its history, starting from {@code 0} */
+	public long getSequence() {
+		return sequence;
+	}
+	/** @return time this entry was recorded, in milliseconds since the epoch */
+	public long getTimestamp() {
+		return timestamp;
+	}
+	/** @return nanoseconds taken to execute the statement, or {@code -1} if unknown */
+	public long getDuration() {
+		return duration;
+	}
+	/** @return number of rows affected by the statement, or {@code -1} if unknown */
+	public int getAffectedRows() {
+		return affectedRows;
+	}
+	/** @return name of table the statement was issued against, or {@code null} if unknown */
+	public String getTable() {
+		return table;
+	}
+	/** @return statement type, such as {@code UPDATE} or {@code INSERT} */
+	public String getType() {
+		return type;
+	}
+	/** @return recorded statement, or {@code null} if this entry was read back from disk */
+	public StatementCommand getStatement() {
+		return statement;
+	}
+	/** @return textual form of the recorded statement */
+	public String getText() {
+		return text;
+	}
+	
+	String toSpillLine() {
+		return sequence + "\t" + timestamp + "\t" + duration + "\t" + affectedRows + "\t" + (table != null ? table : "") + "\t" + text.replace('\n', ' ').replace('\t', ' ');
+	}
+	static HistoryEntry fromSpillLine(String line) {
+		String[] fields = line.split("\t", 6);
+		
+		return new HistoryEntry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]), Integer.parseInt(fields[3]), fields[4].isEmpty() ? null : fields[4], null, fields[5]);
+	}
+	static String spillLineText(String line) {
+		int start = 0;
+		for (int i = 0; i < 5; i++)	// Text follows the other 5 fields
+			start = line.indexOf('\t', start) + 1;
+		
+		return line.substring(start);
+	}
+	
+	@Override
+	public String toString() {
+		return "HistoryEntry [sequence=" + sequence + ", table=" + table + ", statement=" + text + "]";
+	}
+}
@@ -0,0 +1,284 @@
+package dev.kkorolyov.sqlobviewer.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * An incrementally-built, filterable index over a {@code StatementHistory}, including its spilled entries.
+ * Spilled entries are indexed by their offsets in the spill file and read back on demand, so neither their statements nor their text are kept in memory.
+ * Intended to be updated and filtered off the event dispatch thread.
+ */
+public class HistoryIndex {
+	private static final int CHUNK_SIZE = 1 << 16,
+													 CACHED_SPILLED = 256;
+
+	private final StatementHistory history;
+	private final List<HistoryEntry> recent = new ArrayList<>();	// Still in memory, after all spilled entries
+	private final List<String> recentLowerTexts = new ArrayList<>();
+	private long[] spilledOffsets = new long[64];
+	private String[] 	spilledTables = new String[64],
+										spilledTypes = new String[64];
+	private int spilledCount;
+	private final Map<Integer, HistoryEntry> spilledCache = new LinkedHashMap<Integer, HistoryEntry>(CACHED_SPILLED, .75f, true) {
+		private static final long serialVersionUID = -4383718412263712418L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, HistoryEntry> eldest) {
+			return size() > CACHED_SPILLED;
+		}
+	};
+	private final Set<String> tables = new TreeSet<>(),
+														types = new TreeSet<>();
+	private final Map<String, String> names = new HashMap<>();	// Shares one instance of each table and type name
+	private long nextSequence,
+							 spilledSequence;
+	private long spillOffset;
+
+	/**
+	 * Constructs a new, empty index.
+	 * @param history history to index
+	 */
+	public HistoryIndex(StatementHistory history) {
+		this.history = history;
+	}
+
+	/**
+	 * Indexes all entries recorded since the last update.
+	 * Entries indexed while in memory which have since spilled are re-indexed by their spill file offsets.
+	 * @return number of newly-indexed entries
+	 * @throws IOException if an I/O error occurs reading spilled entries
+	 */
+	public synchronized int update() throws IOException {
+		long before = nextSequence;
+
+		HistoryEntry[] inMemory = history.getEntries();
+		long oldestInMemory = (inMemory.length > 0) ? inMemory[0].getSequence() : history.getTotal();
+
+		if (spilledSequence < oldestInMemory) {
+			history.flush();	// Everything older than the snapshot is now on disk
+			readSpilled(oldestInMemory);
+		}
+		for (HistoryEntry entry : inMemory) {
+			if (entry.getSequence() >= nextSequence)
+				addRecent(entry);
+		}
+		return (int) (nextSequence - before);
+	}
+	private void readSpilled(long end) throws IOException {
+		File spillFile = history.getSpillFile();
+
+		if (spillFile != null) {
+			try (SpillReader reader = new SpillReader(spillFile, spillOffset)) {
+				long lineOffset = spillOffset;
+				String line;
+
+				while ((line = reader.readLine()) != null) {
+					HistoryEntry entry = HistoryEntry.fromSpillLine(line);
+					if (entry.getSequence() >= end)
+						break;
+
+					addSpilled(entry, lineOffset);
+					lineOffset = reader.getOffset();
+				}
+				spillOffset = lineOffset;
+			}
+		}
+		spilledSequence = end;
+
+		int spilledRecent = 0;
+		while (spilledRecent < recent.size() && recent.get(spilledRecent).getSequence() < end)
+			spilledRecent++;
+
+		recent.subList(0, spilledRecent).clear();	// Now indexed as spilled, or dropped if they failed to spill
+		recentLowerTexts.subList(0, spilledRecent).clear();
+	}
+	private void addSpilled(HistoryEntry entry, long offset) {
+		if (spilledCount == spilledOffsets.length) {
+			spilledOffsets = Arrays.copyOf(spilledOffsets, spilledCount * 2);
+			spilledTables = Arrays.copyOf(spilledTables, spilledCount * 2);
+			spilledTypes = Arrays.copyOf(spilledTypes, spilledCount * 2);
+		}
+		spilledOffsets[spilledCount] = offset;
+		spilledTables[spilledCount] = addName(tables, entry.getTable());
+		spilledTypes[spilledCount] = addName(types, entry.getType());
+		spilledCount++;
+
+		nextSequence = Math.max(nextSequence, entry.getSequence() + 1);
+	}
+	private void addRecent(HistoryEntry entry) {
+		recent.add(entry);
+		recentLowerTexts.add(entry.getText().toLowerCase());
+
+		addName(tables, entry.getTable());
+		addName(types, entry.getType());
+
+		nextSequence = entry.getSequence() + 1;
+	}
+	private String addName(Set<String> set, String name) {
+		if (name == null || name.isEmpty())
+			return name;
+
+		set.add(name);
+		return names.computeIfAbsent(name, key -> key);
+	}
+
+	/**
+	 * @param table table to match, or {@code null} to match any
+	 * @param type statement type to match, or {@code null} to match any
+	 * @param text case-insensitive text to search for, or {@code null} to match any
+	 * @return indices of all matching entries, from newest to oldest
+	 * @throws IOException if an I/O error occurs searching the text of spilled entries
+	 */
+	public synchronized int[] filter(String table, String type, String text) throws IOException {
+		String lowerText = (text == null || text.isEmpty()) ? null : text.toLowerCase();
+
+		int[] matches = new int[size()];
+		int count = 0;
+
+		for (int i = recent.size() - 1; i >= 0; i--) {
+			HistoryEntry entry = recent.get(i);
+
+			if (matches(table, type, entry.getTable(), entry.getType())
+					&& (lowerText == null || recentLowerTexts.get(i).contains(lowerText)))
+				matches[count++] = spilledCount + i;
+		}
+		BitSet textMatches = (lowerText != null && spilledCount > 0) ? matchSpilled(lowerText) : null;
+
+		for (int i = spilledCount - 1; i >= 0; i--) {
+			if (matches(table, type, spilledTables[i], spilledTypes[i])
+					&& (textMatches == null || textMatches.get(i)))
+				matches[count++] = i;
+		}
+		return Arrays.copyOf(matches, count);
+	}
+	private static boolean matches(String table, String type, String entryTable, String entryType) {
+		return (table == null || table.equals(entryTable)) && (type == null || type.equals(entryType));
+	}
+	/** @return indices of spilled entries whose text contains {@code lowerText}, searching the spill file chunk by chunk */
+	private BitSet matchSpilled(String lowerText) throws IOException {
+		BitSet matches = new BitSet(spilledCount);
+
+		try (SpillReader reader = new SpillReader(history.getSpillFile(), spilledOffsets[0])) {
+			for (int i = 0; i < spilledCount; i++) {
+				String line = reader.readLine();
+				if (line == null)
+					break;
+
+				if (HistoryEntry.spillLineText(line).toLowerCase().contains(lowerText))
+					matches.set(i);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns an indexed entry, reading it back from the spill file if it has spilled.
+	 * @param index entry index
+	 * @return entry at {@code index}
+	 * @throws UncheckedIOException if an I/O error occurs reading a spilled entry
+	 */
+	public synchronized HistoryEntry get(int index) {
+		if (index >= spilledCount)
+			return recent.get(index - spilledCount);
+
+		HistoryEntry entry = spilledCache.get(index);
+		if (entry == null) {
+			entry = readSpilledEntry(index);
+			spilledCache.put(index, entry);
+		}
+		return entry;
+	}
+	private HistoryEntry readSpilledEntry(int index) {
+		long start = spilledOffsets[index],
+				 end = (index + 1 < spilledCount) ? spilledOffsets[index + 1] : spillOffset;
+		byte[] line = new byte[(int) (end - start - 1)];	// Without its line break
+
+		try (RandomAccessFile in = new RandomAccessFile(history.getSpillFile(), "r")) {
+			in.seek(start);
+			in.readFully(line);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return HistoryEntry.fromSpillLine(new String(line, StandardCharsets.UTF_8));
+	}
+	/** @return number of indexed entries */
+	public synchronized int size() {
+		return spilledCount + recent.size();
+	}
+
+	/** @return all indexed tables, sorted */
+	public synchronized String[] getTables() {
+		return tables.toArray(new String[tables.size()]);
+	}
+	/** @return all indexed statement types, sorted */
+	public synchronized String[] getTypes() {
+		return types.toArray(new String[types.size()]);
+	}
+
+	/** Reads complete lines of a spill file in fixed-size chunks, holding at most one chunk and one line */
+	private static class SpillReader implements AutoCloseable {
+		private final RandomAccessFile file;
+		private final byte[] chunk = new byte[CHUNK_SIZE];
+		private int chunkPosition,
+								chunkLength;
+		private byte[] line = new byte[256];
+		private int lineLength;
+		private long offset;
+
+		SpillReader(File spillFile, long offset) throws IOException {
+			file = new RandomAccessFile(spillFile, "r");
+			file.seek(offset);
+			this.offset = offset;
+		}
+
+		/** @return next complete line, or {@code null} if no complete line remains */
+		String readLine() throws IOException {
+			lineLength = 0;
+
+			while (true) {
+				if (chunkPosition >= chunkLength) {
+					chunkLength = file.read(chunk);
+					chunkPosition = 0;
+
+					if (chunkLength <= 0)
+						return null;	// A partially-written line is read on a later update
+				}
+				int lineEnd = chunkPosition;
+				while (lineEnd < chunkLength && chunk[lineEnd] != '\n')
+					lineEnd++;
+
+				append(lineEnd - chunkPosition);
+
+				if (lineEnd < chunkLength) {
+					chunkPosition = lineEnd + 1;
+					offset++;	// Line break
+
+					return new String(line, 0, lineLength, StandardCharsets.UTF_8);
+				}
+				chunkPosition = chunkLength;
+			}
+		}
+		private void append(int length) {
+			if (lineLength + length > line.length)
+				line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+
+			System.arraycopy(chunk, chunkPosition, line, lineLength, length);
+			lineLength += length;
+			offset += length;
+		}
+
+		/** @return file offset just past the last line read */
+		long getOffset() {
+			return offset;
+		}
+
+		@Override
+		public void close() throws IOException {
+			file.close();
+		}
+	}
+}
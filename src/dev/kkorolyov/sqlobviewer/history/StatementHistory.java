@@ -0,0 +1,162 @@
+package dev.kkorolyov.sqlobviewer.history;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * A bounded history of executed statements.
+ * The most recent statements are kept in a fixed-size ring buffer, older statements are spilled to a file.
+ * The latest statement of each statement type is indexed for constant-time lookup.
+ */
+public class StatementHistory implements AutoCloseable {
+	private static final Log log = Log.get(StatementHistory.class);
+
+	private final HistoryEntry[] entries;
+	private int head,
+							size;
+	private long sequence;
+	private Map<Class<?>, HistoryEntry> latestByType = new HashMap<>();
+	
+	private File spillFile;
+	private Writer spillWriter;
+	private long spilled;
+	
+	/**
+	 * Constructs a new statement history.
+	 * @param capacity maximum number of statements kept in memory
+	 */
+	public StatementHistory(int capacity) {
+		entries = new HistoryEntry[Math.max(1, capacity)];
+	}
+	
+	/**
+	 * Records a statement.
+	 * If this history is at capacity, its oldest in-memory statement is spilled to disk.
+	 * @param statement executed statement
+	 * @param table name of table the statement was issued against, may be {@code null}
+	 * @param duration nanoseconds taken to execute the statement, or {@code -1} if unknown
+	 * @param affectedRows number of rows affected by the statement, or {@code -1} if unknown
+	 * @return recorded entry
+	 */
+	public synchronized HistoryEntry record(StatementCommand statement, String table, long duration, int affectedRows) {
+		HistoryEntry entry = new HistoryEntry(sequence++, System.currentTimeMillis(), duration, affectedRows, table, statement);
+		
+		int tail = (head + size) % entries.length;
+		if (size == entries.length) {
+			spill(entries[head]);
+			head = (head + 1) % entries.length;
+		} else {
+			size++;
+		}
+		entries[tail] = entry;
+		
+		for (Class<?> type = statement.getClass(); type != null && StatementCommand.class.isAssignableFrom(type); type = type.getSuperclass())
+			latestByType.put(type, entry);
+		
+		return entry;
+	}
+	
+	/**
+	 * @param type statement type
+	 * @return latest recorded statement of type {@code type}, or {@code null} if no such statement
+	 */
+	public synchronized <T extends StatementCommand> T getLatest(Class<T> type) {
+		HistoryEntry entry = latestByType.get(type);
+		
+		return entry != null ? type.cast(entry.getStatement()) : null;
+	}
+	
+	/**
+	 * @param index index of in-memory entry, where {@code 0} is the oldest
+	 * @return entry at {@code index}
+	 * @throws IndexOutOfBoundsException if {@code index} is out of range
+	 */
+	public synchronized HistoryEntry get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+		
+		return entries[(head + index) % entries.length];
+	}
+	/** @return all in-memory entries, from oldest to newest */
+	public synchronized HistoryEntry[] getEntries() {
+		HistoryEntry[] result = new HistoryEntry[size];
+		
+		for (int i = 0; i < size; i++)
+			result[i] = entries[(head + i) % entries.length];
+		
+		return result;
+	}
+	
+	/** @return number of entries held in memory */
+	public synchronized int size() {
+		return size;
+	}
+	/** @return total number of entries recorded */
+	public synchronized long getTotal() {
+		return sequence;
+	}
+	/** @return number of entries spilled to disk */
+	public synchronized long getSpilled() {
+		return spilled;
+	}
+	/** @return file holding spilled entries, or {@code null} if nothing spilled yet */
+	public synchronized File getSpillFile() {
+		return spillFile;
+	}
+	
+	private void spill(HistoryEntry entry) {
+		try {
+			if (spillWriter == null) {
+				spillFile = File.createTempFile("sqlobviewer-history-", ".log");
+				spillFile.deleteOnExit();
+				
+				spillWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile), StandardCharsets.UTF_8));
+				log.debug(() -> "Spilling statement history to " + spillFile);
+			}
+			spillWriter.write(entry.toSpillLine());
+			spillWriter.write('\n');
+			spilled++;
+		} catch (IOException e) {
+			log.exception(e, Level.WARNING);	// Spilled history is best-effort, dropping the entry
+		}
+	}
+	
+	/** Flushes spilled entries to disk. */
+	public synchronized void flush() {
+		if (spillWriter != null) {
+			try {
+				spillWriter.flush();
+			} catch (IOException e) {
+				log.exception(e, Level.WARNING);
+			}
+		}
+	}
+	
+	/**
+	 * Clears this history and deletes its spill file.
+	 */
+	@Override
+	public synchronized void close() {
+		if (spillWriter != null) {
+			try {
+				spillWriter.close();
+			} catch (IOException e) {
+				log.exception(e, Level.WARNING);
+			}
+			spillWriter = null;
+		}
+		if (spillFile != null && !spillFile.delete())
+			log.warning(() -> "Failed to delete history spill file: " + spillFile);
+		
+		for (int i = 0; i < entries.length; i++)
+			entries[i] = null;
+		head = size = 0;
+		latestByType.clear();
+	}
+}
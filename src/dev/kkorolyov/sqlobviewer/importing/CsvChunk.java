@@ -0,0 +1,184 @@
+package dev.kkorolyov.sqlobviewer.importing;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A range of whole CSV records within a file.
+ */
+class CsvChunk {
+	private final long start,
+										 end,
+										 firstRecord;
+
+	/**
+	 * @param start offset of the first byte of this chunk
+	 * @param end offset just past the last byte of this chunk
+	 * @param firstRecord number of the first record in this chunk, starting from {@code 1}
+	 */
+	CsvChunk(long start, long end, long firstRecord) {
+		this.start = start;
+		this.end = end;
+		this.firstRecord = firstRecord;
+	}
+
+	/** @return offset just past the last byte of this chunk */
+	long getEnd() {
+		return end;
+	}
+	/** @return number of the first record in this chunk */
+	long getFirstRecord() {
+		return firstRecord;
+	}
+
+	/**
+	 * Parses all records in this chunk.
+	 * Fields are separated by {@code ','}, may be quoted by {@code '"'} with {@code ""} as an escaped quote, and are decoded as UTF-8.
+	 * An empty unquoted field is parsed as {@code null}, and blank lines are parsed as empty records.
+	 * @param channel channel to the file containing this chunk
+	 * @return fields of each record in this chunk, in order
+	 * @throws IOException if an I/O error occurs
+	 */
+	List<String[]> parse(FileChannel channel) throws IOException {
+		MappedByteBuffer bytes = channel.map(READ_ONLY, start, end - start);
+		int limit = bytes.limit(),
+				position = 0;
+
+		List<String[]> records = new ArrayList<>();
+		List<String> fields = new ArrayList<>();
+		byte[] field = new byte[256];
+
+		while (position < limit) {
+			fields.clear();
+
+			boolean endOfRecord = false;
+			while (!endOfRecord) {
+				int length = 0;
+				boolean separated = false,
+								quoted = position < limit && bytes.get(position) == '"';
+
+				if (quoted) {
+					position++;
+					while (position < limit) {
+						byte b = bytes.get(position++);
+						if (b == '"') {
+							if (position < limit && bytes.get(position) == '"')
+								position++;	// Escaped quote
+							else
+								break;
+						}
+						if (length == field.length)
+							field = grow(field);
+						field[length++] = b;
+					}
+				}
+				while (position < limit) {	// Anything after a closing quote is kept as-is
+					byte b = bytes.get(position++);
+					if (b == ',') {
+						separated = true;
+						break;
+					}
+					if (b == '\n') {
+						endOfRecord = true;
+						break;
+					}
+					if (length == field.length)
+						field = grow(field);
+					field[length++] = b;
+				}
+				if (position >= limit && !separated)
+					endOfRecord = true;
+
+				if (endOfRecord && length > 0 && field[length - 1] == '\r')
+					length--;
+
+				fields.add((length == 0 && !quoted) ? null : new String(field, 0, length, StandardCharsets.UTF_8));
+				
+				if (separated && position >= limit) {	// Trailing empty field
+					fields.add(null);
+					endOfRecord = true;
+				}
+			}
+			records.add((fields.size() == 1 && fields.get(0) == null) ? new String[0] : fields.toArray(new String[fields.size()]));
+		}
+		return records;
+	}
+	private static byte[] grow(byte[] array) {
+		byte[] grown = new byte[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	/**
+	 * Splits a CSV file into chunks of whole records, tracking quotes so that line breaks within quoted fields never split a record.
+	 */
+	static class Scanner {
+		private static final long WINDOW_SIZE = 64 << 20;
+
+		private final FileChannel channel;
+		private final long size;
+		private MappedByteBuffer window;
+		private long windowStart,
+								 position,
+								 nextRecord = 1;
+
+		/**
+		 * @param channel channel to the file to scan
+		 * @throws IOException if an I/O error occurs
+		 */
+		Scanner(FileChannel channel) throws IOException {
+			this.channel = channel;
+
+			size = channel.size();
+		}
+
+		/**
+		 * @param targetSize minimum size of the returned chunk, unless fewer bytes remain
+		 * @return next chunk of whole records, or {@code null} if no more records
+		 * @throws IOException if an I/O error occurs
+		 */
+		CsvChunk next(long targetSize) throws IOException {
+			if (position >= size)
+				return null;
+
+			long start = position,
+					 firstRecord = nextRecord;
+			boolean quoted = false;
+			byte last = 0;
+
+			while (position < size) {
+				last = get(position++);
+
+				if (last == '"')
+					quoted = !quoted;
+				else if (last == '\n' && !quoted) {
+					nextRecord++;
+					if (position - start >= targetSize)
+						break;
+				}
+			}
+			if (position == size && last != '\n')
+				nextRecord++;	// Final record without a line break
+
+			return new CsvChunk(start, position, firstRecord);
+		}
+		/** @return size of the scanned file in bytes */
+		long getSize() {
+			return size;
+		}
+
+		private byte get(long offset) throws IOException {
+			if (window == null || offset >= windowStart + window.limit()) {
+				windowStart = offset;
+				window = channel.map(READ_ONLY, offset, Math.min(WINDOW_SIZE, size - offset));
+			}
+			return window.get((int) (offset - windowStart));
+		}
+	}
+}
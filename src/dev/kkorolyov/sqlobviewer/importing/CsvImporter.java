@@ -0,0 +1,424 @@
+package dev.kkorolyov.sqlobviewer.importing;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.SqlType;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+import dev.kkorolyov.sqlobviewer.metrics.Metrics;
+
+/**
+ * Inserts the records of a CSV file into a table.
+ * The file's first record is a header naming a table column for each field; columns not named are left to their defaults.
+ * The file is memory-mapped and split into chunks of whole records, which are parsed and converted to each column's type in parallel.
+ * Converted rows are inserted in order as multi-row statements, and committed after each transaction's worth of rows.
+ * An import which fails or is canceled rolls back only its current transaction, so rows of earlier transactions stay committed.
+ * A rejected record is recorded and skipped without affecting the rest of its batch.
+ */
+public class CsvImporter {
+	private static final Log log = Log.get(CsvImporter.class);
+
+	private static final int MAX_PARAMETERS = 32767,	// Per statement
+													 MAX_RETAINED_ERRORS = 1000;
+
+	private final int batchRows,
+										transactionRows,
+										chunkSize,
+										threads;
+
+	/**
+	 * Constructs a new importer.
+	 * @param batchRows maximum number of rows inserted per statement
+	 * @param transactionRows minimum number of rows inserted per transaction
+	 * @param chunkSize bytes of the file parsed per task
+	 * @param threads number of parsing threads
+	 */
+	public CsvImporter(int batchRows, int transactionRows, int chunkSize, int threads) {
+		this.batchRows = Math.max(1, batchRows);
+		this.transactionRows = Math.max(1, transactionRows);
+		this.chunkSize = Math.max(1, chunkSize);
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Imports a CSV file into a table.
+	 * The connection's auto-commit is disabled for the duration of the import.
+	 * If canceled, or if an I/O or database error other than a rejected row occurs, rows inserted since the last commit are rolled back.
+	 * @param file file to import
+	 * @param connection connection used only by this import
+	 * @param table name of table to insert into
+	 * @param columns all columns of {@code table}
+	 * @param progress receives progress and may cancel the import
+	 * @return import result
+	 * @throws IOException if an I/O error occurs
+	 * @throws SQLException if a database error other than a rejected row occurs
+	 * @throws IllegalArgumentException if the file's header names a column not in {@code columns}
+	 */
+	public ImportResult importFile(File file, Connection connection, String table, Column[] columns, ImportProgress progress) throws IOException, SQLException {
+		long start = System.nanoTime();
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService parsers = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "csv-parser-" + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		boolean autoCommit = connection.getAutoCommit(),
+						transacting = false;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+			CsvChunk.Scanner scanner = new CsvChunk.Scanner(channel);
+
+			CsvChunk headerChunk = scanner.next(0);
+			if (headerChunk == null)
+				return new ImportResult(0, 0, new ArrayList<>(), false);
+
+			Column[] targets = mapHeader(headerChunk.parse(channel).get(0), columns, table);
+			try (Inserter inserter = new Inserter(connection, table, targets)) {
+				connection.setAutoCommit(false);
+				transacting = true;
+
+				Deque<Future<Converted>> pending = new ArrayDeque<>();
+				boolean canceled = false;
+				long bytes = headerChunk.getEnd();
+
+				CsvChunk chunk;
+				while (true) {
+					while (pending.size() < threads * 2 && (chunk = scanner.next(chunkSize)) != null) {	// Bounds parsed rows held in memory
+						CsvChunk toParse = chunk;
+						pending.addLast(parsers.submit(() -> convert(toParse, toParse.parse(channel), targets)));
+					}
+					if (pending.isEmpty())
+						break;
+
+					Converted converted = await(pending.removeFirst());
+					for (ImportError error : converted.errors)
+						inserter.reject(error);
+
+					for (int i = 0; i < converted.rows.size() && !canceled; i++) {
+						if (inserter.add(converted.rows.get(i), converted.records.get(i))) {
+							progress.imported(bytes, inserter.inserted, inserter.errorCount);
+							canceled = progress.isCanceled();
+						}
+					}
+					bytes = converted.end;
+
+					if (canceled)
+						break;
+				}
+				if (canceled) {
+					connection.rollback();
+					inserter.inserted = inserter.committed;
+				} else {
+					inserter.flush();
+					connection.commit();
+					inserter.committed = inserter.inserted;
+				}
+				progress.imported(bytes, inserter.committed, inserter.errorCount);
+
+				Metrics.record(Metrics.IMPORT, start, inserter.committed, bytes);
+
+				long rows = inserter.committed, errors = inserter.errorCount;
+				log.info(() -> "Imported " + rows + " rows with " + errors + " rejected into " + table + " from " + file + " in " + (System.nanoTime() - start) / 1000000 + "ms");
+
+				return new ImportResult(inserter.committed, inserter.errorCount, inserter.errors, canceled);
+			}
+		} catch (IOException | SQLException | RuntimeException e) {
+			if (transacting)
+				rollback(connection);	// Before auto-commit is restored, which would commit the failed transaction
+
+			throw e;
+		} finally {
+			parsers.shutdownNow();
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+
+	private static void rollback(Connection connection) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			log.exception(e, Level.WARNING);
+		}
+	}
+
+	private static Column[] mapHeader(String[] header, Column[] columns, String table) {
+		Column[] targets = new Column[header.length];
+
+		for (int i = 0; i < header.length; i++) {
+			for (Column column : columns) {
+				if (column.getName().equalsIgnoreCase(header[i]))
+					targets[i] = column;
+			}
+			if (targets[i] == null)
+				throw new IllegalArgumentException("No column named " + header[i] + " in table " + table);
+		}
+		return targets;
+	}
+
+	private static Converted convert(CsvChunk chunk, List<String[]> records, Column[] targets) {
+		Converted converted = new Converted(chunk.getEnd(), records.size());
+
+		for (int i = 0; i < records.size(); i++) {
+			String[] fields = records.get(i);
+			long record = chunk.getFirstRecord() + i;
+
+			if (fields.length == 0)
+				continue;	// Blank line
+			if (fields.length != targets.length) {
+				converted.errors.add(new ImportError(record, "Expected " + targets.length + " fields, found " + fields.length));
+				continue;
+			}
+			Object[] row = new Object[fields.length];
+			try {
+				for (int j = 0; j < fields.length; j++)
+					row[j] = toValue(fields[j], targets[j].getType());
+
+				converted.rows.add(row);
+				converted.records.add(record);
+			} catch (IllegalArgumentException e) {
+				converted.errors.add(new ImportError(record, e.getMessage()));
+			}
+		}
+		return converted;
+	}
+	private static Object toValue(String field, SqlType type) {
+		if (field == null)
+			return null;
+
+		String value = field.trim();
+		switch (type) {
+			case BOOLEAN:
+				if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("t") || value.equals("1"))
+					return Boolean.TRUE;
+				if (value.equalsIgnoreCase("false") || value.equalsIgnoreCase("f") || value.equals("0"))
+					return Boolean.FALSE;
+				throw new IllegalArgumentException("Not a boolean: " + field);
+			case SMALLINT:
+				return Short.valueOf(value);
+			case INTEGER:
+				return Integer.valueOf(value);
+			case BIGINT:
+				return Long.valueOf(value);
+			case REAL:
+				return Float.valueOf(value);
+			case DOUBLE:
+				return Double.valueOf(value);
+			default:
+				return field;
+		}
+	}
+	private static int toJdbcType(SqlType type) {
+		switch (type) {
+			case BOOLEAN:
+				return Types.BOOLEAN;
+			case SMALLINT:
+				return Types.SMALLINT;
+			case INTEGER:
+				return Types.INTEGER;
+			case BIGINT:
+				return Types.BIGINT;
+			case REAL:
+				return Types.REAL;
+			case DOUBLE:
+				return Types.DOUBLE;
+			case CHAR:
+				return Types.CHAR;
+			case VARCHAR:
+				return Types.VARCHAR;
+			default:
+				return Types.OTHER;	// Cast from text by the database
+		}
+	}
+
+	private static Converted await(Future<Converted> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/** Rows of a chunk converted to column types, along with its rejected records. */
+	private static class Converted {
+		final long end;
+		final List<Object[]> rows;
+		final List<Long> records;
+		final List<ImportError> errors = new ArrayList<>();
+
+		Converted(long end, int capacity) {
+			this.end = end;
+
+			rows = new ArrayList<>(capacity);
+			records = new ArrayList<>(capacity);
+		}
+	}
+
+	/** Inserts rows in multi-row batches, falling back to single rows to isolate the rows a batch is rejected for. */
+	private class Inserter implements AutoCloseable {
+		private final Connection connection;
+		private final String table;
+		private final Column[] targets;
+		private final int[] jdbcTypes;
+		private final int maxBatchRows;
+		private final Object[][] batch;
+		private final long[] batchRecords;
+		private int batchSize;
+		private PreparedStatement fullBatch,
+															singleRow;
+
+		long inserted,
+				 committed,
+				 errorCount;
+		final List<ImportError> errors = new ArrayList<>();
+		private long uncommitted;
+
+		Inserter(Connection connection, String table, Column[] targets) {
+			this.connection = connection;
+			this.table = table;
+			this.targets = targets;
+
+			jdbcTypes = new int[targets.length];
+			for (int i = 0; i < targets.length; i++)
+				jdbcTypes[i] = toJdbcType(targets[i].getType());
+
+			maxBatchRows = Math.max(1, Math.min(batchRows, MAX_PARAMETERS / Math.max(1, targets.length)));
+			batch = new Object[maxBatchRows][];
+			batchRecords = new long[maxBatchRows];
+		}
+
+		/** @return {@code true} if adding the row filled and inserted a batch */
+		boolean add(Object[] row, long record) throws SQLException {
+			batch[batchSize] = row;
+			batchRecords[batchSize] = record;
+
+			if (++batchSize < maxBatchRows)
+				return false;
+
+			flush();
+			return true;
+		}
+		void flush() throws SQLException {
+			if (batchSize == 0)
+				return;
+
+			PreparedStatement statement;
+			if (batchSize == maxBatchRows) {
+				if (fullBatch == null)
+					fullBatch = connection.prepareStatement(buildInsert(maxBatchRows));
+				statement = fullBatch;
+			} else {
+				statement = connection.prepareStatement(buildInsert(batchSize));	// Only the final batch
+			}
+			Savepoint savepoint = connection.setSavepoint();
+			try {
+				for (int i = 0; i < batchSize; i++)
+					bind(statement, i * targets.length, batch[i]);
+
+				statement.executeUpdate();
+				connection.releaseSavepoint(savepoint);
+
+				inserted += batchSize;
+				uncommitted += batchSize;
+			} catch (SQLException e) {
+				connection.rollback(savepoint);
+				insertEach();
+			} finally {
+				if (statement != fullBatch)
+					statement.close();
+			}
+			batchSize = 0;
+
+			if (uncommitted >= transactionRows) {
+				connection.commit();
+				committed = inserted;
+				uncommitted = 0;
+			}
+		}
+		private void insertEach() throws SQLException {
+			if (singleRow == null)
+				singleRow = connection.prepareStatement(buildInsert(1));
+
+			for (int i = 0; i < batchSize; i++) {
+				Savepoint savepoint = connection.setSavepoint();
+				try {
+					bind(singleRow, 0, batch[i]);
+					singleRow.executeUpdate();
+					connection.releaseSavepoint(savepoint);
+
+					inserted++;
+					uncommitted++;
+				} catch (SQLException e) {
+					connection.rollback(savepoint);
+					reject(new ImportError(batchRecords[i], e.getMessage()));
+				}
+			}
+		}
+		void reject(ImportError error) {
+			errorCount++;
+			if (errors.size() < MAX_RETAINED_ERRORS)
+				errors.add(error);
+		}
+
+		private void bind(PreparedStatement statement, int offset, Object[] row) throws SQLException {
+			for (int i = 0; i < row.length; i++) {
+				if (row[i] == null)
+					statement.setNull(offset + i + 1, jdbcTypes[i]);
+				else
+					statement.setObject(offset + i + 1, row[i], jdbcTypes[i]);
+			}
+		}
+		private String buildInsert(int rows) {
+			StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(table)).append(" (");
+			for (int i = 0; i < targets.length; i++)
+				sql.append(i > 0 ? "," : "").append(quote(targets[i].getName()));
+			sql.append(") VALUES ");
+
+			for (int row = 0; row < rows; row++) {
+				sql.append(row > 0 ? ",(" : "(");
+				for (int i = 0; i < targets.length; i++)
+					sql.append(i > 0 ? ",?" : "?");
+				sql.append(')');
+			}
+			return sql.toString();
+		}
+		@Override
+		public void close() throws SQLException {
+			if (fullBatch != null)
+				fullBatch.close();
+			if (singleRow != null)
+				singleRow.close();
+		}
+		
+		private String quote(String identifier) {
+			return '"' + identifier.replace("\"", "\"\"") + '"';
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package dev.kkorolyov.sqlobviewer.importing;
+
+/**
+ * A record rejected by an import.
+ */
+public final class ImportError {
+	private final long record;
+	private final String message;
+
+	ImportError(long record, String message) {
+		this.record = record;
+		this.message = message;
+	}
+
+	/** @return number of the rejected record in the imported file, counting its header as record {@code 1} */
+	public long getRecord() {
+		return record;
+	}
+	/** @return reason the record was rejected */
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return record + ": " + message;
+	}
+}
@@ -0,0 +1,17 @@
+package dev.kkorolyov.sqlobviewer.importing;
+
+/**
+ * Receives progress of an import and may cancel it.
+ */
+public interface ImportProgress {
+	/**
+	 * Invoked after each batch of rows on the importing thread.
+	 * @param bytes number of bytes of the imported file processed so far
+	 * @param rows number of rows inserted so far
+	 * @param errors number of rows rejected so far
+	 */
+	void imported(long bytes, long rows, long errors);
+
+	/** @return {@code true} if the import should stop */
+	boolean isCanceled();
+}
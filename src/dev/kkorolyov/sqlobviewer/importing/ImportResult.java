@@ -0,0 +1,38 @@
+package dev.kkorolyov.sqlobviewer.importing;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of an import.
+ */
+public final class ImportResult {
+	private final long rows,
+										 errorCount;
+	private final List<ImportError> errors;
+	private final boolean canceled;
+
+	ImportResult(long rows, long errorCount, List<ImportError> errors, boolean canceled) {
+		this.rows = rows;
+		this.errorCount = errorCount;
+		this.errors = Collections.unmodifiableList(errors);
+		this.canceled = canceled;
+	}
+
+	/** @return number of rows inserted and committed */
+	public long getRows() {
+		return rows;
+	}
+	/** @return total number of rejected records */
+	public long getErrorCount() {
+		return errorCount;
+	}
+	/** @return the first rejected records, in order; may be fewer than {@link #getErrorCount()} */
+	public List<ImportError> getErrors() {
+		return errors;
+	}
+	/** @return {@code true} if the import was canceled before all records were processed */
+	public boolean isCanceled() {
+		return canceled;
+	}
+}
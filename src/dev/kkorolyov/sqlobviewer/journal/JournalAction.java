@@ -0,0 +1,101 @@
+package dev.kkorolyov.sqlobviewer.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.connection.ConnectionLane;
+
+/**
+ * A single row operation recorded in an {@code UndoJournal}.
+ */
+public final class JournalAction {
+	private final Kind kind;
+	private final String table;
+	private final RowEntry[] 	values,
+														criteria;
+	
+	private JournalAction(Kind kind, String table, RowEntry[] values, RowEntry[] criteria) {
+		this.kind = kind;
+		this.table = table;
+		this.values = values;
+		this.criteria = criteria;
+	}
+	
+	static JournalAction update(String table, RowEntry[] values, RowEntry[] criteria) {
+		return new JournalAction(Kind.UPDATE, table, values, criteria);
+	}
+	static JournalAction insert(String table, RowEntry[] values) {
+		return new JournalAction(Kind.INSERT, table, values, null);
+	}
+	static JournalAction delete(String table, RowEntry[] criteria) {
+		return new JournalAction(Kind.DELETE, table, null, criteria);
+	}
+	
+	/**
+	 * Applies this action.
+	 * @param lane write lane to apply through
+	 */
+	public void apply(ConnectionLane lane) {
+		switch (kind) {
+			case UPDATE:
+				lane.getTable(table).update(values, criteria);
+				break;
+			case INSERT:
+				lane.getTable(table).insert(values);
+				break;
+			case DELETE:
+				lane.getTable(table).delete(criteria);
+				break;
+		}
+	}
+	
+	/**
+	 * Returns the action reverting only this action, for compensating a partially-applied change.
+	 * A delete is reverted by inserting its criteria, which are the whole deleted row for every delete in a multi-action change.
+	 * @return action reverting this action
+	 */
+	public JournalAction getInverse() {
+		switch (kind) {
+			case UPDATE:
+				return update(table, criteria, values);
+			case INSERT:
+				return delete(table, values);
+			default:
+				return insert(table, criteria);
+		}
+	}
+	
+	/** @return name of table this action acts on */
+	public String getTable() {
+		return table;
+	}
+	
+	void encode(DataOutput out) throws IOException {
+		out.writeByte(kind.ordinal());
+		out.writeUTF(table);
+		RowEntryCodec.encode(values, out);
+		RowEntryCodec.encode(criteria, out);
+	}
+	static JournalAction decode(DataInput in) throws IOException {
+		Kind kind = Kind.values()[in.readByte()];
+		String table = in.readUTF();
+		RowEntry[] values = RowEntryCodec.decode(in);
+		RowEntry[] criteria = RowEntryCodec.decode(in);
+		
+		return new JournalAction(kind, table, values, criteria);
+	}
+	
+	@Override
+	public String toString() {
+		return kind + " " + table + " " + Arrays.toString(values) + " WHERE " + Arrays.toString(criteria);
+	}
+	
+	private enum Kind {
+		UPDATE,
+		INSERT,
+		DELETE;
+	}
+}
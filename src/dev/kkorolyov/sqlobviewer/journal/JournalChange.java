@@ -0,0 +1,121 @@
+package dev.kkorolyov.sqlobviewer.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dev.kkorolyov.sqlob.construct.RowEntry;
+
+/**
+ * A single undoable change: the actions which made it, and the actions which revert it.
+ */
+public final class JournalChange {
+	private final long timestamp;
+	private final JournalAction[] forward,
+																inverse;
+	
+	private JournalChange(long timestamp, JournalAction[] forward, JournalAction[] inverse) {
+		this.timestamp = timestamp;
+		this.forward = forward;
+		this.inverse = inverse;
+	}
+	
+	/**
+	 * @param table name of updated table
+	 * @param newValues new values
+	 * @param criteria update criteria, which are the old values of the updated row
+	 * @return change of the update
+	 */
+	public static JournalChange update(String table, RowEntry[] newValues, RowEntry[] criteria) {
+		return new JournalChange(System.currentTimeMillis(),
+														 new JournalAction[]{JournalAction.update(table, newValues, criteria)},
+														 new JournalAction[]{JournalAction.update(table, criteria, newValues)});
+	}
+	/**
+	 * @param table name of table inserted into
+	 * @param rowValues inserted values
+	 * @return change of the insert
+	 */
+	public static JournalChange insert(String table, RowEntry[] rowValues) {
+		return new JournalChange(System.currentTimeMillis(),
+														 new JournalAction[]{JournalAction.insert(table, rowValues)},
+														 new JournalAction[]{JournalAction.delete(table, rowValues)});
+	}
+	/**
+	 * @param table name of table deleted from
+	 * @param criteria deletion criteria
+	 * @param deletedRows all rows matching {@code criteria} before the deletion
+	 * @return change of the delete
+	 */
+	public static JournalChange delete(String table, RowEntry[] criteria, RowEntry[][] deletedRows) {
+		JournalAction[] inverse = new JournalAction[deletedRows.length];
+		for (int i = 0; i < inverse.length; i++)
+			inverse[i] = JournalAction.insert(table, deletedRows[i]);
+		
+		return new JournalChange(System.currentTimeMillis(),
+														 new JournalAction[]{JournalAction.delete(table, criteria)},
+														 inverse);
+	}
+	
+	/**
+	 * @param changes changes to combine, in the order they were made
+	 * @return single change which makes all {@code changes}, and reverts them in reverse order
+	 */
+	public static JournalChange combine(List<JournalChange> changes) {
+		List<JournalAction> forward = new ArrayList<>(),
+												inverse = new ArrayList<>();
+		
+		for (JournalChange change : changes)
+			forward.addAll(Arrays.asList(change.forward));
+		for (int i = changes.size() - 1; i >= 0; i--)
+			inverse.addAll(Arrays.asList(changes.get(i).inverse));
+		
+		return new JournalChange(System.currentTimeMillis(), forward.toArray(new JournalAction[forward.size()]), inverse.toArray(new JournalAction[inverse.size()]));
+	}
+	
+	/** @return time this change was made, in milliseconds since the epoch */
+	public long getTimestamp() {
+		return timestamp;
+	}
+	/** @return actions which make this change, in execution order */
+	public JournalAction[] getForward() {
+		return Arrays.copyOf(forward, forward.length);
+	}
+	/** @return actions which revert this change, in execution order */
+	public JournalAction[] getInverse() {
+		return Arrays.copyOf(inverse, inverse.length);
+	}
+	
+	void encode(DataOutput out) throws IOException {
+		out.writeLong(timestamp);
+		encode(forward, out);
+		encode(inverse, out);
+	}
+	private static void encode(JournalAction[] actions, DataOutput out) throws IOException {
+		out.writeInt(actions.length);
+		for (JournalAction action : actions)
+			action.encode(out);
+	}
+	static JournalChange decode(DataInput in) throws IOException {
+		long timestamp = in.readLong();
+		JournalAction[] forward = decodeActions(in);
+		JournalAction[] inverse = decodeActions(in);
+		
+		return new JournalChange(timestamp, forward, inverse);
+	}
+	private static JournalAction[] decodeActions(DataInput in) throws IOException {
+		JournalAction[] actions = new JournalAction[in.readInt()];
+		for (int i = 0; i < actions.length; i++)
+			actions[i] = JournalAction.decode(in);
+		
+		return actions;
+	}
+	
+	@Override
+	public String toString() {
+		return "JournalChange [forward=" + Arrays.toString(forward) + ", inverse=" + Arrays.toString(inverse) + "]";
+	}
+}
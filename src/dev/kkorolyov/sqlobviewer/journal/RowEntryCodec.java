@@ -0,0 +1,126 @@
+package dev.kkorolyov.sqlobviewer.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.MismatchedTypeException;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+
+/**
+ * Encodes and decodes {@code RowEntry} arrays to and from binary form.
+ */
+class RowEntryCodec {
+	private static final byte	NULL = 0,
+														BOOLEAN = 1,
+														SHORT = 2,
+														INT = 3,
+														LONG = 4,
+														FLOAT = 5,
+														DOUBLE = 6,
+														CHAR = 7,
+														STRING = 8;
+	
+	private RowEntryCodec() {}
+	
+	/**
+	 * Encodes row entries.
+	 * @param entries entries to encode, may be {@code null}
+	 * @param out output to encode to
+	 * @throws IOException if an I/O error occurs
+	 */
+	static void encode(RowEntry[] entries, DataOutput out) throws IOException {
+		if (entries == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(entries.length);
+		
+		for (RowEntry entry : entries) {
+			out.writeUTF(entry.getColumn().getName());
+			out.writeUTF(entry.getColumn().getType().name());
+			encodeValue(entry.getValue(), out);
+		}
+	}
+	private static void encodeValue(Object value, DataOutput out) throws IOException {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INT);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Character) {
+			out.writeByte(CHAR);
+			out.writeChar((Character) value);
+		} else {
+			out.writeByte(STRING);
+			out.writeUTF(value.toString());
+		}
+	}
+	
+	/**
+	 * Decodes row entries.
+	 * @param in input to decode from
+	 * @return decoded entries, or {@code null} if {@code null} entries were encoded
+	 * @throws IOException if an I/O error occurs or the encoded entries do not match their column types
+	 */
+	static RowEntry[] decode(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			return null;
+		
+		RowEntry[] entries = new RowEntry[length];
+		for (int i = 0; i < entries.length; i++) {
+			Column column = new Column(in.readUTF(), SqlType.valueOf(in.readUTF()));
+			
+			try {
+				entries[i] = new RowEntry(column, decodeValue(in));
+			} catch (MismatchedTypeException e) {
+				throw new IOException("Journaled value does not match column: " + column.getName(), e);
+			}
+		}
+		return entries;
+	}
+	private static Object decodeValue(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		
+		switch (tag) {
+			case NULL:
+				return null;
+			case BOOLEAN:
+				return in.readBoolean();
+			case SHORT:
+				return in.readShort();
+			case INT:
+				return in.readInt();
+			case LONG:
+				return in.readLong();
+			case FLOAT:
+				return in.readFloat();
+			case DOUBLE:
+				return in.readDouble();
+			case CHAR:
+				return in.readChar();
+			case STRING:
+				return in.readUTF();
+			default:
+				throw new IOException("Unknown value tag: " + tag);
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package dev.kkorolyov.sqlobviewer.journal;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * An append-only, multi-level undo/redo journal persisted through a memory-mapped file.
+ * Only the file offsets of undoable and redoable changes are kept on the heap; changes are decoded from the file when needed.
+ * A record becomes visible only once its length is written, so a partially-written record is ignored when the journal is reopened.
+ * Changes older than the undo depth are forgotten, and the file is compacted down to its undoable and redoable changes whenever it holds too many records or would outgrow its maximum size.
+ * Compaction writes a new file beside the journal and atomically renames it over the journal, so an interrupted compaction leaves the journal as it was.
+ */
+public class UndoJournal implements AutoCloseable {
+	private static final Log log = Log.get(UndoJournal.class);
+
+	private static final int INITIAL_SIZE = 1 << 20;
+	private static final byte	CHANGE = 1,
+														UNDO = 2,
+														REDO = 3;
+
+	private final File file,
+										staging;
+	private FileChannel channel;
+	private FileLock lock;
+	private final int maxUndo,
+										maxRecords,
+										maxSize;
+	private MappedByteBuffer buffer;
+	private int position,
+							records;
+	private boolean dirty;
+
+	private OffsetStack undoable = new OffsetStack(),
+											redoable = new OffsetStack();
+
+	private ScheduledExecutorService syncer;
+
+	/**
+	 * Opens a journal, replaying any changes already recorded in its file.
+	 * @param file journal file, created if it does not exist
+	 * @param syncInterval milliseconds between forcing written records to disk
+	 * @param maxUndo maximum number of changes which may be undone
+	 * @param maxSize maximum size of the file in bytes
+	 * @throws IOException if an I/O error occurs or the file is in use by another journal
+	 */
+	@SuppressWarnings("resource")
+	public UndoJournal(File file, long syncInterval, int maxUndo, int maxSize) throws IOException {
+		this.file = file;
+		staging = new File(file.getPath() + ".tmp");
+		this.maxUndo = Math.max(1, maxUndo);
+		this.maxSize = Math.max(INITIAL_SIZE, maxSize);
+		maxRecords = 2 * (this.maxUndo + 1);	// At most every undoable change and an undo marker are live
+
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+			throw new IOException("Unable to create journal folder: " + parent);
+
+		channel = new RandomAccessFile(file, "rw").getChannel();
+		lock = channel.tryLock();
+		if (lock == null) {
+			channel.close();
+			throw new IOException("Journal in use: " + file);
+		}
+		Files.deleteIfExists(staging.toPath());	// Left by an interrupted compaction
+		map(Math.min(Math.max(INITIAL_SIZE, channel.size()), Integer.MAX_VALUE));	// Records of older, larger files past the mappable size are lost
+		replay();
+		if (records > maxRecords || position > this.maxSize)
+			compact();
+
+		syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "journal-sync-" + file.getName());
+			thread.setDaemon(true);
+			return thread;
+		});
+		syncer.scheduleWithFixedDelay(this::sync, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+
+		log.debug(() -> "Opened journal = " + file + " (undoable=" + undoable.size() + ", redoable=" + redoable.size() + ")");
+	}
+	private void map(long size) throws IOException {
+		buffer = channel.map(MapMode.READ_WRITE, 0, size);
+	}
+	private void replay() {
+		while (position + Integer.BYTES <= buffer.capacity()) {
+			int length = buffer.getInt(position);
+			if (length <= 0 || (long) position + Integer.BYTES + length > buffer.capacity())
+				break;	// End of written records
+
+			int offset = position;
+			byte type = buffer.get(offset + Integer.BYTES);
+			switch (type) {
+				case CHANGE:
+					push(offset);
+					redoable.clear();
+					break;
+				case UNDO:
+					move(undoable, redoable, buffer.getInt(offset + Integer.BYTES + 1));
+					break;
+				case REDO:
+					move(redoable, undoable, buffer.getInt(offset + Integer.BYTES + 1));
+					break;
+				default:
+					log.warning(() -> "Unknown journal record type " + type + " at offset " + offset + ", ignoring remainder");
+					return;
+			}
+			position += Integer.BYTES + length;
+			records++;
+		}
+	}
+	private void push(int offset) {
+		undoable.push(offset);
+		if (undoable.size() > maxUndo)
+			undoable.removeOldest();	// Its record is dropped on the next compaction
+	}
+	private static void move(OffsetStack from, OffsetStack to, int count) {
+		for (int i = 0; i < count && from.size() > 0; i++)
+			to.push(from.pop());
+	}
+
+	/**
+	 * Records a new change, discarding all redoable changes.
+	 * @param change change to record
+	 * @throws IOException if an I/O error occurs
+	 */
+	public synchronized void record(JournalChange change) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(CHANGE);
+			change.encode(out);
+		}
+		byte[] record = bytes.toByteArray();
+		ensureRoom(record.length);
+		
+		push(append(record));
+		redoable.clear();
+	}
+
+	/**
+	 * @param steps maximum number of changes to return
+	 * @return up to {@code steps} most recent undoable changes, from newest to oldest
+	 * @throws IOException if an I/O error occurs
+	 */
+	public synchronized List<JournalChange> peekUndo(int steps) throws IOException {
+		return peek(undoable, steps);
+	}
+	/**
+	 * @param steps maximum number of changes to return
+	 * @return up to {@code steps} next redoable changes, in the order they should be redone
+	 * @throws IOException if an I/O error occurs
+	 */
+	public synchronized List<JournalChange> peekRedo(int steps) throws IOException {
+		return peek(redoable, steps);
+	}
+	private List<JournalChange> peek(OffsetStack stack, int steps) throws IOException {
+		int count = Math.min(steps, stack.size());
+		List<JournalChange> changes = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++)
+			changes.add(read(stack.peek(i)));
+
+		return changes;
+	}
+
+	/**
+	 * Marks the most recent undoable changes as undone.
+	 * @param steps number of changes undone
+	 * @throws IOException if an I/O error occurs
+	 */
+	public synchronized void markUndone(int steps) throws IOException {
+		appendMarker(UNDO, steps);
+		move(undoable, redoable, steps);
+	}
+	/**
+	 * Marks the next redoable changes as redone.
+	 * @param steps number of changes redone
+	 * @throws IOException if an I/O error occurs
+	 */
+	public synchronized void markRedone(int steps) throws IOException {
+		appendMarker(REDO, steps);
+		move(redoable, undoable, steps);
+	}
+	private void appendMarker(byte type, int steps) throws IOException {
+		if (steps <= 0)
+			return;
+
+		byte[] record = marker(type, steps);
+		ensureRoom(record.length);
+		append(record);
+	}
+	private static byte[] marker(byte type, int steps) {
+		byte[] record = new byte[1 + Integer.BYTES];
+		record[0] = type;
+		record[1] = (byte) (steps >>> 24);
+		record[2] = (byte) (steps >>> 16);
+		record[3] = (byte) (steps >>> 8);
+		record[4] = (byte) steps;
+
+		return record;
+	}
+
+	/** @return number of changes which may be undone */
+	public synchronized int getUndoCount() {
+		return undoable.size();
+	}
+	/** @return number of changes which may be redone */
+	public synchronized int getRedoCount() {
+		return redoable.size();
+	}
+
+	/** Compacts this journal if appending a record of {@code length} bytes would exceed its record or size limit. */
+	private void ensureRoom(int length) throws IOException {
+		if (records >= maxRecords || required(length) > maxSize)
+			compact();
+		if (required(length) > maxSize)
+			throw new IOException("Journal record of " + length + " bytes does not fit within maximum journal size of " + maxSize + " bytes");
+	}
+	private long required(int length) {
+		return (long) position + Integer.BYTES + length + Integer.BYTES;	// Keep room for a terminating 0 length
+	}
+
+	/**
+	 * Replaces the file with one holding only the undoable and redoable changes.
+	 * Redoable changes are rewritten as changes followed by a single undo marker, which restores them as redoable on replay.
+	 * The new file is written and forced beside the journal before it is renamed over it, so the journal is never seen partially compacted.
+	 */
+	private void compact() throws IOException {
+		int undoCount = undoable.size(),
+				redoCount = redoable.size(),
+				oldRecords = records;
+		List<byte[]> live = new ArrayList<>(undoCount + redoCount);
+
+		for (int i = undoCount - 1; i >= 0; i--)	// Oldest first
+			live.add(readRecord(undoable.peek(i)));
+		for (int i = 0; i < redoCount; i++)	// Next to redo last, so it is undone last
+			live.add(readRecord(redoable.peek(i)));
+
+		OffsetStack newUndoable = new OffsetStack(),
+								newRedoable = new OffsetStack();
+		int newPosition = 0;
+
+		FileChannel newChannel = FileChannel.open(staging.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		FileLock newLock;
+		try {
+			newLock = newChannel.tryLock();	// Held on through the rename, so the journal is never unlocked
+			if (newLock == null)
+				throw new IOException("Journal in use: " + staging);
+
+			for (byte[] record : live) {
+				newUndoable.push(newPosition);
+				newPosition += write(newChannel, record);
+			}
+			if (redoCount > 0) {
+				newPosition += write(newChannel, marker(UNDO, redoCount));
+				move(newUndoable, newRedoable, redoCount);
+			}
+			newChannel.write(ByteBuffer.allocate(Integer.BYTES));	// Terminating 0 length
+			newChannel.force(true);
+
+			Files.move(staging.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			newChannel.close();
+			Files.deleteIfExists(staging.toPath());
+			throw e;
+		}
+		lock.release();
+		channel.close();
+
+		channel = newChannel;
+		lock = newLock;
+		map(Math.max(INITIAL_SIZE, newPosition + Integer.BYTES));
+
+		undoable = newUndoable;
+		redoable = newRedoable;
+		position = newPosition;
+		records = live.size() + (redoCount > 0 ? 1 : 0);
+		dirty = false;
+
+		log.debug(() -> "Compacted journal = " + file + " from " + oldRecords + " to " + records + " records");
+	}
+	/** @return number of bytes written for {@code record}, including its length */
+	private static int write(FileChannel channel, byte[] record) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES + record.length);
+		bytes.putInt(record.length).put(record).flip();
+
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+
+		return Integer.BYTES + record.length;
+	}
+
+	private int append(byte[] record) throws IOException {
+		long required = required(record.length);
+		if (required > buffer.capacity()) {
+			buffer.force();
+			map(Math.min(Math.max(required, (long) buffer.capacity() * 2), maxSize));
+		}
+		int offset = position,
+				end = offset + Integer.BYTES + record.length;
+
+		buffer.putInt(end, 0);	// Terminates records
+		buffer.position(offset + Integer.BYTES);
+		buffer.put(record);
+		buffer.putInt(offset, record.length);	// Publish record only once fully written
+
+		position = end;
+		records++;
+		dirty = true;
+
+		return offset;
+	}
+	private byte[] readRecord(int offset) {
+		byte[] record = new byte[buffer.getInt(offset)];
+
+		buffer.position(offset + Integer.BYTES);
+		buffer.get(record);
+
+		return record;
+	}
+	private JournalChange read(int offset) throws IOException {
+		byte[] record = readRecord(offset);
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record, 1, record.length - 1))) {	// Skip record type
+			return JournalChange.decode(in);
+		}
+	}
+
+	/** Forces all written records to disk. */
+	public synchronized void sync() {
+		if (dirty) {
+			buffer.force();
+			dirty = false;
+		}
+	}
+
+	/** @return journal file */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Syncs and closes this journal.
+	 */
+	@Override
+	public synchronized void close() {
+		syncer.shutdownNow();
+		sync();
+
+		try {
+			lock.release();
+			channel.close();
+		} catch (IOException e) {
+			log.exception(e, Level.WARNING);
+		}
+		log.debug(() -> "Closed journal = " + file);
+	}
+
+	private static class OffsetStack {
+		private int[] offsets = new int[64];
+		private int size;
+
+		void push(int offset) {
+			if (size == offsets.length)
+				offsets = Arrays.copyOf(offsets, size * 2);
+
+			offsets[size++] = offset;
+		}
+		int pop() {
+			return offsets[--size];
+		}
+		void removeOldest() {
+			System.arraycopy(offsets, 1, offsets, 0, --size);
+		}
+		int peek(int depth) {
+			return offsets[size - 1 - depth];
+		}
+
+		int size() {
+			return size;
+		}
+		void clear() {
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package dev.kkorolyov.sqlobviewer.logging;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer which copies written characters into a fixed-size ring buffer drained to another writer by a background thread.
+ * Writes never block on I/O; a write which does not fit in the buffer is dropped, and the number of dropped characters is reported on the next drain.
+ */
+public class AsyncWriter extends Writer {
+	private final Writer out;
+	private final char[] ring,
+											 drained;
+	private int head,
+							size;
+	private long dropped;
+	private boolean closed;
+
+	private final Thread drainer;
+
+	/**
+	 * Constructs a new async writer and starts its drain thread.
+	 * @param out writer to drain to
+	 * @param capacity buffer capacity in characters
+	 */
+	public AsyncWriter(Writer out, int capacity) {
+		this.out = out;
+		ring = new char[capacity];
+		drained = new char[capacity];
+
+		drainer = new Thread(this::drain, "log-writer");
+		drainer.setDaemon(true);
+		drainer.start();
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		synchronized (lock) {
+			if (closed)
+				return;
+
+			if (len > ring.length - size) {
+				dropped += len;
+				return;
+			}
+			int tail = (head + size) % ring.length,
+					first = Math.min(len, ring.length - tail);
+
+			System.arraycopy(cbuf, off, ring, tail, first);
+			System.arraycopy(cbuf, off + first, ring, 0, len - first);	// Wrapped remainder
+			size += len;
+
+			lock.notify();
+		}
+	}
+
+	private void drain() {
+		while (true) {
+			int count;
+			long droppedCount;
+
+			synchronized (lock) {
+				while (size == 0 && dropped == 0 && !closed) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				if (size == 0 && dropped == 0 && closed)
+					return;
+
+				count = size;
+				int first = Math.min(count, ring.length - head);
+
+				System.arraycopy(ring, head, drained, 0, first);
+				System.arraycopy(ring, 0, drained, first, count - first);
+				head = (head + count) % ring.length;
+				size = 0;
+
+				droppedCount = dropped;
+				dropped = 0;
+			}
+			try {
+				out.write(drained, 0, count);
+				if (droppedCount > 0)
+					out.write("[" + droppedCount + " log characters dropped]" + System.lineSeparator());
+
+				out.flush();
+			} catch (IOException e) {
+				e.printStackTrace();	// Nowhere else to log to
+			}
+		}
+	}
+
+	/**
+	 * Does nothing; buffered characters are drained as soon as possible.
+	 */
+	@Override
+	public void flush() {}
+
+	/**
+	 * Drains all buffered characters and closes the underlying writer.
+	 * Subsequent writes are ignored.
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			if (closed)
+				return;
+
+			closed = true;
+			lock.notifyAll();
+		}
+		try {
+			drainer.join();
+			out.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
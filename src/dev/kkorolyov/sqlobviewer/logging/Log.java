@@ -0,0 +1,109 @@
+package dev.kkorolyov.sqlobviewer.logging;
+
+import java.io.PrintWriter;
+import java.util.function.Supplier;
+
+import dev.kkorolyov.simplelogs.Logger;
+import dev.kkorolyov.simplelogs.Logger.Level;
+
+/**
+ * Application logging facade.
+ * Checks the application-wide logging level before delegating to a {@code Logger}, so a message below the level, or any message while logging is disabled, is never formatted.
+ * Messages needing to be built should be passed as {@code Supplier}s.
+ */
+public final class Log {
+	private static volatile boolean enabled = true;
+	private static volatile Level level = Level.DEBUG;
+
+	private final Logger logger;
+
+	/**
+	 * Sets the application-wide logging level.
+	 * @param newEnabled whether anything is logged
+	 * @param newLevel least-severe level logged
+	 */
+	public static void configure(boolean newEnabled, Level newLevel) {
+		enabled = newEnabled;
+		level = newLevel;
+	}
+	/**
+	 * @param messageLevel level of a message
+	 * @return {@code true} if a message at {@code messageLevel} is logged
+	 */
+	public static boolean isLoggable(Level messageLevel) {
+		return enabled && messageLevel.compareTo(level) <= 0;	// Levels are ordered from most to least severe
+	}
+
+	/**
+	 * @param c class logging
+	 * @return facade for {@code c}'s logger
+	 */
+	public static Log get(Class<?> c) {
+		return new Log(Logger.getLogger(c.getName(), Level.DEBUG, (PrintWriter[]) null));
+	}
+	private Log(Logger logger) {
+		this.logger = logger;
+	}
+
+	/** @return {@code true} if debug messages are logged */
+	public boolean isDebugEnabled() {
+		return isLoggable(Level.DEBUG);
+	}
+
+	/** @param message message to log at {@code DEBUG} */
+	public void debug(String message) {
+		if (isLoggable(Level.DEBUG))
+			logger.debug(message);
+	}
+	/** @param message supplies message to log at {@code DEBUG}, invoked only if logged */
+	public void debug(Supplier<String> message) {
+		if (isLoggable(Level.DEBUG))
+			logger.debug(message.get());
+	}
+
+	/** @param message message to log at {@code INFO} */
+	public void info(String message) {
+		if (isLoggable(Level.INFO))
+			logger.info(message);
+	}
+	/** @param message supplies message to log at {@code INFO}, invoked only if logged */
+	public void info(Supplier<String> message) {
+		if (isLoggable(Level.INFO))
+			logger.info(message.get());
+	}
+
+	/** @param message message to log at {@code WARNING} */
+	public void warning(String message) {
+		if (isLoggable(Level.WARNING))
+			logger.warning(message);
+	}
+	/** @param message supplies message to log at {@code WARNING}, invoked only if logged */
+	public void warning(Supplier<String> message) {
+		if (isLoggable(Level.WARNING))
+			logger.warning(message.get());
+	}
+
+	/** @param message message to log at {@code SEVERE} */
+	public void severe(String message) {
+		if (isLoggable(Level.SEVERE))
+			logger.severe(message);
+	}
+	/** @param message supplies message to log at {@code SEVERE}, invoked only if logged */
+	public void severe(Supplier<String> message) {
+		if (isLoggable(Level.SEVERE))
+			logger.severe(message.get());
+	}
+
+	/** @param e exception to log at {@code SEVERE} */
+	public void exception(Exception e) {
+		exception(e, Level.SEVERE);
+	}
+	/**
+	 * @param e exception to log
+	 * @param exceptionLevel level to log at
+	 */
+	public void exception(Exception e, Level exceptionLevel) {
+		if (isLoggable(exceptionLevel))
+			logger.exception(e, exceptionLevel);
+	}
+}
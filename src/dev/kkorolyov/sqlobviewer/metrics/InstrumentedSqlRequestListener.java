@@ -0,0 +1,117 @@
+package dev.kkorolyov.sqlobviewer.metrics;
+
+import static dev.kkorolyov.sqlobviewer.metrics.Metrics.REQUEST;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.statement.StatementCommand;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestListener;
+import dev.kkorolyov.sqlobviewer.gui.event.SqlRequestSubject;
+
+/**
+ * Records the latency of each request handled by a delegate {@code SqlRequestListener}.
+ * Requests are recorded under {@link Metrics#REQUEST} followed by the name of the handling method.
+ */
+public class InstrumentedSqlRequestListener implements SqlRequestListener {
+	private final SqlRequestListener delegate;
+	
+	/**
+	 * Constructs a new instrumented listener.
+	 * @param delegate listener handling requests
+	 */
+	public InstrumentedSqlRequestListener(SqlRequestListener delegate) {
+		this.delegate = delegate;
+	}
+	
+	@Override
+	public void update(SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.update(source);
+		Metrics.record(REQUEST + "update", start);
+	}
+	
+	@Override
+	public void selectTable(String name, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.selectTable(name, source);
+		Metrics.record(REQUEST + "selectTable", start);
+	}
+	
+	@Override
+	public void createTable(String name, Column[] columns, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.createTable(name, columns, source);
+		Metrics.record(REQUEST + "createTable", start);
+	}
+	@Override
+	public void dropTable(String table, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.dropTable(table, source);
+		Metrics.record(REQUEST + "dropTable", start);
+	}
+	
+	@Override
+	public void updateRow(RowEntry[] newValues, RowEntry[] criteria, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.updateRow(newValues, criteria, source);
+		Metrics.record(REQUEST + "updateRow", start, 1, Metrics.estimateBytes(newValues));
+	}
+	@Override
+	public void insertRow(RowEntry[] rowValues, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.insertRow(rowValues, source);
+		Metrics.record(REQUEST + "insertRow", start, 1, Metrics.estimateBytes(rowValues));
+	}
+	@Override
+	public void updateRows(RowEntry[][] newValues, RowEntry[][] criteria, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.updateRows(newValues, criteria, source);
+		Metrics.record(REQUEST + "updateRows", start, newValues.length, estimateBytes(newValues));
+	}
+	@Override
+	public void insertRows(RowEntry[][] rows, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.insertRows(rows, source);
+		Metrics.record(REQUEST + "insertRows", start, rows.length, estimateBytes(rows));
+	}
+	@Override
+	public void deleteRow(RowEntry[] criteria, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.deleteRow(criteria, source);
+		Metrics.record(REQUEST + "deleteRow", start, 1, 0);
+	}
+	
+	private static long estimateBytes(RowEntry[][] rows) {
+		long bytes = 0;
+		for (RowEntry[] row : rows)
+			bytes += Metrics.estimateBytes(row);
+		
+		return bytes;
+	}
+	
+	@Override
+	public void revertStatement(StatementCommand statement, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.revertStatement(statement, source);
+		Metrics.record(REQUEST + "revertStatement", start);
+	}
+	@Override
+	public void revertStatements(StatementCommand[] statements, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.revertStatements(statements, source);
+		Metrics.record(REQUEST + "revertStatements", start, statements.length, 0);
+	}
+	
+	@Override
+	public void undo(int steps, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.undo(steps, source);
+		Metrics.record(REQUEST + "undo", start, steps, 0);
+	}
+	@Override
+	public void redo(int steps, SqlRequestSubject source) {
+		long start = System.nanoTime();
+		delegate.redo(steps, source);
+		Metrics.record(REQUEST + "redo", start, steps, 0);
+	}
+}
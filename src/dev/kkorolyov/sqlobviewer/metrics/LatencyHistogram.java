@@ -0,0 +1,86 @@
+package dev.kkorolyov.sqlobviewer.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds.
+ * Values are counted in log-linear buckets, 8 per power of 2, so reported percentiles are within 12.5% of the recorded value.
+ */
+public class LatencyHistogram {
+	private static final int	SUB_BUCKET_BITS = 3,
+														SUB_BUCKETS = 1 << SUB_BUCKET_BITS,
+														BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong 	count = new AtomicLong(),
+														total = new AtomicLong(),
+														max = new AtomicLong();
+	
+	/** @param nanos latency to record, negative values are ignored */
+	public void record(long nanos) {
+		if (nanos < 0)
+			return;
+		
+		counts.incrementAndGet(bucketOf(nanos));
+		count.incrementAndGet();
+		total.addAndGet(nanos);
+		
+		long currentMax;
+		while (nanos > (currentMax = max.get()) && !max.compareAndSet(currentMax, nanos));
+	}
+	
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		
+		int exponent = (Long.SIZE - 1) - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+	private static long upperBoundOf(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		
+		return lower + (1L << shift) - 1;
+	}
+	
+	/**
+	 * @param percentile percentile in range {@code [0, 100]}
+	 * @return approximate latency at {@code percentile}, or {@code 0} if nothing recorded
+	 */
+	public long getPercentile(double percentile) {
+		long recorded = count.get();
+		if (recorded == 0)
+			return 0;
+		
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded)),
+				 seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			
+			if (seen >= rank)
+				return Math.min(upperBoundOf(i), getMax());
+		}
+		return getMax();
+	}
+	
+	/** @return number of recorded latencies */
+	public long getCount() {
+		return count.get();
+	}
+	/** @return mean recorded latency, or {@code 0} if nothing recorded */
+	public long getMean() {
+		long recorded = count.get();
+		
+		return (recorded > 0) ? total.get() / recorded : 0;
+	}
+	/** @return maximum recorded latency */
+	public long getMax() {
+		return max.get();
+	}
+}
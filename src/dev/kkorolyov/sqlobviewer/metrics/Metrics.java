@@ -0,0 +1,134 @@
+package dev.kkorolyov.sqlobviewer.metrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import dev.kkorolyov.simplelogs.Logger.Level;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlobviewer.logging.Log;
+
+/**
+ * Centralized access to application-wide operation metrics.
+ */
+public class Metrics {
+	private static final Log log = Log.get(Metrics.class);
+	
+	@SuppressWarnings("javadoc")
+	public static final String	QUERY = "query",	// Operation names
+															FETCH = "fetch",
+															TABLE_DATA = "tableData",
+															SET_DATA = "model.setData",
+															INDEX = "model.index",
+															SORT = "table.sort",
+															PAINT = "table.paint",
+															EXPORT = "export",
+															IMPORT = "import",
+															CONSOLE = "console",
+															AGGREGATE = "aggregate",
+															PROFILE = "profile",
+															REQUEST = "request.";
+	
+	private static final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+	
+	private Metrics() {}
+	
+	/**
+	 * @param name operation name
+	 * @return metrics of the operation, created if necessary
+	 */
+	public static OperationMetrics get(String name) {
+		return operations.computeIfAbsent(name, OperationMetrics::new);
+	}
+	/** @return metrics of all operations recorded so far, sorted by name */
+	public static Collection<OperationMetrics> getAll() {
+		return new ArrayList<>(operations.values());
+	}
+	
+	/**
+	 * Records a single operation.
+	 * @param name operation name
+	 * @param start {@link System#nanoTime()} at operation start
+	 * @param rows number of rows handled by the operation
+	 * @param bytes approximate number of bytes handled by the operation
+	 */
+	public static void record(String name, long start, long rows, long bytes) {
+		get(name).record(System.nanoTime() - start, rows, bytes);
+	}
+	/**
+	 * Records a single operation handling no rows.
+	 * @param name operation name
+	 * @param start {@link System#nanoTime()} at operation start
+	 */
+	public static void record(String name, long start) {
+		record(name, start, 0, 0);
+	}
+	
+	/**
+	 * @param row row to estimate
+	 * @return approximate in-memory size of the values in {@code row}
+	 */
+	public static long estimateBytes(RowEntry[] row) {
+		long bytes = 0;
+		
+		for (RowEntry entry : row) {
+			Object value = entry.getValue();
+			
+			if (value instanceof Long || value instanceof Double)
+				bytes += Long.BYTES;
+			else if (value instanceof Number)
+				bytes += Integer.BYTES;
+			else if (value instanceof Boolean)
+				bytes += 1;
+			else if (value instanceof Character)
+				bytes += Character.BYTES;
+			else if (value instanceof CharSequence)
+				bytes += ((CharSequence) value).length() * Character.BYTES;
+			else if (value != null)
+				bytes += value.toString().length() * Character.BYTES;
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @param names names of operations to summarize
+	 * @return one-line summary of each recorded operation in {@code names}
+	 */
+	public static String summarize(String... names) {
+		List<String> summaries = new ArrayList<>(names.length);
+		
+		for (String name : names) {
+			OperationMetrics operation = operations.get(name);
+			
+			if (operation != null)
+				summaries.add(operation.summarize());
+		}
+		return String.join(" | ", summaries);
+	}
+	
+	/**
+	 * Appends a snapshot of all metrics to a file.
+	 * @param file file to append to
+	 */
+	public static void dump(File file) {
+		try (PrintWriter out = new PrintWriter(new FileWriter(file, true))) {
+			out.println("# " + new Date());
+			
+			for (OperationMetrics operation : operations.values())
+				out.println(operation);
+			
+			out.println();
+		} catch (IOException e) {
+			log.exception(e, Level.WARNING);
+			return;
+		}
+		log.info(() -> "Dumped metrics to " + file);
+	}
+}
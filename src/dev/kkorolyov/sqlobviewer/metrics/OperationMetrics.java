@@ -0,0 +1,66 @@
+package dev.kkorolyov.sqlobviewer.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, row, and byte measurements of a single kind of operation.
+ */
+public class OperationMetrics {
+	private final String name;
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private final LongAdder rows = new LongAdder(),
+													bytes = new LongAdder();
+	
+	OperationMetrics(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Records a single operation.
+	 * @param nanos operation latency
+	 * @param rowCount number of rows handled by the operation
+	 * @param byteCount approximate number of bytes handled by the operation
+	 */
+	public void record(long nanos, long rowCount, long byteCount) {
+		latencies.record(nanos);
+		rows.add(rowCount);
+		bytes.add(byteCount);
+	}
+	
+	/** @return operation name */
+	public String getName() {
+		return name;
+	}
+	/** @return operation latencies */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+	/** @return total rows handled */
+	public long getRows() {
+		return rows.sum();
+	}
+	/** @return total approximate bytes handled */
+	public long getBytes() {
+		return bytes.sum();
+	}
+	
+	/** @return short summary of median, 99th percentile, and maximum latencies */
+	public String summarize() {
+		return name + " " + millis(latencies.getPercentile(50)) + "/" + millis(latencies.getPercentile(99)) + "/" + millis(latencies.getMax()) + "ms";
+	}
+	private static String millis(long nanos) {
+		return String.format("%.1f", nanos / 1e6);
+	}
+	
+	@Override
+	public String toString() {
+		return name
+				 + ": count=" + latencies.getCount()
+				 + ", mean=" + millis(latencies.getMean()) + "ms"
+				 + ", p50=" + millis(latencies.getPercentile(50)) + "ms"
+				 + ", p99=" + millis(latencies.getPercentile(99)) + "ms"
+				 + ", max=" + millis(latencies.getMax()) + "ms"
+				 + ", rows=" + getRows()
+				 + ", bytes=" + getBytes();
+	}
+}
@@ -1,11 +1,25 @@
 package dev.kkorolyov.sqlobviewer.model;
 
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+
 import javax.swing.event.ChangeListener;
 
 import dev.kkorolyov.sqlob.construct.Column;
 import dev.kkorolyov.sqlob.construct.RowEntry;
 import dev.kkorolyov.sqlob.construct.statement.UpdateStatement;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnAggregate;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfile;
+import dev.kkorolyov.sqlobviewer.aggregate.ColumnProfiler;
+import dev.kkorolyov.sqlobviewer.console.QueryConsole;
+import dev.kkorolyov.sqlobviewer.export.ExportProgress;
+import dev.kkorolyov.sqlobviewer.export.Exporter;
+import dev.kkorolyov.sqlobviewer.importing.CsvImporter;
+import dev.kkorolyov.sqlobviewer.importing.ImportProgress;
+import dev.kkorolyov.sqlobviewer.importing.ImportResult;
 import dev.kkorolyov.sqlobviewer.gui.event.Subject;
+import dev.kkorolyov.sqlobviewer.history.StatementHistory;
 
 /**
  * Maintains the main model for the {@code SQLObViewer} application.
@@ -17,15 +31,75 @@ public interface DatabaseModel extends Subject {
 	String getTable();
 	/** @return tables under current database connection */
 	String[] getTables();
+	/** @return {@code true} while the initial table list and table are still loading in the background */
+	boolean isLoading();
 	
 	/** @return columns of current table connection, or an empty array if current connection is {@code null} */
 	Column[] getTableColumns();
 	/** @return data of current table connection, or an empty array if current connection is {@code null} */
 	RowEntry[][] getTableData();
 	
+	/**
+	 * Exports all rows of a table as they are fetched from the database, without caching them.
+	 * May be invoked from any thread; a read connection is held until the export completes.
+	 * @param table table to export
+	 * @param exporter exporter to use
+	 * @param file file to export to
+	 * @param progress receives progress and may cancel the export
+	 * @return number of rows exported
+	 * @throws IOException if an I/O error occurs
+	 */
+	long exportTable(String table, Exporter exporter, File file, ExportProgress progress) throws IOException;
+	/**
+	 * Imports a CSV file into a table over a dedicated connection.
+	 * May be invoked from any thread; cached data of the table is stale until this model is next updated.
+	 * @param table table to import into
+	 * @param importer importer to use
+	 * @param file file to import
+	 * @param progress receives progress and may cancel the import
+	 * @return import result
+	 * @throws IOException if an I/O error occurs
+	 * @throws SQLException if a database error other than a rejected row occurs
+	 */
+	ImportResult importTable(String table, CsvImporter importer, File file, ImportProgress progress) throws IOException, SQLException;
+	/**
+	 * Opens a console for ad-hoc SQL against this model's database.
+	 * The console holds its own connection, opened on first use, and must be closed by the caller.
+	 * Changes made through the console are not reflected in this model until it is next updated.
+	 * @return new console
+	 */
+	QueryConsole openConsole();
+	/**
+	 * Aggregates columns over all rows of a table in the database, e.g. while the table is still loading.
+	 * May be invoked from any thread; the query runs over a dedicated connection.
+	 * @param table table to aggregate
+	 * @param columns columns to aggregate
+	 * @return aggregate of each column, in order
+	 * @throws SQLException if a database error occurs
+	 */
+	ColumnAggregate[] aggregateTable(String table, Column[] columns) throws SQLException;
+	/**
+	 * Profiles columns of a table by sampling its rows in the database, e.g. while the table is still loading.
+	 * May be invoked from any thread; the queries run over a dedicated connection.
+	 * @param table table to profile
+	 * @param columns columns to profile
+	 * @param profiler profiler to use
+	 * @return profile of each column, in order
+	 * @throws SQLException if a database error occurs
+	 */
+	ColumnProfile[] profileTable(String table, Column[] columns, ColumnProfiler profiler) throws SQLException;
+	
 	/** @return last-executed {@code UpdateStatement}, or {@code null} if no such statement */
 	UpdateStatement getLastStatement();
 	
+	/** @return statements executed against this model's database */
+	StatementHistory getHistory();
+	
+	/** @return number of changes which may be undone */
+	int getUndoCount();
+	/** @return number of changes which may be redone */
+	int getRedoCount();
+	
 	/** @param listener change listener to add */
 	void addChangeListener(ChangeListener listener);
 	/** @param listener change listener to remove */
@@ -0,0 +1,66 @@
+package dev.kkorolyov.sqlobviewer.journal;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.junit.Test;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+
+@SuppressWarnings("javadoc")
+public class RowEntryCodecTest {
+	@Test
+	public void roundTripsEveryValueType() throws Exception {
+		RowEntry[] entries = {new RowEntry(new Column("bool", SqlType.BOOLEAN), true),
+													new RowEntry(new Column("short", SqlType.SMALLINT), (short) -7),
+													new RowEntry(new Column("int", SqlType.INTEGER), Integer.MIN_VALUE),
+													new RowEntry(new Column("long", SqlType.BIGINT), Long.MAX_VALUE),
+													new RowEntry(new Column("real", SqlType.REAL), 1.5f),
+													new RowEntry(new Column("double", SqlType.DOUBLE), -0.25),
+													new RowEntry(new Column("char", SqlType.CHAR), 'x'),
+													new RowEntry(new Column("varchar", SqlType.VARCHAR), "text, \"quoted\"\nand unicode \u00e9"),
+													new RowEntry(new Column("null", SqlType.VARCHAR), null)};
+
+		RowEntry[] decoded = decode(encode(entries));
+
+		assertEquals(entries.length, decoded.length);
+		for (int i = 0; i < entries.length; i++) {
+			assertEquals(entries[i].getColumn().getName(), decoded[i].getColumn().getName());
+			assertEquals(entries[i].getColumn().getType(), decoded[i].getColumn().getType());
+			assertEquals(entries[i].getValue(), decoded[i].getValue());
+		}
+	}
+	@Test
+	public void roundTripsNullAndEmptyEntries() throws Exception {
+		assertNull(decode(encode(null)));
+		assertEquals(0, decode(encode(new RowEntry[0])).length);
+	}
+
+	@Test(expected = IOException.class)
+	public void failsOnUnknownValueTag() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(1);
+			out.writeUTF("column");
+			out.writeUTF(SqlType.INTEGER.name());
+			out.writeByte(127);
+		}
+		decode(bytes.toByteArray());
+	}
+
+	private static byte[] encode(RowEntry[] entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			RowEntryCodec.encode(entries, out);
+		}
+		return bytes.toByteArray();
+	}
+	private static RowEntry[] decode(byte[] bytes) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			return RowEntryCodec.decode(in);
+		}
+	}
+}
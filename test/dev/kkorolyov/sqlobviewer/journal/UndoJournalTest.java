@@ -0,0 +1,202 @@
+package dev.kkorolyov.sqlobviewer.journal;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dev.kkorolyov.sqlob.construct.Column;
+import dev.kkorolyov.sqlob.construct.RowEntry;
+import dev.kkorolyov.sqlob.construct.SqlType;
+
+@SuppressWarnings("javadoc")
+public class UndoJournalTest {
+	private static final int SYNC_INTERVAL = 60000,
+													 MAX_SIZE = 1 << 20;
+	private static final Column	ID = new Column("id", SqlType.INTEGER),
+															NAME = new Column("name", SqlType.VARCHAR);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void roundTripsChanges() throws Exception {
+		File file = folder.newFile();
+		JournalChange	update = JournalChange.update("table", row(1, "new"), row(1, "old")),
+									insert = JournalChange.insert("table", row(2, null)),
+									delete = JournalChange.delete("table", new RowEntry[] {new RowEntry(ID, 3)}, new RowEntry[][] {row(3, "a"), row(3, "b")});
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 10, MAX_SIZE)) {
+			journal.record(update);
+			journal.record(insert);
+			journal.record(delete);
+
+			assertChanges(Arrays.asList(delete, insert, update), journal.peekUndo(10));
+		}
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 10, MAX_SIZE)) {
+			assertChanges(Arrays.asList(delete, insert, update), journal.peekUndo(10));
+		}
+	}
+	@Test
+	public void restoresUndoAndRedoOnReopen() throws Exception {
+		File file = folder.newFile();
+		List<JournalChange> changes = changes(4);
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 10, MAX_SIZE)) {
+			for (JournalChange change : changes)
+				journal.record(change);
+
+			journal.markUndone(3);
+			journal.markRedone(1);
+		}
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 10, MAX_SIZE)) {
+			assertEquals(2, journal.getUndoCount());
+			assertEquals(2, journal.getRedoCount());
+			assertChanges(Arrays.asList(changes.get(1), changes.get(0)), journal.peekUndo(10));
+			assertChanges(Arrays.asList(changes.get(2), changes.get(3)), journal.peekRedo(10));
+		}
+	}
+	@Test
+	public void recordDiscardsRedo() throws Exception {
+		try (UndoJournal journal = new UndoJournal(folder.newFile(), SYNC_INTERVAL, 10, MAX_SIZE)) {
+			for (JournalChange change : changes(3))
+				journal.record(change);
+
+			journal.markUndone(2);
+			journal.record(change(3));
+
+			assertEquals(2, journal.getUndoCount());
+			assertEquals(0, journal.getRedoCount());
+		}
+	}
+
+	@Test
+	public void keepsOnlyUndoDepth() throws Exception {
+		File file = folder.newFile();
+		List<JournalChange> changes = changes(20);
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 5, MAX_SIZE)) {
+			for (JournalChange change : changes)
+				journal.record(change);
+
+			assertEquals(5, journal.getUndoCount());
+		}
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 5, MAX_SIZE)) {
+			assertEquals(5, journal.getUndoCount());
+			assertChanges(Arrays.asList(changes.get(19), changes.get(18), changes.get(17), changes.get(16), changes.get(15)), journal.peekUndo(10));
+		}
+	}
+	@Test
+	public void compactsToBoundedSize() throws Exception {
+		File file = folder.newFile();
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 3, MAX_SIZE)) {
+			for (JournalChange change : changes(100000))	// About 4MB uncompacted
+				journal.record(change);
+		}
+		assertTrue("Journal grew to " + file.length() + " bytes", file.length() <= MAX_SIZE);
+	}
+	@Test
+	public void compactionKeepsRedo() throws Exception {
+		File file = folder.newFile();
+		List<JournalChange> changes = changes(3);
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 3, MAX_SIZE)) {
+			for (JournalChange change : changes)
+				journal.record(change);
+
+			for (int i = 0; i < 100; i++) {	// Only markers, which trigger compactions
+				journal.markUndone(2);
+				journal.markRedone(1);
+				journal.markRedone(1);
+			}
+			journal.markUndone(2);
+
+			assertChanges(Arrays.asList(changes.get(1), changes.get(2)), journal.peekRedo(10));
+		}
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 3, MAX_SIZE)) {
+			assertChanges(Arrays.asList(changes.get(0)), journal.peekUndo(10));
+			assertChanges(Arrays.asList(changes.get(1), changes.get(2)), journal.peekRedo(10));
+		}
+	}
+	@Test
+	public void reopensAfterInterruptedCompaction() throws Exception {
+		File file = folder.newFile(),
+				 staging = new File(file.getPath() + ".tmp");
+		List<JournalChange> changes = changes(5);
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 10, MAX_SIZE)) {
+			for (JournalChange change : changes)
+				journal.record(change);
+
+			journal.markUndone(1);
+		}
+		byte[] journalBytes = Files.readAllBytes(file.toPath());
+		Files.write(staging.toPath(), Arrays.copyOf(journalBytes, journalBytes.length / 2));	// Compaction cut short before its rename
+
+		try (UndoJournal journal = new UndoJournal(file, SYNC_INTERVAL, 10, MAX_SIZE)) {
+			assertChanges(Arrays.asList(changes.get(3), changes.get(2), changes.get(1), changes.get(0)), journal.peekUndo(10));
+			assertChanges(Arrays.asList(changes.get(4)), journal.peekRedo(10));
+			assertFalse("Staging file left behind", staging.exists());
+		}
+	}
+	@Test
+	public void rejectsChangeLargerThanMaxSize() throws Exception {
+		char[] chars = new char[60000];
+		Arrays.fill(chars, 'x');
+		String value = new String(chars);
+
+		RowEntry[][] rows = new RowEntry[20][];
+		for (int i = 0; i < rows.length; i++)
+			rows[i] = row(i, value);
+
+		try (UndoJournal journal = new UndoJournal(folder.newFile(), SYNC_INTERVAL, 3, MAX_SIZE)) {
+			journal.record(change(0));
+
+			try {
+				journal.record(JournalChange.delete("table", row(0, null), rows));
+				fail("Expected IOException");
+			} catch (IOException e) {
+				assertEquals(1, journal.getUndoCount());
+			}
+		}
+	}
+
+	private static List<JournalChange> changes(int count) throws Exception {
+		List<JournalChange> changes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			changes.add(change(i));
+
+		return changes;
+	}
+	private static JournalChange change(int id) throws Exception {
+		return JournalChange.insert("table", row(id, "row " + id));
+	}
+	private static RowEntry[] row(int id, String name) throws Exception {
+		return new RowEntry[] {new RowEntry(ID, id), new RowEntry(NAME, name)};
+	}
+
+	private static void assertChanges(List<JournalChange> expected, List<JournalChange> actual) throws IOException {
+		assertEquals(expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++)
+			assertArrayEquals("Change " + i, encode(expected.get(i)), encode(actual.get(i)));
+	}
+	private static byte[] encode(JournalChange change) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			change.encode(out);
+		}
+		return bytes.toByteArray();
+	}
+}